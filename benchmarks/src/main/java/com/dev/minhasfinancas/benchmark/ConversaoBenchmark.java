@@ -0,0 +1,48 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.api.dto.LancamentoDTO;
+import com.dev.minhasfinancas.api.resource.LancamentoConverter;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversaoBenchmark {
+
+    Usuario usuario;
+    Lancamento lancamento;
+    LancamentoDTO dto;
+
+    @Setup
+    public void setUp() {
+        usuario = Lancamentos.usuario();
+        lancamento = Lancamentos.lancamento(1L, usuario);
+        dto = LancamentoConverter.paraDTO(lancamento);
+    }
+
+    @Benchmark
+    public LancamentoDTO paraDTO() {
+        return LancamentoConverter.paraDTO(lancamento);
+    }
+
+    @Benchmark
+    public Lancamento paraEntidade() {
+        return LancamentoConverter.paraEntidade(dto, usuario);
+    }
+}
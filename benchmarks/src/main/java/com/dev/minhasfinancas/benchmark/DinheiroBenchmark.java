@@ -0,0 +1,76 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Soma de contribuições no saldo (receitas menos despesas), como no ajuste da atualização de status em lote:
+ * BigDecimal x Dinheiro (centavos em long). Rodar com -prof gc para ver a alocação por operação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DinheiroBenchmark {
+
+    @Param({"1000"})
+    int tamanho;
+
+    BigDecimal[] decimais;
+    Dinheiro[] valores;
+    boolean[] receitas;
+
+    @Setup
+    public void setUp() {
+        decimais = new BigDecimal[tamanho];
+        valores = new Dinheiro[tamanho];
+        receitas = new boolean[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            decimais[i] = BigDecimal.valueOf(i % 100_000 + 1, 2);
+            valores[i] = Dinheiro.de(decimais[i]);
+            receitas[i] = i % 2 == 0;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal somarBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < tamanho; i++) {
+            total = total.add(receitas[i] ? decimais[i] : decimais[i].negate());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Dinheiro somarDinheiro() {
+        Dinheiro total = Dinheiro.ZERO;
+        for (int i = 0; i < tamanho; i++) {
+            total = total.somar(receitas[i] ? valores[i] : valores[i].negar());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long somarCentavos() {
+        long total = 0;
+        for (int i = 0; i < tamanho; i++) {
+            total = Math.addExact(total, receitas[i] ? valores[i].getCentavos() : -valores[i].getCentavos());
+        }
+        return total;
+    }
+}
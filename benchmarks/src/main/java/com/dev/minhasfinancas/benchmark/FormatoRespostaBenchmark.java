@@ -0,0 +1,87 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.api.dto.LancamentoDTO;
+import com.dev.minhasfinancas.api.resource.LancamentoConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Serialização da lista de DTOs da busca em JSON, CBOR e Smile, com e sem gzip. Os tamanhos dos payloads
+ * são impressos no setup de cada combinação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatoRespostaBenchmark {
+
+    @Param({"100", "10000"})
+    int tamanho;
+
+    @Param({"json", "cbor", "smile"})
+    String formato;
+
+    ObjectMapper mapper;
+    List<LancamentoDTO> dtos;
+
+    @Setup
+    public void setUp() throws IOException {
+        // mesmos mappers que FormatosBinariosConfig registra no Spring MVC
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (formato) {
+            case "cbor":
+                mapper = builder.createXmlMapper(false).factory(new CBORFactory()).build();
+                break;
+            case "smile":
+                mapper = builder.createXmlMapper(false).factory(new SmileFactory()).build();
+                break;
+            default:
+                mapper = builder.build();
+        }
+        dtos = Lancamentos.lista(tamanho).stream().map(LancamentoConverter::paraDTO).collect(Collectors.toList());
+
+        byte[] payload = serializar();
+        System.out.printf("%n%s com %d lançamentos: %d bytes, %d bytes com gzip%n",
+                formato, tamanho, payload.length, comprimir(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        return mapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] serializarComGzip() throws IOException {
+        return comprimir(mapper.writeValueAsBytes(dtos));
+    }
+
+    private static byte[] comprimir(byte[] payload) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(payload);
+        }
+        return saida.toByteArray();
+    }
+}
@@ -0,0 +1,94 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.MinhasfinancasApplication;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.service.GravacaoAgrupada;
+import com.dev.minhasfinancas.service.LancamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Inclusões simultâneas de lançamentos no H2, cada uma com a sua transação (desligado) ou em commit de grupo
+ * com a janela indicada. O modo SampleTime mostra a latência de cada inclusão, incluindo a espera pela janela.
+ * No H2 em memória o commit não vai ao disco, então o ganho aqui é menor que num banco com fsync a cada commit.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(16)
+@State(Scope.Benchmark)
+public class GravacaoAgrupadaBenchmark {
+
+    static final int USUARIOS = 16;
+
+    @Param({"desligado", "1ms", "5ms"})
+    String janela;
+
+    ConfigurableApplicationContext contexto;
+    LancamentoService lancamentoService;
+    GravacaoAgrupada gravacaoAgrupada;
+    Usuario[] usuarios;
+    AtomicLong sequencia = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean agrupado = !janela.equals("desligado");
+        contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=jdbc:h2:mem:agrupamento" + janela
+                                + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;INIT=CREATE SCHEMA IF NOT EXISTS financas",
+                        "--minhasfinancas.lancamento.agrupamento.habilitado=" + agrupado,
+                        "--minhasfinancas.lancamento.agrupamento.janela=" + (agrupado ? janela : "0ms"),
+                        "--logging.level.root=WARN");
+
+        lancamentoService = contexto.getBean(LancamentoService.class);
+        gravacaoAgrupada = contexto.getBeanProvider(GravacaoAgrupada.class).getIfAvailable();
+
+        // usuários em rodízio, com o saldo já criado: as primeiras inclusões simultâneas tentariam criá-lo juntas
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        for (int u = 0; u < USUARIOS; u++) {
+            jdbcTemplate.update("insert into financas.usuario (nome, email, senha) values (?, ?, 'senha')",
+                    "usuario" + u, "usuario" + u + "@email.com");
+        }
+        jdbcTemplate.update("insert into financas.saldo_usuario (id_usuario, saldo, versao) select id, 0, 0 from financas.usuario");
+        usuarios = jdbcTemplate.queryForList("select id from financas.usuario order by id", Long.class).stream()
+                .map( id -> Usuario.builder().id(id).build() )
+                .toArray(Usuario[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Lancamento salvar() {
+        long numero = sequencia.incrementAndGet();
+        Lancamento lancamento = Lancamentos.lancamento(numero, usuarios[(int) (numero % USUARIOS)]);
+        lancamento.setId(null);
+        return gravacaoAgrupada != null ? gravacaoAgrupada.salvar(lancamento) : lancamentoService.salvar(lancamento);
+    }
+}
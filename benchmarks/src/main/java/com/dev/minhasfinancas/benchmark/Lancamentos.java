@@ -0,0 +1,44 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class Lancamentos {
+
+    private Lancamentos() {
+    }
+
+    static Usuario usuario() {
+        return Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").senha("senha").build();
+    }
+
+    static Lancamento lancamento(long id, Usuario usuario) {
+        return Lancamento.builder()
+                .id(id)
+                .descricao("Lançamento " + id)
+                .mes((int) (id % 12) + 1)
+                .ano(2020)
+                .valor(Dinheiro.deCentavos(id % 1000 + 1000))
+                .tipo(id % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+                .status(StatusLancamento.PENDENTE)
+                .dataCadastro(LocalDate.of(2020, 1, 1))
+                .usuario(usuario)
+                .build();
+    }
+
+    static List<Lancamento> lista(int tamanho) {
+        Usuario usuario = usuario();
+        List<Lancamento> lancamentos = new ArrayList<>(tamanho);
+        for (int i = 1; i <= tamanho; i++) {
+            lancamentos.add(lancamento(i, usuario));
+        }
+        return lancamentos;
+    }
+}
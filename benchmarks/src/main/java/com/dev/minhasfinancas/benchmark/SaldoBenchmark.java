@@ -0,0 +1,106 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.MinhasfinancasApplication;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.LancamentoService;
+import com.dev.minhasfinancas.service.SaldoUsuarioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Saldo de um usuário no H2 com a massa distribuída entre 10 usuários.
+ * obterSaldoPorUsuario lê o saldo materializado; calcularSaldoDoUsuario é a agregação sobre os lançamentos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SaldoBenchmark {
+
+    static final int USUARIOS = 10;
+    static final int TAMANHO_LOTE = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    int linhas;
+
+    ConfigurableApplicationContext contexto;
+    LancamentoService lancamentoService;
+    LancamentoRepository lancamentoRepository;
+    Long idUsuario;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark" + linhas
+                                + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;INIT=CREATE SCHEMA IF NOT EXISTS financas",
+                        "--logging.level.root=WARN");
+
+        lancamentoService = contexto.getBean(LancamentoService.class);
+        lancamentoRepository = contexto.getBean(LancamentoRepository.class);
+        popular(contexto.getBean(JdbcTemplate.class));
+        contexto.getBean(SaldoUsuarioService.class).verificarSaldos();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Dinheiro obterSaldoPorUsuario() {
+        return lancamentoService.obterSaldoPorUsuario(idUsuario);
+    }
+
+    @Benchmark
+    public Dinheiro calcularSaldoDoUsuario() {
+        return lancamentoRepository.calcularSaldoDoUsuario(idUsuario);
+    }
+
+    private void popular(JdbcTemplate jdbcTemplate) {
+        List<Object[]> usuarios = new ArrayList<>();
+        for (int u = 1; u <= USUARIOS; u++) {
+            usuarios.add(new Object[]{ "usuario" + u, "usuario" + u + "@email.com" });
+        }
+        jdbcTemplate.batchUpdate("insert into financas.usuario (nome, email, senha) values (?, ?, 'senha')", usuarios);
+        List<Long> ids = jdbcTemplate.queryForList("select id from financas.usuario order by id", Long.class);
+        idUsuario = ids.get(0);
+
+        List<Object[]> lote = new ArrayList<>(TAMANHO_LOTE);
+        for (int i = 0; i < linhas; i++) {
+            lote.add(new Object[]{ "Lançamento " + i, i % 12 + 1, 2000 + i % 20, ids.get(i % USUARIOS),
+                    i % 2 == 0 ? "RECEITA" : "DESPESA", i % 3 == 0 ? "EFETIVADO" : "PENDENTE",
+                    BigDecimal.valueOf(i % 1000 + 1) });
+            if(lote.size() == TAMANHO_LOTE || i == linhas - 1) {
+                jdbcTemplate.batchUpdate("insert into financas.lancamento (descricao, mes, ano, id_usuario, tipo, status, valor) "
+                        + "values (?, ?, ?, ?, ?, ?, ?)", lote);
+                lote.clear();
+            }
+        }
+        jdbcTemplate.execute("analyze");
+    }
+}
@@ -0,0 +1,60 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.api.dto.LancamentoDTO;
+import com.dev.minhasfinancas.api.resource.LancamentoConverter;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+ * Serialização das listas devolvidas pela API: entidades (com o usuário embutido) x DTOs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoBenchmark {
+
+    @Param({"100", "10000"})
+    int tamanho;
+
+    ObjectMapper mapper;
+    List<Lancamento> lancamentos;
+    List<LancamentoDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        // mesmo mapper que o Spring MVC configura
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        lancamentos = Lancamentos.lista(tamanho);
+        dtos = lancamentos.stream().map(LancamentoConverter::paraDTO).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializarEntidades() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(lancamentos);
+    }
+
+    @Benchmark
+    public byte[] serializarDTOs() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(dtos);
+    }
+}
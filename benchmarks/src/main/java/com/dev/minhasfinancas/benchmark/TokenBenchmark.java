@@ -0,0 +1,59 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.config.JwtTokenFilter;
+import com.dev.minhasfinancas.config.UsuarioAutenticado;
+import com.dev.minhasfinancas.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Emissão e validação do token de acesso. Rode com -prof gc para acompanhar a alocação por validação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenBenchmark {
+
+    JwtServiceImpl jwtService;
+    JwtTokenFilter filtro;
+    String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtServiceImpl(30, Base64.getEncoder().encodeToString(
+                "chave-do-benchmark-com-tamanho-suficiente-para-hs512-0123456789ab".getBytes()));
+        token = jwtService.gerarToken(Lancamentos.usuario());
+        filtro = new JwtTokenFilter(jwtService, false);
+    }
+
+    @Benchmark
+    public String gerarToken() {
+        return jwtService.gerarToken(Lancamentos.usuario());
+    }
+
+    @Benchmark
+    public Claims validarToken() {
+        return jwtService.obterClaims(token);
+    }
+
+    // token já validado em uma requisição anterior, como no filtro em produção
+    @Benchmark
+    public UsuarioAutenticado autenticarNoFiltro() {
+        return filtro.autenticar(new String(token));
+    }
+}
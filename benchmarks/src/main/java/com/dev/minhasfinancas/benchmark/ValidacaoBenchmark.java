@@ -0,0 +1,41 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.service.impl.LancamentoServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacaoBenchmark {
+
+    LancamentoServiceImpl service;
+    Lancamento lancamento;
+
+    @Setup
+    public void setUp() {
+        // validar não usa as dependências do serviço
+        service = new LancamentoServiceImpl(null, null, null, null, null);
+        lancamento = Lancamentos.lancamento(1L, Lancamentos.usuario());
+    }
+
+    @Benchmark
+    public Lancamento validar() {
+        service.validar(lancamento);
+        return lancamento;
+    }
+}
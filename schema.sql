@@ -1,28 +1,6 @@
-﻿
 -- DROP DATABASE minhasfinancas;
 
 CREATE DATABASE minhasfinancas;
 
-CREATE SCHEMA financas;
-
-CREATE TABLE financas.usuario
-(
-  id bigserial NOT NULL PRIMARY KEY,
-  nome character varying(150),
-  email character varying(100),
-  senha character varying(20),
-  data_cadastro date default now()
-);
-
-CREATE TABLE financas.lancamento
-(
-  id bigserial NOT NULL PRIMARY KEY ,
-  descricao character varying(100) NOT NULL,
-  mes integer NOT NULL,
-  ano integer NOT NULL,
-  valor numeric(16,2),
-  tipo character varying(20),
-  status character varying(20),
-  id_usuario bigint REFERENCES financas.usuario (id),
-  data_cadastro date default now()
-);
\ No newline at end of file
+-- As tabelas do schema financas são criadas e evoluídas pela própria aplicação,
+-- através das migrações do Flyway em src/main/resources/db/migration.
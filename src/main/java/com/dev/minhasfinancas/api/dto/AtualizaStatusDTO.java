@@ -10,4 +10,5 @@ import lombok.NoArgsConstructor;
 public class AtualizaStatusDTO {
 
     private String status;
+    private Long versao;
 }
\ No newline at end of file
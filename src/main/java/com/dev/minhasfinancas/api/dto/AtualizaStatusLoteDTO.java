@@ -0,0 +1,19 @@
+package com.dev.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AtualizaStatusLoteDTO {
+
+    private List<Long> ids;
+    private String status;
+    private Long usuario;
+}
@@ -1,12 +1,11 @@
 package com.dev.minhasfinancas.api.dto;
 
+import com.dev.minhasfinancas.model.valor.Dinheiro;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,8 +16,9 @@ public class LancamentoDTO {
     private String descricao;
     private Integer mes;
     private Integer ano;
-    private BigDecimal valor;
+    private Dinheiro valor;
     private Long usuario;
     private String tipo;
     private String status;
+    private Long versao;
 }
\ No newline at end of file
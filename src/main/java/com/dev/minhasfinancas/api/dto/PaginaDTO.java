@@ -0,0 +1,16 @@
+package com.dev.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> conteudo;
+    private Long proximo;
+}
@@ -0,0 +1,31 @@
+package com.dev.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressoImportacaoDTO {
+
+    private String id;
+    private Long usuario;
+    private String formato;
+    private String estado;
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+    private Long bytesLidos;
+    private Long bytesTotais;
+    private Integer percentual;
+    private Long registrosLidos;
+    private Long gravados;
+    private Long rejeitados;
+    private List<String> erros;
+    private String mensagemFalha;
+}
@@ -0,0 +1,15 @@
+package com.dev.minhasfinancas.api.dto;
+
+import com.dev.minhasfinancas.model.enums.ResultadoAtualizacaoStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoAtualizacaoStatusDTO {
+
+    private Long id;
+    private ResultadoAtualizacaoStatus resultado;
+}
@@ -0,0 +1,18 @@
+package com.dev.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenDTO {
+
+    private Long id;
+    private String nome;
+    private String email;
+    private String token;
+}
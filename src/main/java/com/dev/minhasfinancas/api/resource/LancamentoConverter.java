@@ -0,0 +1,69 @@
+package com.dev.minhasfinancas.api.resource;
+
+import com.dev.minhasfinancas.api.dto.LancamentoDTO;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoProjecao;
+
+/*
+ * Conversão entre Lancamento e LancamentoDTO, separada do resource para ser medida pelo módulo de benchmarks.
+ */
+public final class LancamentoConverter {
+
+    private LancamentoConverter() {
+    }
+
+    public static LancamentoDTO paraDTO(Lancamento lancamento) {
+        return LancamentoDTO.builder()
+                .id(lancamento.getId())
+                .descricao(lancamento.getDescricao())
+                .valor(lancamento.getValor())
+                .mes(lancamento.getMes())
+                .ano(lancamento.getAno())
+                .status(lancamento.getStatus().name())
+                .tipo(lancamento.getTipo().name())
+                .usuario(lancamento.getUsuario().getId())
+                .versao(lancamento.getVersao())
+                .build();
+    }
+
+    public static LancamentoDTO paraDTO(LancamentoProjecao lancamento) {
+        return LancamentoDTO.builder()
+                .id(lancamento.getId())
+                .descricao(lancamento.getDescricao())
+                .valor(lancamento.getValor())
+                .mes(lancamento.getMes())
+                .ano(lancamento.getAno())
+                .status(lancamento.getStatus().name())
+                .tipo(lancamento.getTipo().name())
+                .usuario(lancamento.getIdUsuario())
+                .versao(lancamento.getVersao())
+                .build();
+    }
+
+    public static Lancamento paraEntidade(LancamentoDTO dto, Usuario usuario) {
+        Lancamento lancamento = new Lancamento();
+        lancamento.setId(dto.getId());
+        lancamento.setDescricao(dto.getDescricao());
+        lancamento.setAno(dto.getAno());
+        lancamento.setMes(dto.getMes());
+        lancamento.setValor(dto.getValor());
+        lancamento.setUsuario(usuario);
+
+        if(dto.getVersao() != null) {
+            lancamento.setVersao(dto.getVersao());
+        }
+
+        if(dto.getTipo() != null) {
+            lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+        }
+
+        if(dto.getStatus() != null) {
+            lancamento.setStatus(StatusLancamento.valueOf(dto.getStatus()));
+        }
+
+        return lancamento;
+    }
+}
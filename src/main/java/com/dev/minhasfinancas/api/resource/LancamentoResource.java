@@ -2,36 +2,72 @@ package com.dev.minhasfinancas.api.resource;
 
 
 import com.dev.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.dev.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
 import com.dev.minhasfinancas.api.dto.LancamentoDTO;
+import com.dev.minhasfinancas.api.dto.PaginaDTO;
+import com.dev.minhasfinancas.api.dto.ProgressoImportacaoDTO;
+import com.dev.minhasfinancas.api.dto.ResultadoAtualizacaoStatusDTO;
+import com.dev.minhasfinancas.config.LimiteRequisicoes;
+import com.dev.minhasfinancas.config.UsuarioAutenticado;
+import com.dev.minhasfinancas.exceptions.ConflitoAtualizacaoException;
 import com.dev.minhasfinancas.exceptions.RegraNegocioException;
 import com.dev.minhasfinancas.model.entity.Lancamento;
 import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.FormatoExportacao;
+import com.dev.minhasfinancas.model.enums.FormatoExtrato;
 import com.dev.minhasfinancas.model.enums.StatusLancamento;
 import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoProjecao;
+import com.dev.minhasfinancas.service.ExportacaoService;
+import com.dev.minhasfinancas.service.GravacaoAgrupada;
+import com.dev.minhasfinancas.service.ImportacaoService;
 import com.dev.minhasfinancas.service.LancamentoService;
+import com.dev.minhasfinancas.service.ProgressoImportacao;
 import com.dev.minhasfinancas.service.UsuarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/lancamentos")
 @RequiredArgsConstructor @CrossOrigin
 public class LancamentoResource {
 
+    private static final Pattern FORMATO_ETAG = Pattern.compile("\"(\\d+)-(\\d+)-\\d+\"");
+
     private final LancamentoService service;
     private final UsuarioService usuarioService;
+    private final ExportacaoService exportacaoService;
+    private final ImportacaoService importacaoService;
+    // presente só com minhasfinancas.lancamento.agrupamento.habilitado=true
+    private final ObjectProvider<GravacaoAgrupada> gravacaoAgrupada;
 
+    @LimiteRequisicoes("busca")
     @GetMapping
     public ResponseEntity buscar(
             @RequestParam(value ="descricao" , required = false) String descricao,
             @RequestParam(value = "mes", required = false) Integer mes,
             @RequestParam(value = "ano", required = false) Integer ano,
-            @RequestParam("usuario") Long idUsuario
+            @RequestParam(value = "usuario", required = false) Long idUsuario
     ) {
 
         Lancamento lancamentoFiltro = new Lancamento();
@@ -39,21 +75,200 @@ public class LancamentoResource {
         lancamentoFiltro.setMes(mes);
         lancamentoFiltro.setAno(ano);
 
-        Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
+        Optional<Usuario> usuario = localizarUsuario(idUsuario);
         if(!usuario.isPresent()) {
             return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
         }else {
             lancamentoFiltro.setUsuario(usuario.get());
         }
 
-        List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
+        List<LancamentoDTO> lancamentos = service.buscarProjecoes(lancamentoFiltro).stream()
+                .map(LancamentoConverter::paraDTO)
+                .collect(Collectors.toList());
         return ResponseEntity.ok(lancamentos);
     }
 
+    @LimiteRequisicoes("busca")
+    @GetMapping("pagina")
+    public ResponseEntity buscarPagina(
+            @RequestParam(value ="descricao" , required = false) String descricao,
+            @RequestParam(value = "mes", required = false) Integer mes,
+            @RequestParam(value = "ano", required = false) Integer ano,
+            @RequestParam(value = "apos", required = false) Long apos,
+            @RequestParam(value = "limite", required = false) Integer limite,
+            @RequestParam(value = "usuario", required = false) Long idUsuario
+    ) {
+
+        Lancamento lancamentoFiltro = new Lancamento();
+        lancamentoFiltro.setDescricao(descricao);
+        lancamentoFiltro.setMes(mes);
+        lancamentoFiltro.setAno(ano);
+
+        Optional<Usuario> usuario = localizarUsuario(idUsuario);
+        if(!usuario.isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }else {
+            lancamentoFiltro.setUsuario(usuario.get());
+        }
+
+        try {
+            Slice<LancamentoProjecao> pagina = service.buscarPagina(lancamentoFiltro, apos, limite);
+            List<LancamentoDTO> conteudo = pagina.getContent().stream()
+                    .map(LancamentoConverter::paraDTO)
+                    .collect(Collectors.toList());
+            Long proximo = pagina.hasNext() ? conteudo.get(conteudo.size() - 1).getId() : null;
+            return ResponseEntity.ok(new PaginaDTO<>(conteudo, proximo));
+        }catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @LimiteRequisicoes("busca")
+    @GetMapping("busca")
+    public ResponseEntity buscarPorDescricao(
+            @RequestParam("termo") String termo,
+            @RequestParam(value = "limite", required = false) Integer limite,
+            @RequestParam(value = "usuario", required = false) Long idUsuario
+    ) {
+        Optional<Usuario> usuario = localizarUsuario(idUsuario);
+        if(!usuario.isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }
+
+        try {
+            List<LancamentoDTO> lancamentos = service.buscarPorDescricao(usuario.get().getId(), termo, limite).stream()
+                    .map(this::converter)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(lancamentos);
+        }catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @LimiteRequisicoes("autocompletar")
+    @GetMapping("autocompletar")
+    public ResponseEntity autocompletarDescricao(
+            @RequestParam("prefixo") String prefixo,
+            @RequestParam(value = "limite", required = false) Integer limite,
+            @RequestParam(value = "usuario", required = false) Long idUsuario
+    ) {
+        Optional<Usuario> usuario = localizarUsuario(idUsuario);
+        if(!usuario.isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }
+
+        try {
+            return ResponseEntity.ok(service.autocompletarDescricao(usuario.get().getId(), prefixo, limite));
+        }catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @LimiteRequisicoes("exportacao")
+    @GetMapping("exportar")
+    public ResponseEntity exportar(
+            @RequestParam(value = "formato", defaultValue = "NDJSON") String formato,
+            @RequestParam(value = "usuario", required = false) Long idUsuario
+    ) {
+        FormatoExportacao formatoSelecionado;
+        try {
+            formatoSelecionado = FormatoExportacao.valueOf(formato.toUpperCase());
+        }catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Formato de exportação inválido, use NDJSON ou CSV.");
+        }
+
+        Optional<Usuario> usuario = localizarUsuario(idUsuario);
+        if(!usuario.isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a exportação. Usuário não encontrado para o Id informado.");
+        }
+
+        Long id = usuario.get().getId();
+        StreamingResponseBody corpo = saida -> exportacaoService.exportarLancamentos(id, formatoSelecionado, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoSelecionado.getContentType()))
+                .header("Content-Disposition", "attachment; filename=\"lancamentos-" + id + "."
+                        + formatoSelecionado.name().toLowerCase() + "\"")
+                .body(corpo);
+    }
+
+    /*
+     * O extrato vem direto no corpo da requisição, sem multipart, e é lido à medida que chega; o andamento
+     * pode ser acompanhado em GET importacoes enquanto isso.
+     */
+    @LimiteRequisicoes("importacao")
+    @PostMapping(value = "importar", consumes = {"text/csv", "application/x-ofx", "text/plain", "application/octet-stream"})
+    public ResponseEntity importar(
+            @RequestParam(value = "formato", defaultValue = "CSV") String formato,
+            @RequestParam(value = "usuario", required = false) Long idUsuario,
+            @RequestParam(value = "charset", defaultValue = "UTF-8") String charset,
+            HttpServletRequest request
+    ) throws IOException {
+        FormatoExtrato formatoSelecionado;
+        Charset charsetSelecionado;
+        try {
+            formatoSelecionado = FormatoExtrato.valueOf(formato.toUpperCase());
+            charsetSelecionado = Charset.forName(charset);
+        }catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Formato ou charset inválido, use CSV ou OFX e um charset como UTF-8 ou windows-1252.");
+        }
+
+        Optional<Usuario> usuario = localizarUsuario(idUsuario);
+        if(!usuario.isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a importação. Usuário não encontrado para o Id informado.");
+        }
+
+        try {
+            ProgressoImportacao progresso = importacaoService.importar(usuario.get(), formatoSelecionado,
+                    request.getInputStream(), charsetSelecionado, request.getContentLengthLong());
+            return ResponseEntity.ok(converter(progresso));
+        }catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("importacoes")
+    public ResponseEntity listarImportacoes( @RequestParam(value = "usuario", required = false) Long idUsuario ) {
+        Optional<Usuario> usuario = localizarUsuario(idUsuario);
+        if(!usuario.isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+        }
+
+        List<ProgressoImportacaoDTO> importacoes = importacaoService.listarPorUsuario(usuario.get().getId()).stream()
+                .map(this::converter)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(importacoes);
+    }
+
+    @GetMapping("importacoes/{id}")
+    public ResponseEntity obterImportacao( @PathVariable("id") String id,
+                                           @RequestParam(value = "usuario", required = false) Long idUsuario ) {
+        // a importação de outro usuário responde como inexistente
+        Optional<Long> dono = localizarUsuario(idUsuario).map(Usuario::getId);
+        return importacaoService.obterProgresso(id)
+                .filter( progresso -> dono.isPresent() && progresso.getIdUsuario().equals(dono.get()) )
+                .map( progresso -> ResponseEntity.ok(converter(progresso)) )
+                .orElseGet( () -> new ResponseEntity(HttpStatus.NOT_FOUND) );
+    }
+
     @GetMapping("{id}")
-    public ResponseEntity obterLancamento( @PathVariable("id") Long id ) {
-        return service.obterPorId(id)
-                .map( lancamento -> new ResponseEntity(converter(lancamento), HttpStatus.OK) )
+    public ResponseEntity obterLancamento( @PathVariable("id") Long id, WebRequest request ) {
+        // a ETag recebida traz o dono do lançamento: basta a versão dele para responder 304, sem consultar o lançamento
+        Optional<Long> donoInformado = obterDonoDaETag(id, request.getHeader(HttpHeaders.IF_NONE_MATCH))
+                .filter(LancamentoResource::visivelAoAutenticado);
+        if(donoInformado.isPresent()
+                && request.checkNotModified(etag(id, donoInformado.get(), service.obterVersaoPorUsuario(donoInformado.get())))) {
+            return null;
+        }
+
+        return service.obterProjecaoPorId(id)
+                .filter( lancamento -> visivelAoAutenticado(lancamento.getIdUsuario()) )
+                .map( lancamento -> {
+                    String etag = etag(id, lancamento.getIdUsuario(), lancamento.getVersaoDoDono());
+                    if(request.checkNotModified(etag)) {
+                        return null;
+                    }
+                    return ResponseEntity.ok(LancamentoConverter.paraDTO(lancamento));
+                })
                 .orElseGet( () -> new ResponseEntity(HttpStatus.NOT_FOUND) );
     }
 
@@ -61,8 +276,27 @@ public class LancamentoResource {
     public ResponseEntity salvar( @RequestBody LancamentoDTO dto ) {
         try {
             Lancamento entidade = converter(dto);
-            entidade = service.salvar(entidade);
-            return new ResponseEntity(entidade, HttpStatus.CREATED);
+            GravacaoAgrupada agrupada = gravacaoAgrupada.getIfAvailable();
+            entidade = agrupada != null ? agrupada.salvar(entidade) : service.salvar(entidade);
+            return new ResponseEntity(converter(entidade), HttpStatus.CREATED);
+        }catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("lote")
+    public ResponseEntity salvarLote( @RequestBody List<LancamentoDTO> dtos ) {
+        try {
+            // o usuário é buscado uma única vez por lote, mesmo que se repita em todos os itens
+            Map<Long, Usuario> usuarios = new HashMap<>();
+            List<Lancamento> entidades = dtos.stream()
+                    .map( dto -> converter(dto, usuarios.computeIfAbsent(dto.getUsuario(), this::obterUsuario)) )
+                    .collect(Collectors.toList());
+
+            List<LancamentoDTO> salvos = service.salvarLote(entidades).stream()
+                    .map(this::converter)
+                    .collect(Collectors.toList());
+            return new ResponseEntity(salvos, HttpStatus.CREATED);
         }catch (RegraNegocioException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -71,11 +305,18 @@ public class LancamentoResource {
     @PutMapping("{id}")
     public ResponseEntity atualizar( @PathVariable("id") Long id, @RequestBody LancamentoDTO dto ) {
         return service.obterPorId(id).map( entity -> {
+            if(!visivelAoAutenticado(entity.getUsuario().getId())) {
+                return new ResponseEntity(HttpStatus.NOT_FOUND);
+            }
             try {
                 Lancamento lancamento = converter(dto);
                 lancamento.setId(entity.getId());
-                service.atualizar(lancamento);
-                return ResponseEntity.ok(lancamento);
+                // sem versão no corpo, vale a lida agora (última escrita vence, como antes do controle de versão)
+                lancamento.setVersao(dto.getVersao() == null ? entity.getVersao() : dto.getVersao());
+                return ResponseEntity.ok(converter(service.atualizar(lancamento)));
+            }catch (OptimisticLockingFailureException e) {
+                return new ResponseEntity("O lançamento foi alterado por outra operação. Consulte-o novamente antes de alterar.",
+                        HttpStatus.CONFLICT);
             }catch (RegraNegocioException e) {
                 return ResponseEntity.badRequest().body(e.getMessage());
             }
@@ -83,72 +324,174 @@ public class LancamentoResource {
                 new ResponseEntity("Lancamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST) );
     }
 
+    @PatchMapping("{id}")
+    public ResponseEntity atualizarParcialmente( @PathVariable("id") Long id, @RequestBody LancamentoDTO dto ) {
+        if(dto.getStatus() != null || dto.getUsuario() != null) {
+            return ResponseEntity.badRequest().body("Status e usuário não são alterados parcialmente; use atualiza-status para o status.");
+        }
+
+        Lancamento alteracoes = new Lancamento();
+        alteracoes.setDescricao(dto.getDescricao());
+        alteracoes.setMes(dto.getMes());
+        alteracoes.setAno(dto.getAno());
+        alteracoes.setValor(dto.getValor());
+        try {
+            if(dto.getTipo() != null) {
+                alteracoes.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+            }
+        }catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Informe um tipo de Lançamento válido.");
+        }
+
+        Long idUsuario = UsuarioAutenticado.atual().map(UsuarioAutenticado::getId).orElse(null);
+        try {
+            service.atualizarParcialmente(id, idUsuario, alteracoes, dto.getVersao());
+            return new ResponseEntity( HttpStatus.NO_CONTENT );
+        }catch (ConflitoAtualizacaoException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+        }catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("{id}/atualiza-status")
     public ResponseEntity atualizarStatus( @PathVariable("id") Long id , @RequestBody AtualizaStatusDTO dto ) {
-        return service.obterPorId(id).map( entity -> {
-            StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+        StatusLancamento statusSelecionado;
+        try {
+            statusSelecionado = StatusLancamento.valueOf(String.valueOf(dto.getStatus()));
+        }catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+        }
 
-            if(statusSelecionado == null) {
-                return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
-            }
+        // um único update condicionado ao status atual (e à versão, quando enviada), sem carregar o lançamento
+        Long idUsuario = UsuarioAutenticado.atual().map(UsuarioAutenticado::getId).orElse(null);
+        try {
+            service.transicionarStatus(id, idUsuario, statusSelecionado, dto.getVersao());
+            return new ResponseEntity( HttpStatus.NO_CONTENT );
+        }catch (ConflitoAtualizacaoException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+        }catch (RegraNegocioException e) {
+            return new ResponseEntity("Lancamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST);
+        }
+    }
 
-            try {
-                entity.setStatus(statusSelecionado);
-                service.atualizar(entity);
-                return ResponseEntity.ok(entity);
-            }catch (RegraNegocioException e) {
-                return ResponseEntity.badRequest().body(e.getMessage());
-            }
+    @PutMapping("atualiza-status")
+    public ResponseEntity atualizarStatusEmLote( @RequestBody AtualizaStatusLoteDTO dto ) {
+        StatusLancamento statusSelecionado;
+        try {
+            statusSelecionado = StatusLancamento.valueOf(String.valueOf(dto.getStatus()));
+        }catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos, envie um status válido.");
+        }
 
-        }).orElseGet( () ->
-                new ResponseEntity("Lancamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST) );
+        Optional<Usuario> usuario = localizarUsuario(dto.getUsuario());
+        if(!usuario.isPresent()) {
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos. Usuário não encontrado para o Id informado.");
+        }
+
+        try {
+            List<ResultadoAtualizacaoStatusDTO> resultados = service
+                    .atualizarStatusEmLote(usuario.get().getId(), dto.getIds(), statusSelecionado)
+                    .entrySet().stream()
+                    .map( resultado -> new ResultadoAtualizacaoStatusDTO(resultado.getKey(), resultado.getValue()) )
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(resultados);
+        }catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @DeleteMapping("{id}")
     public ResponseEntity deletar( @PathVariable("id") Long id ) {
         return service.obterPorId(id).map( entidade -> {
+            if(!visivelAoAutenticado(entidade.getUsuario().getId())) {
+                return new ResponseEntity(HttpStatus.NOT_FOUND);
+            }
             service.deletar(entidade);
             return new ResponseEntity( HttpStatus.NO_CONTENT );
         }).orElseGet( () ->
                 new ResponseEntity("Lancamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST) );
     }
 
-    private LancamentoDTO converter(Lancamento lancamento) {
-        return LancamentoDTO.builder()
-                .id(lancamento.getId())
-                .descricao(lancamento.getDescricao())
-                .valor(lancamento.getValor())
-                .mes(lancamento.getMes())
-                .ano(lancamento.getAno())
-                .status(lancamento.getStatus().name())
-                .tipo(lancamento.getTipo().name())
-                .usuario(lancamento.getUsuario().getId())
-                .build();
+    /*
+     * Formato "<id do lançamento>-<id do dono>-<versão do dono>"; a versão muda a cada alteração
+     * em qualquer lançamento do dono.
+     */
+    static String etag(Long id, Long idUsuario, long versao) {
+        return "\"" + id + "-" + idUsuario + "-" + versao + "\"";
+    }
+
+    private static Optional<Long> obterDonoDaETag(Long id, String ifNoneMatch) {
+        if(ifNoneMatch == null) {
+            return Optional.empty();
+        }
 
+        Matcher matcher = FORMATO_ETAG.matcher(ifNoneMatch);
+        while (matcher.find()) {
+            if(matcher.group(1).equals(id.toString())) {
+                return Optional.of(Long.valueOf(matcher.group(2)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private LancamentoDTO converter(Lancamento lancamento) {
+        return LancamentoConverter.paraDTO(lancamento);
     }
 
     private Lancamento converter(LancamentoDTO dto) {
-        Lancamento lancamento = new Lancamento();
-        lancamento.setId(dto.getId());
-        lancamento.setDescricao(dto.getDescricao());
-        lancamento.setAno(dto.getAno());
-        lancamento.setMes(dto.getMes());
-        lancamento.setValor(dto.getValor());
-
-        Usuario usuario = usuarioService
-                .obterPorId(dto.getUsuario())
+        return converter(dto, obterUsuario(dto.getUsuario()));
+    }
+
+    private Usuario obterUsuario(Long idUsuario) {
+        if(idUsuario == null && !UsuarioAutenticado.atual().isPresent()) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+        return localizarUsuario(idUsuario)
                 .orElseThrow( () -> new RegraNegocioException("Usuário não encontrado para o Id informado.") );
+    }
 
-        lancamento.setUsuario(usuario);
+    /*
+     * Com token, só os lançamentos do próprio usuário existem para a requisição; os de outro respondem 404.
+     */
+    private static boolean visivelAoAutenticado(Long idDono) {
+        return UsuarioAutenticado.atual()
+                .map( autenticado -> autenticado.getId().equals(idDono) )
+                .orElse(true);
+    }
 
-        if(dto.getTipo() != null) {
-            lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+    private Optional<Usuario> localizarUsuario(Long idUsuario) {
+        // com token o usuário vem das claims, sem ida ao banco; o id informado precisa ser o do próprio token
+        Optional<UsuarioAutenticado> autenticado = UsuarioAutenticado.atual();
+        if(autenticado.isPresent()) {
+            return idUsuario == null || idUsuario.equals(autenticado.get().getId())
+                    ? Optional.of(autenticado.get().comoUsuario())
+                    : Optional.empty();
         }
+        return idUsuario == null ? Optional.empty() : usuarioService.obterPorId(idUsuario);
+    }
 
-        if(dto.getStatus() != null) {
-            lancamento.setStatus(StatusLancamento.valueOf(dto.getStatus()));
-        }
+    private ProgressoImportacaoDTO converter(ProgressoImportacao progresso) {
+        long bytesTotais = progresso.getBytesTotais();
+        return ProgressoImportacaoDTO.builder()
+                .id(progresso.getId())
+                .usuario(progresso.getIdUsuario())
+                .formato(progresso.getFormato().name())
+                .estado(progresso.getEstado().name())
+                .inicio(progresso.getInicio())
+                .fim(progresso.getFim())
+                .bytesLidos(progresso.getBytesLidos())
+                .bytesTotais(bytesTotais < 0 ? null : bytesTotais)
+                .percentual(bytesTotais <= 0 ? null : (int) Math.min(100, progresso.getBytesLidos() * 100 / bytesTotais))
+                .registrosLidos(progresso.getRegistrosLidos())
+                .gravados(progresso.getGravados())
+                .rejeitados(progresso.getRejeitados())
+                .erros(progresso.getErros())
+                .mensagemFalha(progresso.getMensagemFalha())
+                .build();
+    }
 
-        return lancamento;
+    private Lancamento converter(LancamentoDTO dto, Usuario usuario) {
+        return LancamentoConverter.paraEntidade(dto, usuario);
     }
 }
\ No newline at end of file
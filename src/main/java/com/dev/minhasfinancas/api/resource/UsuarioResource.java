@@ -1,18 +1,23 @@
 package com.dev.minhasfinancas.api.resource;
 
+import com.dev.minhasfinancas.api.dto.TokenDTO;
 import com.dev.minhasfinancas.api.dto.UsuarioDTO;
+import com.dev.minhasfinancas.config.LimiteRequisicoes;
+import com.dev.minhasfinancas.config.UsuarioAutenticado;
 import com.dev.minhasfinancas.exceptions.ErroAutenticacaoException;
 import com.dev.minhasfinancas.exceptions.RegraNegocioException;
 import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.PeriodoResumo;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.JwtService;
 import com.dev.minhasfinancas.service.LancamentoService;
 import com.dev.minhasfinancas.service.UsuarioService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.math.BigDecimal;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/usuarios")
@@ -21,13 +26,19 @@ public class UsuarioResource {
 
     private final UsuarioService service;
     private final LancamentoService lancamentoService;
+    private final JwtService jwtService;
 
     @PostMapping("/autenticar")
     public ResponseEntity<?> autenticar( @RequestBody UsuarioDTO dto ) {
-        System.out.println(dto.getEmail());
         try {
             Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-            return ResponseEntity.ok(usuarioAutenticado);
+            TokenDTO token = TokenDTO.builder()
+                    .id(usuarioAutenticado.getId())
+                    .nome(usuarioAutenticado.getNome())
+                    .email(usuarioAutenticado.getEmail())
+                    .token(jwtService.gerarToken(usuarioAutenticado))
+                    .build();
+            return ResponseEntity.ok(token);
         }catch (ErroAutenticacaoException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -50,16 +61,48 @@ public class UsuarioResource {
 
     }
 
+    @LimiteRequisicoes("saldo")
     @GetMapping("{id}/saldo")
-    public ResponseEntity obterSaldo( @PathVariable("id") Long id ) {
-        Optional<Usuario> usuario = service.obterPorId(id);
-
-        if(!usuario.isPresent()) {
+    public ResponseEntity obterSaldo( @PathVariable("id") Long id, WebRequest request ) {
+        if(!existeUsuario(id)) {
             return new ResponseEntity( HttpStatus.NOT_FOUND );
         }
 
-        BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
+        // versão lida antes do saldo: uma alteração entre as duas leituras gera uma ETag antiga, nunca um saldo antigo
+        String etag = "\"saldo-" + id + "-" + lancamentoService.obterVersaoPorUsuario(id) + "\"";
+        if(request.checkNotModified(etag)) {
+            return null;
+        }
+
+        Dinheiro saldo = lancamentoService.obterSaldoPorUsuario(id);
         return ResponseEntity.ok(saldo);
     }
 
+    @LimiteRequisicoes("resumo")
+    @GetMapping("{id}/resumo")
+    public ResponseEntity obterResumo(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "periodo", defaultValue = "MENSAL") String periodo,
+            @RequestParam(value = "ano", required = false) Integer ano
+    ) {
+        PeriodoResumo periodoSelecionado;
+        try {
+            periodoSelecionado = PeriodoResumo.valueOf(periodo.toUpperCase());
+        }catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Período inválido, use MENSAL ou ANUAL.");
+        }
+
+        if(!existeUsuario(id)) {
+            return new ResponseEntity( HttpStatus.NOT_FOUND );
+        }
+
+        return ResponseEntity.ok(lancamentoService.obterResumo(id, periodoSelecionado, ano));
+    }
+
+    private boolean existeUsuario(Long id) {
+        // com token o usuário já foi confirmado na autenticação e só enxerga os próprios dados
+        return UsuarioAutenticado.atual()
+                .map( autenticado -> autenticado.getId().equals(id) )
+                .orElseGet( () -> service.obterPorId(id).isPresent() );
+    }
 }
@@ -0,0 +1,41 @@
+package com.dev.minhasfinancas.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "minhasfinancas.auditoria")
+public class AuditoriaProperties {
+
+    private boolean habilitado = true;
+
+    // registros aguardando gravação; arredondada para a potência de dois seguinte
+    private int capacidade = 65536;
+
+    // registros por insert em lote; a gravação começa antes do intervalo quando a fila junta um lote
+    private int tamanhoLote = 500;
+
+    // espera máxima de um registro na fila antes de ser gravado, com o tráfego baixo
+    private Duration intervalo = Duration.ofMillis(200);
+
+    private PoliticaFilaCheia politica = PoliticaFilaCheia.AGUARDAR;
+
+    // quanto a requisição espera por espaço na fila com a política AGUARDAR, antes de descartar o registro
+    private Duration esperaMaxima = Duration.ofMillis(50);
+
+    // prazo para gravar o que estiver na fila ao encerrar a aplicação
+    private Duration tempoEncerramento = Duration.ofSeconds(10);
+
+    public enum PoliticaFilaCheia {
+        // descarta o registro, contando em minhasfinancas.auditoria.descartados
+        DESCARTAR,
+        // segura a requisição até esperaMaxima e então descarta
+        AGUARDAR,
+        // a própria requisição grava o registro, sem perda, ao custo de um insert síncrono
+        GRAVAR_DIRETO
+    }
+}
@@ -0,0 +1,58 @@
+package com.dev.minhasfinancas.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.util.OptionalLong;
+
+/*
+ * Regiões do cache de segundo nível do Hibernate (JCache sobre Caffeine), criadas com os limites de
+ * minhasfinancas.cache.regioes.<nome>. O mesmo CacheManager atende o cache do Spring (spring.cache.type=jcache),
+ * então as regiões aparecem em /actuator/caches e nas métricas cache.*.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheSegundoNivelProperties.class)
+public class CacheSegundoNivelConfig {
+
+    // um provedor por contexto: o do Caching.getCachingProvider() é compartilhado por toda a JVM
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerSegundoNivel(CacheSegundoNivelProperties properties) {
+        CaffeineCachingProvider provedor = new CaffeineCachingProvider();
+        CacheManager cacheManager = provedor.getCacheManager(provedor.getDefaultURI(), getClass().getClassLoader());
+
+        // as marcas de atualização por tabela não podem sair antes dos resultados de consulta que elas invalidam;
+        // a região padrão de consultas é criada pelo Hibernate mesmo sem uso, todas as consultas indicam a sua
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                configuracao(new CacheSegundoNivelProperties.Regiao()));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                configuracao(new CacheSegundoNivelProperties.Regiao()));
+        properties.getRegioes().forEach( (nome, regiao) -> cacheManager.createCache(nome, configuracao(regiao)) );
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelCustomizer(CacheManager cacheManagerSegundoNivel) {
+        return propriedades -> propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+    }
+
+    private CaffeineConfiguration<Object, Object> configuracao(CacheSegundoNivelProperties.Regiao regiao) {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        // o Hibernate já guarda o estado desmontado da entidade; copiar a cada leitura seria trabalho dobrado
+        configuracao.setStoreByValue(false);
+        configuracao.setStatisticsEnabled(true);
+        if(regiao.getTamanhoMaximo() != null) {
+            configuracao.setMaximumSize(OptionalLong.of(regiao.getTamanhoMaximo()));
+        }
+        if(regiao.getExpiracao() != null) {
+            configuracao.setExpireAfterWrite(OptionalLong.of(regiao.getExpiracao().toNanos()));
+        }
+        return configuracao;
+    }
+}
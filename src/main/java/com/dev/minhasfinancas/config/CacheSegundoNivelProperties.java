@@ -0,0 +1,29 @@
+package com.dev.minhasfinancas.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "minhasfinancas.cache")
+public class CacheSegundoNivelProperties {
+
+    // por nome da região (entidade ou consulta); as regiões usadas sem configuração são criadas sem limite
+    private Map<String, Regiao> regioes = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Regiao {
+
+        // entradas; sem valor, a região não tem limite de tamanho
+        private Long tamanhoMaximo;
+
+        // tempo desde a gravação; sem valor, as entradas só saem por invalidação ou tamanho
+        private Duration expiracao;
+    }
+}
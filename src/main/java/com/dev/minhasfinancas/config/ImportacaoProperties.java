@@ -0,0 +1,34 @@
+package com.dev.minhasfinancas.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "minhasfinancas.importacao")
+public class ImportacaoProperties {
+
+    // lançamentos por chamada a salvarLote, cada uma na sua transação
+    private int tamanhoChunk = 500;
+
+    // chunks lidos aguardando gravação; com a fila cheia a leitura do arquivo para até o gravador liberar espaço
+    private int capacidadeFila = 4;
+
+    // gravadores rodando ao mesmo tempo em toda a aplicação; com todos ocupados a importação é recusada
+    private int maximoGravadores = 4;
+
+    // quanto a leitura espera por vaga na fila antes de dar a gravação como travada e terminar a importação
+    private Duration esperaGravacao = Duration.ofMinutes(1);
+
+    // registro (linha do CSV, transação do OFX) maior que isso é rejeitado sem ser mantido em memória
+    private int tamanhoMaximoRegistro = 8192;
+
+    // mensagens de registros rejeitados guardadas por importação; as demais só entram na contagem
+    private int maximoErros = 100;
+
+    // por quanto tempo o progresso de uma importação terminada continua disponível para consulta
+    private Duration retencao = Duration.ofHours(1);
+}
@@ -0,0 +1,103 @@
+package com.dev.minhasfinancas.config;
+
+import com.dev.minhasfinancas.service.JwtService;
+import com.dev.minhasfinancas.service.impl.JwtServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class JwtTokenFilter extends OncePerRequestFilter {
+
+    static final String PREFIXO = "Bearer ";
+    static final int MAXIMO_TOKENS_VALIDADOS = 10_000;
+
+    private JwtService jwtService;
+    private boolean exigirToken;
+
+    // o mesmo token chega em várias requisições seguidas; depois da primeira validação a assinatura
+    // não é recalculada até o token expirar
+    private final Cache<String, UsuarioAutenticado> tokensValidados = Caffeine.newBuilder()
+            .maximumSize(MAXIMO_TOKENS_VALIDADOS)
+            .expireAfter(new Expiry<String, UsuarioAutenticado>() {
+                @Override
+                public long expireAfterCreate(String token, UsuarioAutenticado usuario, long agora) {
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, usuario.getExpiracao() - System.currentTimeMillis()));
+                }
+
+                @Override
+                public long expireAfterUpdate(String token, UsuarioAutenticado usuario, long agora, long restante) {
+                    return restante;
+                }
+
+                @Override
+                public long expireAfterRead(String token, UsuarioAutenticado usuario, long agora, long restante) {
+                    return restante;
+                }
+            })
+            .build();
+
+    public JwtTokenFilter(JwtService jwtService, boolean exigirToken) {
+        this.jwtService = jwtService;
+        this.exigirToken = exigirToken;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if(authorization == null || !authorization.startsWith(PREFIXO)) {
+            if(exigirToken && !isPublico(request)) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token de acesso não informado.");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        UsuarioAutenticado usuario;
+        try {
+            usuario = autenticar(authorization.substring(PREFIXO.length()));
+        }catch (JwtException | IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token de acesso inválido ou expirado.");
+            return;
+        }
+
+        request.setAttribute(UsuarioAutenticado.ATRIBUTO, usuario);
+        chain.doFilter(request, response);
+    }
+
+    public UsuarioAutenticado autenticar(String token) {
+        UsuarioAutenticado usuario = tokensValidados.getIfPresent(token);
+        if(usuario != null) {
+            return usuario;
+        }
+
+        Claims claims = jwtService.obterClaims(token);
+        usuario = new UsuarioAutenticado(
+                Long.valueOf(claims.getSubject()),
+                claims.get(JwtServiceImpl.CLAIM_NOME, String.class),
+                claims.get(JwtServiceImpl.CLAIM_EMAIL, String.class),
+                claims.getExpiration().getTime());
+        tokensValidados.put(token, usuario);
+        return usuario;
+    }
+
+    private boolean isPublico(HttpServletRequest request) {
+        String caminho = request.getServletPath();
+        return caminho.equals("/api/usuarios/autenticar")
+                || (caminho.equals("/api/usuarios") && request.getMethod().equals("POST"))
+                || request.getMethod().equals("OPTIONS");
+    }
+}
@@ -0,0 +1,146 @@
+package com.dev.minhasfinancas.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/*
+ * Balde de fichas e limite de requisições simultâneas por usuário e endpoint, sem travas: cada cota fica
+ * em um ConcurrentHashMap e o balde é um único AtomicLong atualizado por compare-and-set.
+ * Cotas ociosas (balde cheio e nada em andamento) são descartadas periodicamente.
+ */
+@Component
+public class LimitadorRequisicoes {
+
+    static final String METRICA_REJEICOES = "minhasfinancas.limites.rejeicoes";
+    static final String METRICA_COTAS = "minhasfinancas.limites.cotas";
+
+    private final LimitesProperties properties;
+    private final MeterRegistry registry;
+    private final LongSupplier relogio;
+    private final Map<String, Cota> cotas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LimitadorRequisicoes(LimitesProperties properties, MeterRegistry registry) {
+        this(properties, registry, System::nanoTime);
+    }
+
+    LimitadorRequisicoes(LimitesProperties properties, MeterRegistry registry, LongSupplier relogio) {
+        this.properties = properties;
+        this.registry = registry;
+        this.relogio = relogio;
+        registry.gaugeMapSize(METRICA_COTAS, Collections.emptyList(), cotas);
+    }
+
+    public Permissao adquirir(String nomeLimite, String usuario) {
+        long agora = relogio.getAsLong();
+        Cota cota = cotas.computeIfAbsent(nomeLimite + ":" + usuario,
+                chave -> new Cota(properties.obter(nomeLimite), agora));
+
+        long espera = cota.consumirFicha(agora);
+        if(espera > 0) {
+            return rejeitar(nomeLimite, "taxa", espera);
+        }
+
+        if(cota.emAndamento != null && !cota.emAndamento.tryAcquire()) {
+            return rejeitar(nomeLimite, "concorrencia", TimeUnit.SECONDS.toNanos(1));
+        }
+        return new Permissao(cota.emAndamento, 0);
+    }
+
+    @Scheduled(fixedDelayString = "${minhasfinancas.limites.intervalo-limpeza:60000}")
+    public void descartarCotasOciosas() {
+        long agora = relogio.getAsLong();
+        // uma requisição que pegou a cota antes da remoção ainda a usa até o fim; a seguinte cria uma nova
+        cotas.values().removeIf( cota -> cota.isOciosa(agora) );
+    }
+
+    int getQuantidadeCotas() {
+        return cotas.size();
+    }
+
+    private Permissao rejeitar(String nomeLimite, String motivo, long esperaNanos) {
+        Counter.builder(METRICA_REJEICOES)
+                .tag("limite", nomeLimite)
+                .tag("motivo", motivo)
+                .register(registry)
+                .increment();
+        return new Permissao(null, esperaNanos);
+    }
+
+    public static class Permissao {
+
+        private final Semaphore emAndamento;
+        private final long esperaNanos;
+
+        Permissao(Semaphore emAndamento, long esperaNanos) {
+            this.emAndamento = emAndamento;
+            this.esperaNanos = esperaNanos;
+        }
+
+        public boolean isConcedida() {
+            return esperaNanos == 0;
+        }
+
+        public long getEsperaEmSegundos() {
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+
+        public void liberar() {
+            if(isConcedida() && emAndamento != null) {
+                emAndamento.release();
+            }
+        }
+    }
+
+    private static class Cota {
+
+        private final long intervalo;
+        private final long tolerancia;
+        private final int concorrencia;
+        private final Semaphore emAndamento;
+
+        // GCRA: instante teórico em que o balde estaria cheio de novo
+        private final AtomicLong chegadaTeorica;
+
+        Cota(LimitesProperties.Limite limite, long agora) {
+            this.intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / limite.getRequisicoesPorSegundo());
+            this.tolerancia = intervalo * (Math.max(1, limite.getRajada()) - 1);
+            this.concorrencia = limite.getConcorrencia();
+            this.emAndamento = concorrencia > 0 ? new Semaphore(concorrencia) : null;
+            this.chegadaTeorica = new AtomicLong(agora);
+        }
+
+        /*
+         * Retorna 0 quando há ficha, ou quanto falta para a próxima.
+         */
+        long consumirFicha(long agora) {
+            while (true) {
+                long atual = chegadaTeorica.get();
+                long base = Math.max(atual, agora);
+                long excesso = base - agora - tolerancia;
+                if(excesso > 0) {
+                    return excesso;
+                }
+                if(chegadaTeorica.compareAndSet(atual, base + intervalo)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isOciosa(long agora) {
+            return chegadaTeorica.get() - agora <= 0
+                    && (emAndamento == null || emAndamento.availablePermits() == concorrencia);
+        }
+    }
+}
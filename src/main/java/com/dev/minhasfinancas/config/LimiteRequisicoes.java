@@ -0,0 +1,17 @@
+package com.dev.minhasfinancas.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * Nome do limite (minhasfinancas.limites.endpoints.<nome>.*) aplicado ao endpoint. Endpoints sem a anotação
+ * usam o limite padrão.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LimiteRequisicoes {
+
+    String value();
+}
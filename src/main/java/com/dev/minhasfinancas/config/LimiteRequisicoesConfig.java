@@ -0,0 +1,28 @@
+package com.dev.minhasfinancas.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(LimitesProperties.class)
+public class LimiteRequisicoesConfig implements WebMvcConfigurer {
+
+    private final LimitesProperties properties;
+    private final ObjectProvider<LimitadorRequisicoes> limitador;
+
+    public LimiteRequisicoesConfig(LimitesProperties properties, ObjectProvider<LimitadorRequisicoes> limitador) {
+        this.properties = properties;
+        this.limitador = limitador;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // nos testes de fatia (@WebMvcTest) o limitador não é criado e os endpoints ficam sem limite
+        if(properties.isHabilitado()) {
+            limitador.ifAvailable( l -> registry.addInterceptor(new LimiteRequisicoesInterceptor(l)).addPathPatterns("/api/**") );
+        }
+    }
+}
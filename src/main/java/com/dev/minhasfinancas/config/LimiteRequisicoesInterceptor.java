@@ -0,0 +1,76 @@
+package com.dev.minhasfinancas.config;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/*
+ * Aplica o LimitadorRequisicoes aos endpoints da API. A cota é do usuário do token; sem token, do endereço
+ * de origem.
+ */
+public class LimiteRequisicoesInterceptor implements HandlerInterceptor {
+
+    static final String LIMITE_PADRAO = "padrao";
+    static final String ATRIBUTO_PERMISSAO = LimiteRequisicoesInterceptor.class.getName() + ".permissao";
+
+    private final LimitadorRequisicoes limitador;
+
+    public LimiteRequisicoesInterceptor(LimitadorRequisicoes limitador) {
+        this.limitador = limitador;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // a exportação continua em um segundo despacho (ASYNC), já contabilizado no primeiro
+        if(!(handler instanceof HandlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        LimiteRequisicoes anotacao = obterAnotacao((HandlerMethod) handler);
+        String nomeLimite = anotacao == null ? LIMITE_PADRAO : anotacao.value();
+        LimitadorRequisicoes.Permissao permissao = limitador.adquirir(nomeLimite, identificarUsuario(request));
+
+        if(!permissao.isConcedida()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(permissao.getEsperaEmSegundos()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Limite de requisições excedido, tente novamente em instantes.");
+            return false;
+        }
+
+        request.setAttribute(ATRIBUTO_PERMISSAO, permissao);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object permissao = request.getAttribute(ATRIBUTO_PERMISSAO);
+        if(permissao != null) {
+            request.removeAttribute(ATRIBUTO_PERMISSAO);
+            ((LimitadorRequisicoes.Permissao) permissao).liberar();
+        }
+    }
+
+    private static LimiteRequisicoes obterAnotacao(HandlerMethod handler) {
+        LimiteRequisicoes anotacao = handler.getMethodAnnotation(LimiteRequisicoes.class);
+        return anotacao != null
+                ? anotacao
+                : AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), LimiteRequisicoes.class);
+    }
+
+    /*
+     * Só o token identifica o usuário: um id vindo da requisição poderia ser trocado a cada chamada para escapar
+     * da cota.
+     */
+    private static String identificarUsuario(HttpServletRequest request) {
+        Object autenticado = request.getAttribute(UsuarioAutenticado.ATRIBUTO);
+        return autenticado != null
+                ? ((UsuarioAutenticado) autenticado).getId().toString()
+                : "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,65 @@
+package com.dev.minhasfinancas.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "minhasfinancas.limites")
+public class LimitesProperties {
+
+    private boolean habilitado = true;
+
+    @Valid
+    private Limite padrao = new Limite(20.0, 40, 0);
+
+    // por nome de @LimiteRequisicoes; os campos não informados vêm do padrão
+    @Valid
+    private Map<String, Limite> endpoints = new HashMap<>();
+
+    public Limite obter(String nome) {
+        Limite limite = endpoints.get(nome);
+        if(limite == null) {
+            return padrao;
+        }
+        return new Limite(
+                limite.requisicoesPorSegundo != null ? limite.requisicoesPorSegundo : padrao.requisicoesPorSegundo,
+                limite.rajada != null ? limite.rajada : padrao.rajada,
+                limite.concorrencia != null ? limite.concorrencia : padrao.concorrencia);
+    }
+
+    @Getter
+    @Setter
+    public static class Limite {
+
+        // com zero ou negativo o intervalo entre fichas estoura o long: a aplicação não sobe
+        @Positive
+        private Double requisicoesPorSegundo;
+
+        // requisições aceitas de uma vez, com o balde cheio
+        @PositiveOrZero
+        private Integer rajada;
+
+        // requisições simultâneas do mesmo usuário; 0 para não limitar
+        @PositiveOrZero
+        private Integer concorrencia;
+
+        public Limite() {
+        }
+
+        public Limite(Double requisicoesPorSegundo, Integer rajada, Integer concorrencia) {
+            this.requisicoesPorSegundo = requisicoesPorSegundo;
+            this.rajada = rajada;
+            this.concorrencia = concorrencia;
+        }
+    }
+}
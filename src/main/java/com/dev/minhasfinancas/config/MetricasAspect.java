@@ -0,0 +1,70 @@
+package com.dev.minhasfinancas.config;
+
+import com.dev.minhasfinancas.exceptions.ErroAutenticacaoException;
+import com.dev.minhasfinancas.exceptions.RegraNegocioException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/*
+ * Cronometra cada chamada aos serviços de lançamento e usuário e ao repositório de lançamentos.
+ * Roda antes do @Transactional, então o tempo do serviço inclui o commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasAspect {
+
+    static final String METRICA_SERVICO = "minhasfinancas.servico";
+    static final String METRICA_REPOSITORIO = "minhasfinancas.repositorio";
+
+    private MeterRegistry registry;
+
+    public MetricasAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.dev.minhasfinancas.service.LancamentoService+.*(..))")
+    public Object cronometrarLancamentoService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return cronometrar(METRICA_SERVICO, "LancamentoService", joinPoint);
+    }
+
+    @Around("execution(public * com.dev.minhasfinancas.service.UsuarioService+.*(..))")
+    public Object cronometrarUsuarioService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return cronometrar(METRICA_SERVICO, "UsuarioService", joinPoint);
+    }
+
+    @Around("execution(public * com.dev.minhasfinancas.model.repository.LancamentoRepository+.*(..))")
+    public Object cronometrarLancamentoRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return cronometrar(METRICA_REPOSITORIO, "LancamentoRepository", joinPoint);
+    }
+
+    private Object cronometrar(String metrica, String classe, ProceedingJoinPoint joinPoint) throws Throwable {
+        String operacao = joinPoint.getSignature().getName();
+        Timer.Sample amostra = Timer.start(registry);
+        String resultado = "sucesso";
+        try {
+            return joinPoint.proceed();
+        }catch (RegraNegocioException e) {
+            resultado = "regra_negocio";
+            throw e;
+        }catch (ErroAutenticacaoException e) {
+            resultado = "erro_autenticacao";
+            throw e;
+        }catch (Throwable e) {
+            resultado = "erro";
+            throw e;
+        }finally {
+            amostra.stop(Timer.builder(metrica)
+                    .tag("classe", classe)
+                    .tag("operacao", operacao)
+                    .tag("resultado", resultado)
+                    .register(registry));
+        }
+    }
+}
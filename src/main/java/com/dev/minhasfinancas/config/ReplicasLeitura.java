@@ -0,0 +1,118 @@
+package com.dev.minhasfinancas.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/*
+ * Pools das réplicas de leitura, usados em rodízio. Réplicas que falham ao conectar ou ficam atrasadas
+ * saem do rodízio até a próxima verificação bem-sucedida.
+ */
+@Slf4j
+public class ReplicasLeitura implements DisposableBean {
+
+    private final List<Replica> replicas;
+    private final Duration atrasoMaximo;
+    private final String consultaAtraso;
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    public ReplicasLeitura(List<DataSource> replicas, Duration atrasoMaximo, String consultaAtraso) {
+        this.replicas = replicas.stream().map(Replica::new).collect(Collectors.toList());
+        this.atrasoMaximo = atrasoMaximo;
+        this.consultaAtraso = consultaAtraso;
+    }
+
+    /*
+     * Conexão com a próxima réplica disponível, ou null quando nenhuma está.
+     */
+    public Connection obterConexao() {
+        for (int tentativa = 0; tentativa < replicas.size(); tentativa++) {
+            Replica replica = proximaDisponivel();
+            if(replica == null) {
+                return null;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            }catch (SQLException e) {
+                replica.retirar("falha ao conectar: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${minhasfinancas.datasource.intervalo-verificacao:5000}")
+    public void verificar() {
+        for (Replica replica : replicas) {
+            try (Connection conexao = replica.dataSource.getConnection();
+                 Statement statement = conexao.createStatement();
+                 ResultSet resultado = statement.executeQuery(consultaAtraso)) {
+                double atrasoEmSegundos = resultado.next() ? resultado.getDouble(1) : 0;
+                if(atrasoEmSegundos * 1000 > atrasoMaximo.toMillis()) {
+                    replica.retirar("atraso de " + atrasoEmSegundos + "s");
+                } else {
+                    replica.restabelecer();
+                }
+            }catch (SQLException e) {
+                replica.retirar("falha na verificação: " + e.getMessage());
+            }
+        }
+    }
+
+    public long getDisponiveis() {
+        return replicas.stream().filter( r -> r.disponivel ).count();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if(replica.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replica.dataSource).close();
+            }
+        }
+    }
+
+    private Replica proximaDisponivel() {
+        int total = replicas.size();
+        for (int i = 0; i < total; i++) {
+            Replica replica = replicas.get(Math.floorMod(proxima.getAndIncrement(), total));
+            if(replica.disponivel) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean disponivel = true;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        void retirar(String motivo) {
+            if(disponivel) {
+                log.warn("Réplica {} retirada do rodízio de leituras: {}", dataSource, motivo);
+            }
+            disponivel = false;
+        }
+
+        void restabelecer() {
+            if(!disponivel) {
+                log.info("Réplica {} de volta ao rodízio de leituras", dataSource);
+            }
+            disponivel = true;
+        }
+    }
+}
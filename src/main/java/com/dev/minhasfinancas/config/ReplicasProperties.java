@@ -0,0 +1,36 @@
+package com.dev.minhasfinancas.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "minhasfinancas.datasource")
+public class ReplicasProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // réplicas mais atrasadas que isso deixam de receber leituras até alcançarem o primário
+    private Duration atrasoMaximo = Duration.ofSeconds(30);
+
+    // atraso da réplica em segundos; 0 quando já aplicou tudo o que recebeu (Postgres em hot standby)
+    private String consultaAtraso = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximoConexoes = 10;
+        private Duration tempoLimiteConexao = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,73 @@
+package com.dev.minhasfinancas.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+ * Envia as transações somente leitura para as réplicas e o restante para o primário; sem nenhuma
+ * réplica disponível, as leituras também vão para o primário.
+ *
+ * A conexão física só é aberta no primeiro comando (LazyConnectionDataSourceProxy), quando a
+ * transação já foi marcada como somente leitura.
+ */
+public class RoteamentoDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final DataSource primario;
+
+    public RoteamentoDataSource(DataSource primario, ReplicasLeitura replicas) {
+        super(new Roteador(primario, replicas));
+        this.primario = primario;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(primario instanceof Closeable) {
+            ((Closeable) primario).close();
+        }
+    }
+
+    private static class Roteador extends AbstractDataSource {
+
+        private final DataSource primario;
+        private final ReplicasLeitura replicas;
+
+        Roteador(DataSource primario, ReplicasLeitura replicas) {
+            this.primario = primario;
+            this.replicas = replicas;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if(TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                Connection replica = replicas.obterConexao();
+                if(replica != null) {
+                    return replica;
+                }
+            }
+            return primario.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Use as credenciais configuradas em cada pool.");
+        }
+
+        // health check e métricas do pool enxergam o primário
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(primario) ? iface.cast(primario) : primario.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(primario) || primario.isWrapperFor(iface);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.dev.minhasfinancas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Ativado com minhasfinancas.datasource.roteamento.habilitado=true. O primário continua configurado
+ * em spring.datasource.*; as réplicas, em minhasfinancas.datasource.replicas[n].*.
+ * Os pools ficam dentro de um único bean DataSource para não disputar com a inicialização do Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(name = "minhasfinancas.datasource.roteamento.habilitado", havingValue = "true")
+@EnableConfigurationProperties({DataSourceProperties.class, ReplicasProperties.class})
+public class RoteamentoDataSourceConfig {
+
+    @Bean
+    public ReplicasLeitura replicasLeitura(ReplicasProperties properties) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            replicas.add(criarReplica(i, properties.getReplicas().get(i)));
+        }
+        return new ReplicasLeitura(replicas, properties.getAtrasoMaximo(), properties.getConsultaAtraso());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, ReplicasLeitura replicasLeitura, Environment environment) {
+        HikariDataSource primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+        return new RoteamentoDataSource(primario, replicasLeitura);
+    }
+
+    private static HikariDataSource criarReplica(int indice, ReplicasProperties.Replica replica) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .driverClassName(replica.getDriverClassName())
+                .build();
+        dataSource.setPoolName("replica-" + indice);
+        dataSource.setReadOnly(true);
+        dataSource.setMaximumPoolSize(replica.getMaximoConexoes());
+        dataSource.setConnectionTimeout(replica.getTempoLimiteConexao().toMillis());
+        // a réplica pode estar fora do ar na subida; o pool tenta de novo a cada conexão pedida
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+}
@@ -0,0 +1,20 @@
+package com.dev.minhasfinancas.config;
+
+import com.dev.minhasfinancas.service.JwtService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SegurancaConfig {
+
+    @Bean
+    public FilterRegistrationBean<JwtTokenFilter> jwtTokenFilter(
+            JwtService jwtService,
+            @Value("${minhasfinancas.seguranca.exigir-token}") boolean exigirToken) {
+        FilterRegistrationBean<JwtTokenFilter> registro = new FilterRegistrationBean<>(new JwtTokenFilter(jwtService, exigirToken));
+        registro.addUrlPatterns("/api/*");
+        return registro;
+    }
+}
@@ -0,0 +1,39 @@
+package com.dev.minhasfinancas.config;
+
+import com.dev.minhasfinancas.model.entity.Usuario;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/*
+ * Usuário identificado pelo token da requisição, montado a partir das claims sem consultar o banco.
+ */
+@Getter
+@AllArgsConstructor
+public class UsuarioAutenticado {
+
+    public static final String ATRIBUTO = UsuarioAutenticado.class.getName();
+
+    private final Long id;
+    private final String nome;
+    private final String email;
+    private final long expiracao;
+
+    public static Optional<UsuarioAutenticado> atual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if(atributos == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((UsuarioAutenticado) atributos.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    /*
+     * Referência ao usuário para associar a lançamentos e filtros; só o id é usado na persistência.
+     */
+    public Usuario comoUsuario() {
+        return Usuario.builder().id(id).nome(nome).email(email).build();
+    }
+}
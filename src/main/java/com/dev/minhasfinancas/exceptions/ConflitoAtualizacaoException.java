@@ -0,0 +1,8 @@
+package com.dev.minhasfinancas.exceptions;
+
+public class ConflitoAtualizacaoException extends RuntimeException {
+
+    public ConflitoAtualizacaoException(String s) {
+        super(s);
+    }
+}
@@ -4,18 +4,20 @@ package com.dev.minhasfinancas.model.entity;
 
 import com.dev.minhasfinancas.model.enums.StatusLancamento;
 import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 
 import javax.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
 @Table(schema = "financas", name = "lancamento")
+@DynamicUpdate
 @Builder
 @Data
 @NoArgsConstructor
@@ -24,7 +26,8 @@ public class Lancamento {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_id_seq")
+    @SequenceGenerator(name = "lancamento_id_seq", schema = "financas", sequenceName = "lancamento_id_seq", allocationSize = 50)
     private Long id;
 
     private String descricao;
@@ -33,10 +36,10 @@ public class Lancamento {
 
     private Integer ano;
 
-    @ManyToOne @JoinColumn(name = "id_usuario")
+    @ManyToOne(fetch = FetchType.LAZY) @JoinColumn(name = "id_usuario")
     private Usuario usuario;
 
-    private BigDecimal valor;
+    private Dinheiro valor;
 
     @Column(name = "data_cadastro")
     @Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
@@ -50,6 +53,9 @@ public class Lancamento {
     @Column(name = "status")
     private StatusLancamento status;
 
+    @Version
+    private long versao;
+
 
 
 }
@@ -0,0 +1,40 @@
+package com.dev.minhasfinancas.model.entity;
+
+import com.dev.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(schema = "financas", name = "saldo_usuario")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SaldoUsuarioRepository.CACHE_SALDOS)
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+
+    @Id
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    private Dinheiro saldo;
+
+    private long versao;
+
+    public SaldoUsuario(Long idUsuario, Dinheiro saldo) {
+        this(idUsuario, saldo, 0);
+    }
+
+}
@@ -1,11 +1,16 @@
 package com.dev.minhasfinancas.model.entity;
 
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 @Entity
 @Table(schema = "financas", name = "usuario")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = UsuarioRepository.CACHE_USUARIOS)
 @Builder
 @Data
 @NoArgsConstructor
@@ -0,0 +1,17 @@
+package com.dev.minhasfinancas.model.enums;
+
+public enum FormatoExportacao {
+
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    FormatoExportacao(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
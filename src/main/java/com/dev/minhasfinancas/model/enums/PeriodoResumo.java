@@ -0,0 +1,7 @@
+package com.dev.minhasfinancas.model.enums;
+
+public enum PeriodoResumo {
+
+    MENSAL,
+    ANUAL
+}
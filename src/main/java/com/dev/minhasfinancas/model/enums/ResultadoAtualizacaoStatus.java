@@ -0,0 +1,10 @@
+package com.dev.minhasfinancas.model.enums;
+
+public enum ResultadoAtualizacaoStatus {
+
+    ATUALIZADO,
+    INALTERADO,
+    NAO_ENCONTRADO,
+    // o status atual não está entre as origens permitidas do novo status
+    NAO_PERMITIDO
+}
@@ -1,8 +1,26 @@
 package com.dev.minhasfinancas.model.enums;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public enum StatusLancamento {
 
     PENDENTE,
     CANCELADO,
-    EFETIVADO
+    EFETIVADO;
+
+    /*
+     * Status a partir dos quais um lançamento pode passar para este.
+     */
+    public List<StatusLancamento> getOrigensPermitidas() {
+        switch (this) {
+            case EFETIVADO:
+                return Collections.singletonList(PENDENTE);
+            case CANCELADO:
+                return Arrays.asList(PENDENTE, EFETIVADO);
+            default:
+                return Collections.emptyList();
+        }
+    }
 }
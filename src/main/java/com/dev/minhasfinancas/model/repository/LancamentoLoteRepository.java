@@ -0,0 +1,10 @@
+package com.dev.minhasfinancas.model.repository;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+
+import java.util.List;
+
+public interface LancamentoLoteRepository {
+
+    List<Lancamento> inserirEmLote(List<Lancamento> lancamentos);
+}
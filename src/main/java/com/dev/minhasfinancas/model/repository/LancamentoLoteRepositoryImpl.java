@@ -0,0 +1,36 @@
+package com.dev.minhasfinancas.model.repository;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class LancamentoLoteRepositoryImpl implements LancamentoLoteRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${minhasfinancas.lancamento.lote.tamanho-chunk:500}")
+    private int tamanhoChunk;
+
+    @Override
+    @Transactional
+    public List<Lancamento> inserirEmLote(List<Lancamento> lancamentos) {
+        for (int i = 0; i < lancamentos.size(); i++) {
+            entityManager.persist(lancamentos.get(i));
+
+            // envia os inserts agrupados (hibernate.jdbc.batch_size) e libera o contexto de persistência
+            // a cada bloco, para que a memória não cresça com o tamanho do lote
+            if ((i + 1) % tamanhoChunk == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return lancamentos;
+    }
+}
@@ -0,0 +1,8 @@
+package com.dev.minhasfinancas.model.repository;
+
+import java.util.Map;
+
+public interface LancamentoParcialRepository {
+
+    int atualizarCampos(Long id, Long idUsuario, Map<String, Object> campos, Long versao);
+}
@@ -0,0 +1,50 @@
+package com.dev.minhasfinancas.model.repository;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class LancamentoParcialRepositoryImpl implements LancamentoParcialRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /*
+     * Update com apenas os campos informados (nome do atributo -> novo valor), sem carregar o lançamento.
+     * O usuário e a versão, quando informados, entram na condição; retorna 0 se nenhum lançamento atender.
+     */
+    @Override
+    @Transactional
+    public int atualizarCampos(Long id, Long idUsuario, Map<String, Object> campos, Long versao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Lancamento> update = cb.createCriteriaUpdate(Lancamento.class);
+        Root<Lancamento> lancamento = update.from(Lancamento.class);
+
+        campos.forEach(update::set);
+        update.set(lancamento.<Long>get("versao"), cb.sum(lancamento.<Long>get("versao"), 1L));
+
+        List<Predicate> condicoes = new ArrayList<>();
+        condicoes.add(cb.equal(lancamento.get("id"), id));
+        if(idUsuario != null) {
+            condicoes.add(cb.equal(lancamento.get("usuario").get("id"), idUsuario));
+        }
+        if(versao != null) {
+            condicoes.add(cb.equal(lancamento.get("versao"), versao));
+        }
+        update.where(condicoes.toArray(new Predicate[0]));
+
+        entityManager.flush();
+        int atualizados = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return atualizados;
+    }
+}
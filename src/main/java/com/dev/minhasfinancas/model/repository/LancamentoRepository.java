@@ -3,18 +3,289 @@ package com.dev.minhasfinancas.model.repository;
 import com.dev.minhasfinancas.model.entity.Lancamento;
 import com.dev.minhasfinancas.model.enums.StatusLancamento;
 import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoLoteRepository, LancamentoParcialRepository {
+
+    String CONTRIBUICAO_NO_SALDO =
+            " case when l.status = com.dev.minhasfinancas.model.enums.StatusLancamento.EFETIVADO "
+                    + " then (case when l.tipo = com.dev.minhasfinancas.model.enums.TipoLancamento.RECEITA "
+                    + " then l.valor else -l.valor end) else 0 end ";
+
+    String TOTAIS_RESUMO =
+            " sum(case when l.tipo = com.dev.minhasfinancas.model.enums.TipoLancamento.RECEITA "
+                    + " and l.status = com.dev.minhasfinancas.model.enums.StatusLancamento.EFETIVADO then l.valor else 0 end) as receitasEfetivadas, "
+                    + " sum(case when l.tipo = com.dev.minhasfinancas.model.enums.TipoLancamento.DESPESA "
+                    + " and l.status = com.dev.minhasfinancas.model.enums.StatusLancamento.EFETIVADO then l.valor else 0 end) as despesasEfetivadas, "
+                    + " sum(case when l.tipo = com.dev.minhasfinancas.model.enums.TipoLancamento.RECEITA "
+                    + " and l.status = com.dev.minhasfinancas.model.enums.StatusLancamento.PENDENTE then l.valor else 0 end) as receitasPendentes, "
+                    + " sum(case when l.tipo = com.dev.minhasfinancas.model.enums.TipoLancamento.DESPESA "
+                    + " and l.status = com.dev.minhasfinancas.model.enums.StatusLancamento.PENDENTE then l.valor else 0 end) as despesasPendentes, "
+                    + " sum(case when l.tipo = com.dev.minhasfinancas.model.enums.TipoLancamento.RECEITA "
+                    + " and l.status = com.dev.minhasfinancas.model.enums.StatusLancamento.CANCELADO then l.valor else 0 end) as receitasCanceladas, "
+                    + " sum(case when l.tipo = com.dev.minhasfinancas.model.enums.TipoLancamento.DESPESA "
+                    + " and l.status = com.dev.minhasfinancas.model.enums.StatusLancamento.CANCELADO then l.valor else 0 end) as despesasCanceladas, "
+                    + " count(l) as quantidade ";
+
+    // só as colunas do LancamentoDTO; o usuário vem pela chave estrangeira, sem join
+    String COLUNAS_PROJECAO =
+            " l.id as id, l.descricao as descricao, l.mes as mes, l.ano as ano, l.valor as valor, "
+                    + " l.tipo as tipo, l.status as status, l.usuario.id as idUsuario, l.versao as versao ";
+
+    // o necessário para recalcular a contribuição no saldo
+    String COLUNAS_SITUACAO =
+            " l.id as id, l.tipo as tipo, l.valor as valor, l.status as status, l.usuario.id as idUsuario, l.versao as versao ";
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
     @Query( value =
             " select sum(l.valor) from Lancamento l join l.usuario u "
                     + " where u.id = :idUsuario and l.tipo =:tipo and l.status = :status group by u " )
-    BigDecimal obterSaldoPorTipoLancamentoEUsuarioEStatus(
+    Dinheiro obterSaldoPorTipoLancamentoEUsuarioEStatus(
             @Param("idUsuario") Long idUsuario,
             @Param("tipo") TipoLancamento tipo,
             @Param("status") StatusLancamento status);
+
+    @Query( value =
+            " select " + COLUNAS_PROJECAO + " from Lancamento l "
+                    + " where l.usuario.id = :idUsuario "
+                    + " and (:descricao is null or lower(l.descricao) like :descricao escape '\\') "
+                    + " and (:mes is null or l.mes = :mes) and (:ano is null or l.ano = :ano) "
+                    + " order by l.id " )
+    List<LancamentoProjecao> buscarProjecoes(
+            @Param("idUsuario") Long idUsuario,
+            @Param("descricao") String descricao,
+            @Param("mes") Integer mes,
+            @Param("ano") Integer ano);
+
+    /*
+     * A versão do dono vem na mesma consulta, para que a ETag corresponda exatamente aos dados lidos.
+     */
+    @Query( value =
+            " select " + COLUNAS_PROJECAO + ", coalesce(s.versao, 0) as versaoDoDono from Lancamento l "
+                    + " left join SaldoUsuario s on s.idUsuario = l.usuario.id where l.id = :id " )
+    Optional<LancamentoProjecaoVersionada> obterProjecaoPorId(@Param("id") Long id);
+
+    @Query( value =
+            " select " + COLUNAS_PROJECAO + " from Lancamento l "
+                    + " where l.usuario.id = :idUsuario and l.id > :apos "
+                    + " and lower(l.descricao) like :descricao escape '\\' "
+                    + " and (:mes is null or l.mes = :mes) and (:ano is null or l.ano = :ano) "
+                    + " order by l.id " )
+    Slice<LancamentoProjecao> buscarPagina(
+            @Param("idUsuario") Long idUsuario,
+            @Param("apos") Long apos,
+            @Param("descricao") String descricao,
+            @Param("mes") Integer mes,
+            @Param("ano") Integer ano,
+            Pageable pageable);
+
+    /*
+     * Lê o estado gravado no banco, ignorando alterações ainda não enviadas da sessão,
+     * para calcular quanto o lançamento contribuía para o saldo antes da alteração e validar a troca de status.
+     */
+    @Query( value =
+            " select l.usuario.id as idUsuario, " + CONTRIBUICAO_NO_SALDO + " as valor, l.status as status "
+                    + " from Lancamento l where l.id = :id " )
+    @QueryHints( @QueryHint(name = org.hibernate.annotations.QueryHints.FLUSH_MODE, value = "COMMIT") )
+    Optional<ContribuicaoSaldo> obterContribuicaoPersistidaNoSaldo(@Param("id") Long id);
+
+    @Query( value =
+            " select sum(" + CONTRIBUICAO_NO_SALDO + ") from Lancamento l where l.usuario.id = :idUsuario " )
+    Dinheiro calcularSaldoDoUsuario(@Param("idUsuario") Long idUsuario);
+
+    @Query( value = " select distinct l.usuario.id from Lancamento l " )
+    List<Long> listarIdsDeUsuarios();
+
+    @Query( value =
+            " select l.ano as ano, l.mes as mes, " + TOTAIS_RESUMO
+                    + " from Lancamento l where l.usuario.id = :idUsuario and (:ano is null or l.ano = :ano) "
+                    + " group by l.ano, l.mes order by l.ano, l.mes " )
+    List<ResumoLancamento> resumirPorMes(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+
+    @Query( value =
+            " select l.ano as ano, " + TOTAIS_RESUMO
+                    + " from Lancamento l where l.usuario.id = :idUsuario and (:ano is null or l.ano = :ano) "
+                    + " group by l.ano order by l.ano " )
+    List<ResumoLancamento> resumirPorAno(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+
+    @Query( value =
+            " select l.* from financas.lancamento l "
+                    + " where l.id_usuario = :idUsuario and lower(l.descricao) like :padrao "
+                    + " order by similarity(lower(l.descricao), :termo) desc, l.id desc limit :limite ",
+            nativeQuery = true )
+    List<Lancamento> buscarPorTrechoDaDescricaoComTrigramas(
+            @Param("idUsuario") Long idUsuario,
+            @Param("padrao") String padrao,
+            @Param("termo") String termo,
+            @Param("limite") int limite);
+
+    @Query( value =
+            " select l.descricao from financas.lancamento l "
+                    + " where l.id_usuario = :idUsuario and lower(l.descricao) like :prefixo "
+                    + " group by l.descricao order by count(*) desc, l.descricao limit :limite ",
+            nativeQuery = true )
+    List<String> buscarDescricoesPorPrefixo(
+            @Param("idUsuario") Long idUsuario,
+            @Param("prefixo") String prefixo,
+            @Param("limite") int limite);
+
+    /*
+     * Trava as linhas até o fim da transação, para que o ajuste do saldo seja calculado sobre o mesmo
+     * estado que o update em lote vai alterar.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query( value =
+            " select " + COLUNAS_SITUACAO + " from Lancamento l where l.usuario.id = :idUsuario and l.id in :ids " )
+    List<SituacaoLancamento> obterSituacaoParaAtualizarStatus(
+            @Param("idUsuario") Long idUsuario,
+            @Param("ids") Collection<Long> ids);
+
+    @Query( value = " select " + COLUNAS_SITUACAO + " from Lancamento l where l.id = :id " )
+    Optional<SituacaoLancamento> obterSituacao(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query( value =
+            " update Lancamento l set l.status = :status, l.versao = l.versao + 1 "
+                    + " where l.usuario.id = :idUsuario and l.id in :ids " )
+    int atualizarStatus(
+            @Param("idUsuario") Long idUsuario,
+            @Param("ids") Collection<Long> ids,
+            @Param("status") StatusLancamento status);
+
+    /*
+     * Compare-and-set do status: só altera o lançamento que ainda estiver na origem (e na versão, quando
+     * informada), em um único comando e sem leitura prévia. Retorna 0 quando outra operação chegou antes.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query( value =
+            " update Lancamento l set l.status = :destino, l.versao = l.versao + 1 "
+                    + " where l.id = :id and l.status = :origem "
+                    + " and (:idUsuario is null or l.usuario.id = :idUsuario) "
+                    + " and (:versao is null or l.versao = :versao) " )
+    int transicionarStatus(
+            @Param("id") Long id,
+            @Param("idUsuario") Long idUsuario,
+            @Param("origem") StatusLancamento origem,
+            @Param("destino") StatusLancamento destino,
+            @Param("versao") Long versao);
+
+    @Query( value = " select l.usuario.id from Lancamento l where l.id = :id " )
+    Optional<Long> obterIdUsuario(@Param("id") Long id);
+
+    boolean existsByIdAndUsuarioId(Long id, Long idUsuario);
+
+    @Query( value = " select l.id as id, l.descricao as descricao from Lancamento l where l.usuario.id = :idUsuario " )
+    List<DescricaoLancamento> obterDescricoesDoUsuario(@Param("idUsuario") Long idUsuario);
+
+    @Query( value =
+            " select l.id as id, l.valor as valor, l.ano as ano, l.mes as mes, l.tipo as tipo, l.status as status "
+                    + " from Lancamento l where l.usuario.id = :idUsuario order by l.id " )
+    List<LancamentoLivroRazao> obterLivroRazaoDoUsuario(@Param("idUsuario") Long idUsuario);
+
+    interface LancamentoProjecao {
+
+        Long getId();
+
+        String getDescricao();
+
+        Integer getMes();
+
+        Integer getAno();
+
+        Dinheiro getValor();
+
+        TipoLancamento getTipo();
+
+        StatusLancamento getStatus();
+
+        Long getIdUsuario();
+
+        Long getVersao();
+    }
+
+    interface LancamentoProjecaoVersionada extends LancamentoProjecao {
+
+        Long getVersaoDoDono();
+    }
+
+    interface SituacaoLancamento {
+
+        Long getId();
+
+        TipoLancamento getTipo();
+
+        Dinheiro getValor();
+
+        StatusLancamento getStatus();
+
+        Long getIdUsuario();
+
+        Long getVersao();
+    }
+
+    interface ContribuicaoSaldo {
+
+        Long getIdUsuario();
+
+        Dinheiro getValor();
+
+        StatusLancamento getStatus();
+    }
+
+    interface ResumoLancamento {
+
+        Integer getAno();
+
+        Integer getMes();
+
+        Dinheiro getReceitasEfetivadas();
+
+        Dinheiro getDespesasEfetivadas();
+
+        Dinheiro getReceitasPendentes();
+
+        Dinheiro getDespesasPendentes();
+
+        // fora do saldo, mas contados em quantidade: aqui aparece quanto dela é de cancelados
+        Dinheiro getReceitasCanceladas();
+
+        Dinheiro getDespesasCanceladas();
+
+        Long getQuantidade();
+    }
+
+    interface LancamentoLivroRazao {
+
+        Long getId();
+
+        Dinheiro getValor();
+
+        Integer getAno();
+
+        Integer getMes();
+
+        TipoLancamento getTipo();
+
+        StatusLancamento getStatus();
+    }
+
+    interface DescricaoLancamento {
+
+        Long getId();
+
+        String getDescricao();
+    }
 }
@@ -0,0 +1,10 @@
+package com.dev.minhasfinancas.model.repository;
+
+public interface SaldoUsuarioContribuicaoRepository {
+
+    int somarContribuicaoDoLancamento(Long idLancamento, int fator);
+
+    int criarSaldo(Long idUsuario);
+
+    int corrigirSaldo(Long idUsuario);
+}
@@ -0,0 +1,83 @@
+package com.dev.minhasfinancas.model.repository;
+
+import com.dev.minhasfinancas.model.entity.SaldoUsuario;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class SaldoUsuarioContribuicaoRepositoryImpl implements SaldoUsuarioContribuicaoRepository {
+
+    private static final String SOMAR_CONTRIBUICAO =
+            " update financas.saldo_usuario set versao = versao + 1, saldo = saldo + :fator * "
+                    + " (select case when l.tipo = 'RECEITA' then l.valor else -l.valor end "
+                    + " from financas.lancamento l where l.id = :idLancamento) "
+                    + " where id_usuario = (select l.id_usuario from financas.lancamento l where l.id = :idLancamento) ";
+
+    // mesma regra de LancamentoRepository.CONTRIBUICAO_NO_SALDO
+    private static final String SALDO_CALCULADO =
+            " coalesce((select sum(case when l.status = 'EFETIVADO' "
+                    + " then (case when l.tipo = 'RECEITA' then l.valor else -l.valor end) else 0 end) "
+                    + " from financas.lancamento l where l.id_usuario = :idUsuario), 0) ";
+
+    // sem alvo no on conflict: é a forma que o H2 aceita no modo PostgreSQL
+    private static final String CRIAR_SALDO =
+            " insert into financas.saldo_usuario (id_usuario, saldo, versao) "
+                    + " select :idUsuario, " + SALDO_CALCULADO + ", 1 on conflict do nothing ";
+
+    private static final String CORRIGIR_SALDO =
+            " update financas.saldo_usuario set versao = versao + 1, saldo = " + SALDO_CALCULADO
+                    + " where id_usuario = :idUsuario and saldo <> " + SALDO_CALCULADO;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /*
+     * Soma ao saldo do dono o valor do lançamento (negativo nas despesas) multiplicado pelo fator,
+     * sem carregar o lançamento na aplicação. A tabela alterada é informada ao Hibernate: sem ela,
+     * o update nativo invalidaria todas as regiões do cache de segundo nível.
+     */
+    @Override
+    @Transactional
+    public int somarContribuicaoDoLancamento(Long idLancamento, int fator) {
+        entityManager.flush();
+        int atualizados = entityManager.createNativeQuery(SOMAR_CONTRIBUICAO)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(SaldoUsuario.class)
+                .setParameter("idLancamento", idLancamento)
+                .setParameter("fator", fator)
+                .executeUpdate();
+        entityManager.clear();
+        return atualizados;
+    }
+
+    /*
+     * Cria o saldo já calculado sobre os lançamentos; 0 quando outra transação o criou antes.
+     */
+    @Override
+    @Transactional
+    public int criarSaldo(Long idUsuario) {
+        return executarSobreOSaldo(CRIAR_SALDO, idUsuario);
+    }
+
+    /*
+     * Compara e corrige num único comando; 1 quando o saldo gravado estava divergente.
+     */
+    @Override
+    @Transactional
+    public int corrigirSaldo(Long idUsuario) {
+        return executarSobreOSaldo(CORRIGIR_SALDO, idUsuario);
+    }
+
+    private int executarSobreOSaldo(String sql, Long idUsuario) {
+        entityManager.flush();
+        int atualizados = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(SaldoUsuario.class)
+                .setParameter("idUsuario", idUsuario)
+                .executeUpdate();
+        entityManager.clear();
+        return atualizados;
+    }
+}
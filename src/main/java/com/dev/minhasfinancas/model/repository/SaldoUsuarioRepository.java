@@ -0,0 +1,35 @@
+package com.dev.minhasfinancas.model.repository;
+
+import com.dev.minhasfinancas.model.entity.SaldoUsuario;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioContribuicaoRepository {
+
+    // região do cache de segundo nível da entidade; os updates abaixo e os do fragmento a invalidam inteira
+    String CACHE_SALDOS = "saldos";
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query( value = " update SaldoUsuario s set s.saldo = s.saldo + :valor, s.versao = s.versao + 1 " +
+            " where s.idUsuario = :idUsuario " )
+    int somarAoSaldo(@Param("idUsuario") Long idUsuario, @Param("valor") Dinheiro valor);
+
+    /*
+     * Trava o saldo até o fim da transação: os ajustes concorrentes esperam, e os que já
+     * gravaram estão confirmados quando a trava é obtida.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query( value = " select s.saldo from SaldoUsuario s where s.idUsuario = :idUsuario " )
+    Optional<Dinheiro> bloquearSaldo(@Param("idUsuario") Long idUsuario);
+
+    @Query( value = " select s.idUsuario from SaldoUsuario s " )
+    List<Long> listarIdsDeUsuarios();
+}
@@ -1,14 +1,22 @@
 package com.dev.minhasfinancas.model.repository;
 
 import com.dev.minhasfinancas.model.entity.Usuario;
-import org.springframework.data.domain.Example;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
+    // regiões do cache de segundo nível: a entidade (findById e o carregamento de lancamento.usuario) e a consulta por email
+    String CACHE_USUARIOS = "usuarios";
+    String CACHE_USUARIOS_POR_EMAIL = "usuarios-por-email";
 
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = CACHE_USUARIOS_POR_EMAIL)
+    })
     Optional<Usuario> findByEmail(String email);
     Optional<Usuario> findByNome(String nome);
     boolean existsByEmail(String email);
@@ -0,0 +1,126 @@
+package com.dev.minhasfinancas.model.valor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/*
+ * Valor monetário em centavos, na mesma escala da coluna numeric(16,2). Somas e subtrações são exatas e
+ * lançam ArithmeticException em caso de estouro, em vez de perder precisão. No JSON continua sendo um número decimal.
+ */
+@JsonSerialize(using = Dinheiro.Serializador.class)
+@JsonDeserialize(using = Dinheiro.Desserializador.class)
+public final class Dinheiro implements Comparable<Dinheiro>, Serializable {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+
+    // maior valor aceito pela coluna numeric(16,2)
+    public static final Dinheiro MAXIMO = new Dinheiro(9_999_999_999_999_999L);
+
+    private final long centavos;
+
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Dinheiro(centavos);
+    }
+
+    /*
+     * Arredonda para centavos como o banco faz ao gravar na coluna.
+     */
+    public static Dinheiro de(BigDecimal valor) {
+        return deCentavos(valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public static Dinheiro de(String valor) {
+        return de(new BigDecimal(valor));
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public Dinheiro somar(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro subtrair(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro negar() {
+        return deCentavos(Math.negateExact(centavos));
+    }
+
+    public boolean isPositivo() {
+        return centavos > 0;
+    }
+
+    public BigDecimal paraBigDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof Dinheiro && ((Dinheiro) outro).centavos == centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return paraBigDecimal().toPlainString();
+    }
+
+    static class Serializador extends StdScalarSerializer<Dinheiro> {
+
+        Serializador() {
+            super(Dinheiro.class);
+        }
+
+        @Override
+        public void serialize(Dinheiro valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+            gerador.writeNumber(valor.paraBigDecimal());
+        }
+    }
+
+    static class Desserializador extends StdScalarDeserializer<Dinheiro> {
+
+        Desserializador() {
+            super(Dinheiro.class);
+        }
+
+        @Override
+        public Dinheiro deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            try {
+                if(parser.hasToken(JsonToken.VALUE_STRING)) {
+                    return de(parser.getText().trim());
+                }
+                return de(parser.getDecimalValue());
+            }catch (NumberFormatException | ArithmeticException e) {
+                return (Dinheiro) contexto.handleWeirdStringValue(Dinheiro.class, parser.getText(), "valor monetário inválido");
+            }
+        }
+    }
+}
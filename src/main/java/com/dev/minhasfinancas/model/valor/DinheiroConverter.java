@@ -0,0 +1,19 @@
+package com.dev.minhasfinancas.model.valor;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.math.BigDecimal;
+
+@Converter(autoApply = true)
+public class DinheiroConverter implements AttributeConverter<Dinheiro, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinheiro valor) {
+        return valor == null ? null : valor.paraBigDecimal();
+    }
+
+    @Override
+    public Dinheiro convertToEntityAttribute(BigDecimal valor) {
+        return valor == null ? null : Dinheiro.de(valor);
+    }
+}
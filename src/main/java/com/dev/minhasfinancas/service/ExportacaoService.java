@@ -0,0 +1,10 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.enums.FormatoExportacao;
+
+import java.io.OutputStream;
+
+public interface ExportacaoService {
+
+    void exportarLancamentos(Long idUsuario, FormatoExportacao formato, OutputStream saida);
+}
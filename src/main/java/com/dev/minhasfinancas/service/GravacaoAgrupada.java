@@ -0,0 +1,16 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+
+/*
+ * Inclusão de lançamentos com commit em grupo: pedidos simultâneos são reunidos por alguns milissegundos e
+ * gravados numa única transação. Só existe com minhasfinancas.lancamento.agrupamento.habilitado=true.
+ */
+public interface GravacaoAgrupada {
+
+    /*
+     * Mesmo contrato de LancamentoService.salvar: valida, grava como pendente e retorna o lançamento com o id.
+     * Bloqueia até o commit do grupo.
+     */
+    Lancamento salvar(Lancamento lancamento);
+}
@@ -0,0 +1,22 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.FormatoExtrato;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImportacaoService {
+
+    /*
+     * Lê o extrato da entrada à medida que ele chega e grava os lançamentos em chunks, retornando ao final.
+     * Registros inválidos são rejeitados um a um, sem interromper a importação.
+     */
+    ProgressoImportacao importar(Usuario usuario, FormatoExtrato formato, InputStream entrada, Charset charset, long bytesTotais);
+
+    Optional<ProgressoImportacao> obterProgresso(String id);
+
+    List<ProgressoImportacao> listarPorUsuario(Long idUsuario);
+}
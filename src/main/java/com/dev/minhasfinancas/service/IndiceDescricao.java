@@ -0,0 +1,17 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+
+import java.util.List;
+
+/*
+ * Índice usado na busca por trecho da descrição e no autocompletar. Em produção é o índice de
+ * trigramas do Postgres (pg_trgm); nos demais perfis, um índice equivalente mantido em memória.
+ * O termo e o prefixo chegam sem espaços nas pontas e em minúsculas, como a descrição é comparada.
+ */
+public interface IndiceDescricao {
+
+    List<Lancamento> buscar(Long idUsuario, String termo, int limite);
+
+    List<String> autocompletar(Long idUsuario, String prefixo, int limite);
+}
@@ -0,0 +1,13 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.entity.Usuario;
+import io.jsonwebtoken.Claims;
+
+public interface JwtService {
+
+    String gerarToken(Usuario usuario);
+
+    Claims obterClaims(String token);
+
+    boolean isTokenValido(String token);
+}
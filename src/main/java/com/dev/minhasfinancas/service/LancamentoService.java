@@ -1,26 +1,55 @@
 package com.dev.minhasfinancas.service;
 
 import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.enums.PeriodoResumo;
+import com.dev.minhasfinancas.model.enums.ResultadoAtualizacaoStatus;
 import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoProjecao;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoProjecaoVersionada;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.ResumoLancamento;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import org.springframework.data.domain.Slice;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface LancamentoService {
     Lancamento salvar(Lancamento lancamento);
 
+    List<Lancamento> salvarLote(List<Lancamento> lancamentos);
+
     Lancamento atualizar(Lancamento lancamento);
 
+    void atualizarParcialmente(Long id, Long idUsuario, Lancamento alteracoes, Long versao);
+
     void deletar(Lancamento lancamento);
 
     List<Lancamento> buscar(Lancamento lancamentoFiltro );
 
+    List<LancamentoProjecao> buscarProjecoes(Lancamento lancamentoFiltro);
+
+    Slice<LancamentoProjecao> buscarPagina(Lancamento lancamentoFiltro, Long apos, Integer limite);
+
+    List<Lancamento> buscarPorDescricao(Long idUsuario, String termo, Integer limite);
+
+    List<String> autocompletarDescricao(Long idUsuario, String prefixo, Integer limite);
+
     void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 
+    void transicionarStatus(Long id, Long idUsuario, StatusLancamento status, Long versao);
+
+    Map<Long, ResultadoAtualizacaoStatus> atualizarStatusEmLote(Long idUsuario, List<Long> ids, StatusLancamento status);
+
     void validar(Lancamento lancamento);
 
     Optional<Lancamento> obterPorId(Long id);
 
-    BigDecimal obterSaldoPorUsuario(Long id);
+    Optional<LancamentoProjecaoVersionada> obterProjecaoPorId(Long id);
+
+    Dinheiro obterSaldoPorUsuario(Long id);
+
+    long obterVersaoPorUsuario(Long id);
+
+    List<ResumoLancamento> obterResumo(Long idUsuario, PeriodoResumo periodo, Integer ano);
 }
@@ -0,0 +1,140 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.enums.FormatoExtrato;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Andamento de uma importação de extrato. É atualizado pela requisição que lê o arquivo e pela thread que grava
+ * os lançamentos enquanto outras requisições o consultam, por isso os contadores são atômicos.
+ */
+public class ProgressoImportacao {
+
+    public enum Estado {
+        EM_ANDAMENTO,
+        CONCLUIDA,
+        FALHOU
+    }
+
+    private final String id;
+    private final Long idUsuario;
+    private final FormatoExtrato formato;
+    private final long bytesTotais;
+    private final int maximoErros;
+    private final LocalDateTime inicio = LocalDateTime.now();
+
+    private final AtomicLong bytesLidos = new AtomicLong();
+    private final AtomicLong registrosLidos = new AtomicLong();
+    private final AtomicLong gravados = new AtomicLong();
+    private final AtomicLong rejeitados = new AtomicLong();
+    private final List<String> erros = new ArrayList<>();
+
+    private volatile Estado estado = Estado.EM_ANDAMENTO;
+    private volatile String mensagemFalha;
+    private volatile LocalDateTime fim;
+
+    public ProgressoImportacao(String id, Long idUsuario, FormatoExtrato formato, long bytesTotais, int maximoErros) {
+        this.id = id;
+        this.idUsuario = idUsuario;
+        this.formato = formato;
+        this.bytesTotais = bytesTotais;
+        this.maximoErros = maximoErros;
+    }
+
+    public void adicionarBytesLidos(long bytes) {
+        bytesLidos.addAndGet(bytes);
+    }
+
+    public void registroLido() {
+        registrosLidos.incrementAndGet();
+    }
+
+    public void adicionarGravados(int quantidade) {
+        gravados.addAndGet(quantidade);
+    }
+
+    public void rejeitar(int linha, String motivo) {
+        rejeitados.incrementAndGet();
+        synchronized (erros) {
+            if(erros.size() < maximoErros) {
+                erros.add("Linha " + linha + ": " + motivo);
+            }
+        }
+    }
+
+    /*
+     * Só a primeira falha fica registrada; a importação termina como FALHOU mesmo que a leitura siga até o fim.
+     */
+    public synchronized void falhar(String mensagem) {
+        if(mensagemFalha == null) {
+            mensagemFalha = mensagem;
+        }
+    }
+
+    public synchronized void terminar() {
+        estado = mensagemFalha == null ? Estado.CONCLUIDA : Estado.FALHOU;
+        fim = LocalDateTime.now();
+    }
+
+    public boolean isFalhou() {
+        return mensagemFalha != null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getIdUsuario() {
+        return idUsuario;
+    }
+
+    public FormatoExtrato getFormato() {
+        return formato;
+    }
+
+    // -1 quando a requisição não informa o Content-Length
+    public long getBytesTotais() {
+        return bytesTotais;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public String getMensagemFalha() {
+        return mensagemFalha;
+    }
+
+    public long getBytesLidos() {
+        return bytesLidos.get();
+    }
+
+    public long getRegistrosLidos() {
+        return registrosLidos.get();
+    }
+
+    public long getGravados() {
+        return gravados.get();
+    }
+
+    public long getRejeitados() {
+        return rejeitados.get();
+    }
+
+    public List<String> getErros() {
+        synchronized (erros) {
+            return new ArrayList<>(erros);
+        }
+    }
+}
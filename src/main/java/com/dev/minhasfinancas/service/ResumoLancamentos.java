@@ -0,0 +1,15 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.enums.PeriodoResumo;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.ResumoLancamento;
+
+import java.util.List;
+
+/*
+ * Totais de receitas e despesas por período. Por padrão são agregados no banco a cada consulta; com
+ * minhasfinancas.livro-razao.habilitado=true saem de um livro-razão por usuário mantido em memória.
+ */
+public interface ResumoLancamentos {
+
+    List<ResumoLancamento> resumir(Long idUsuario, PeriodoResumo periodo, Integer ano);
+}
@@ -0,0 +1,18 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+
+public interface SaldoUsuarioService {
+
+    Dinheiro obterSaldo(Long idUsuario);
+
+    long obterVersao(Long idUsuario);
+
+    void ajustar(Long idUsuario, Dinheiro valor);
+
+    void registrarAlteracao(Long idUsuario);
+
+    void ajustarPelaContribuicao(Long idLancamento, int fator);
+
+    int verificarSaldos();
+}
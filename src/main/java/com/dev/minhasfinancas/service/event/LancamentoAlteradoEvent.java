@@ -0,0 +1,28 @@
+package com.dev.minhasfinancas.service.event;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LancamentoAlteradoEvent {
+
+    public enum Operacao {
+        CRIADO,
+        ATUALIZADO,
+        // o lançamento do evento traz o id, o usuário e só os campos alterados
+        ALTERADO_PARCIALMENTE,
+        REMOVIDO
+    }
+
+    private final Operacao operacao;
+    private final Lancamento lancamento;
+
+    // dono gravado antes da alteração, em ATUALIZADO e REMOVIDO; nas demais operações, o do próprio lançamento
+    private final Long idUsuarioAnterior;
+
+    public LancamentoAlteradoEvent(Operacao operacao, Lancamento lancamento) {
+        this(operacao, lancamento, lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId());
+    }
+}
@@ -0,0 +1,203 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.config.AuditoriaProperties;
+import com.dev.minhasfinancas.config.AuditoriaProperties.PoliticaFilaCheia;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.event.LancamentoAlteradoEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Registro das alterações de lançamentos em financas.lancamento_auditoria, fora da requisição: depois do commit
+ * o evento vira um registro na fila circular, e uma única thread grava a fila em inserts em lote a cada
+ * intervalo, ou assim que ela junta um lote. Com a fila cheia vale a política configurada.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.auditoria.habilitado", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AuditoriaProperties.class)
+public class AuditoriaLancamentos extends ConsumidorFila<AuditoriaLancamentos.RegistroAuditoria> {
+
+    static final String METRICA_FILA = "minhasfinancas.auditoria.fila";
+    static final String METRICA_GRAVACAO = "minhasfinancas.auditoria.gravacao";
+    static final String METRICA_GRAVADOS = "minhasfinancas.auditoria.gravados";
+    static final String METRICA_DESCARTADOS = "minhasfinancas.auditoria.descartados";
+
+    private static final String INSERIR =
+            " insert into financas.lancamento_auditoria "
+                    + " (id_lancamento, id_usuario, operacao, descricao, mes, ano, valor, tipo, status, data_hora) "
+                    + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ";
+
+    // intervalo entre as tentativas de quem aguarda espaço na fila
+    private static final long PAUSA_AGUARDANDO = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PoliticaFilaCheia politica;
+    private final int tamanhoLote;
+    private final long esperaMaxima;
+
+    private final Timer gravacao;
+    private final Counter gravados;
+    private final Counter descartadosFilaCheia;
+    private final Counter descartadosFalha;
+
+    public AuditoriaLancamentos(JdbcTemplate jdbcTemplate, AuditoriaProperties properties, MeterRegistry registry) {
+        super("auditoria-lancamentos", properties.getCapacidade(), properties.getTamanhoLote(),
+                properties.getIntervalo().toNanos(), properties.getTempoEncerramento().toMillis());
+        this.jdbcTemplate = jdbcTemplate;
+        this.politica = properties.getPolitica();
+        this.tamanhoLote = properties.getTamanhoLote();
+        this.esperaMaxima = properties.getEsperaMaxima().toNanos();
+
+        registry.gauge(METRICA_FILA, fila, FilaCircular::tamanho);
+        this.gravacao = Timer.builder(METRICA_GRAVACAO).register(registry);
+        this.gravados = registry.counter(METRICA_GRAVADOS);
+        this.descartadosFilaCheia = registry.counter(METRICA_DESCARTADOS, "motivo", "fila_cheia");
+        this.descartadosFalha = registry.counter(METRICA_DESCARTADOS, "motivo", "falha_gravacao");
+    }
+
+    @Override
+    @PostConstruct
+    public void iniciar() {
+        super.iniciar();
+    }
+
+    /*
+     * Chamado antes do fechamento do DataSource, do qual este componente depende: grava o que ainda estiver na fila.
+     */
+    @Override
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        super.encerrar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarLancamento(LancamentoAlteradoEvent evento) {
+        registrar(new RegistroAuditoria(evento.getOperacao(), evento.getLancamento(), LocalDateTime.now()));
+    }
+
+    void registrar(RegistroAuditoria registro) {
+        if(!isAtivo()) {
+            // a aplicação está encerrando e o escritor pode já ter parado
+            gravar(Collections.singletonList(registro));
+            return;
+        }
+
+        if(fila.oferecer(registro)) {
+            if(fila.tamanho() == tamanhoLote) {
+                acordar();
+            }
+            return;
+        }
+
+        acordar();
+        switch (politica) {
+            case GRAVAR_DIRETO:
+                gravar(Collections.singletonList(registro));
+                return;
+            case AGUARDAR:
+                long prazo = System.nanoTime() + esperaMaxima;
+                while (System.nanoTime() - prazo < 0) {
+                    LockSupport.parkNanos(PAUSA_AGUARDANDO);
+                    if(fila.oferecer(registro)) {
+                        return;
+                    }
+                }
+                // sem espaço até o prazo: descarta
+            default:
+                descartadosFilaCheia.increment();
+        }
+    }
+
+    int getTamanhoFila() {
+        return fila.tamanho();
+    }
+
+    @Override
+    void processar(List<RegistroAuditoria> lote) {
+        gravar(lote);
+    }
+
+    @Override
+    void falhar(List<RegistroAuditoria> lote, Throwable erro) {
+        descartadosFalha.increment(lote.size());
+    }
+
+    private void gravar(List<RegistroAuditoria> registros) {
+        long inicio = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERIR, registros, registros.size(), this::preencher);
+            gravados.increment(registros.size());
+        }catch (RuntimeException e) {
+            // o escritor segue com os próximos lotes
+            descartadosFalha.increment(registros.size());
+            log.error("Falha ao gravar {} registro(s) de auditoria", registros.size(), e);
+        } finally {
+            gravacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void preencher(PreparedStatement ps, RegistroAuditoria registro) throws SQLException {
+        ps.setLong(1, registro.idLancamento);
+        ps.setObject(2, registro.idUsuario, Types.BIGINT);
+        ps.setString(3, registro.operacao.name());
+        ps.setString(4, registro.descricao);
+        ps.setObject(5, registro.mes, Types.INTEGER);
+        ps.setObject(6, registro.ano, Types.INTEGER);
+        ps.setBigDecimal(7, registro.valor == null ? null : registro.valor.paraBigDecimal());
+        ps.setString(8, registro.tipo);
+        ps.setString(9, registro.status);
+        ps.setTimestamp(10, Timestamp.valueOf(registro.dataHora));
+    }
+
+    /*
+     * Cópia dos campos do lançamento no momento do evento, já que a entidade continua com quem chamou o serviço.
+     * Nas alterações parciais só os campos alterados vêm preenchidos.
+     */
+    static final class RegistroAuditoria {
+
+        final LancamentoAlteradoEvent.Operacao operacao;
+        final long idLancamento;
+        final Long idUsuario;
+        final String descricao;
+        final Integer mes;
+        final Integer ano;
+        final Dinheiro valor;
+        final String tipo;
+        final String status;
+        final LocalDateTime dataHora;
+
+        RegistroAuditoria(LancamentoAlteradoEvent.Operacao operacao, Lancamento lancamento, LocalDateTime dataHora) {
+            this.operacao = operacao;
+            this.idLancamento = lancamento.getId();
+            this.idUsuario = lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+            this.descricao = lancamento.getDescricao();
+            this.mes = lancamento.getMes();
+            this.ano = lancamento.getAno();
+            this.valor = lancamento.getValor();
+            this.tipo = lancamento.getTipo() == null ? null : lancamento.getTipo().name();
+            this.status = lancamento.getStatus() == null ? null : lancamento.getStatus().name();
+            this.dataHora = dataHora;
+        }
+    }
+}
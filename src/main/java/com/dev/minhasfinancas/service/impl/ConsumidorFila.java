@@ -0,0 +1,108 @@
+package com.dev.minhasfinancas.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Uma única thread consumindo uma FilaCircular: drena lotes de até tamanhoLote e os entrega a processar(); com a
+ * fila vazia dorme até ser acordada ou até a espera passar. Um erro em processar(), inclusive Error, vai para
+ * falhar() com o lote e a thread segue para o próximo. No encerramento a thread faz uma última passada, e o que
+ * entrou depois dela é processado por quem encerra.
+ */
+@Slf4j
+abstract class ConsumidorFila<E> {
+
+    final FilaCircular<E> fila;
+    private final int tamanhoLote;
+    private final long espera;
+    private final long tempoEncerramento;
+
+    private final Thread consumidor;
+    private volatile boolean ativo = true;
+
+    /*
+     * espera em nanossegundos e tempoEncerramento em milissegundos.
+     */
+    ConsumidorFila(String nome, int capacidade, int tamanhoLote, long espera, long tempoEncerramento) {
+        this.fila = new FilaCircular<>(capacidade);
+        this.tamanhoLote = tamanhoLote;
+        this.espera = espera;
+        this.tempoEncerramento = tempoEncerramento;
+        this.consumidor = new Thread(this::consumir, nome);
+        consumidor.setDaemon(true);
+    }
+
+    public void iniciar() {
+        consumidor.start();
+    }
+
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        acordar();
+        consumidor.join(tempoEncerramento);
+        if(consumidor.isAlive()) {
+            log.warn("{} encerrado com {} item(ns) ainda na fila", consumidor.getName(), fila.tamanho());
+            return;
+        }
+        // com o consumidor parado, esta é a única leitura da fila
+        List<E> restantes = new ArrayList<>(tamanhoLote);
+        while (fila.drenar(restantes, tamanhoLote) > 0) {
+            processarLote(restantes, false);
+            restantes.clear();
+        }
+    }
+
+    boolean isAtivo() {
+        return ativo;
+    }
+
+    void acordar() {
+        LockSupport.unpark(consumidor);
+    }
+
+    /*
+     * Chamado pela thread consumidora com o lote recém-drenado, antes de processá-lo; não é chamado no encerramento.
+     */
+    void completarLote(List<E> lote) {
+    }
+
+    abstract void processar(List<E> lote);
+
+    /*
+     * O lote cujo processamento lançou o erro, possivelmente já processado em parte.
+     */
+    abstract void falhar(List<E> lote, Throwable erro);
+
+    private void consumir() {
+        List<E> lote = new ArrayList<>(tamanhoLote);
+        while (true) {
+            // lido antes de drenar: o que entrou antes do encerramento sai nesta última passada
+            boolean encerrando = !ativo;
+            fila.drenar(lote, tamanhoLote);
+            if(lote.isEmpty()) {
+                if(encerrando) {
+                    return;
+                }
+                LockSupport.parkNanos(this, espera);
+                continue;
+            }
+            processarLote(lote, !encerrando);
+            lote.clear();
+        }
+    }
+
+    private void processarLote(List<E> lote, boolean completar) {
+        try {
+            if(completar) {
+                completarLote(lote);
+            }
+            processar(lote);
+        }catch (Throwable e) {
+            log.error("{}: falha ao processar {} item(ns)", consumidor.getName(), lote.size(), e);
+            falhar(lote, e);
+        }
+    }
+}
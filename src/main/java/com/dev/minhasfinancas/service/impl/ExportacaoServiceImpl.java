@@ -0,0 +1,152 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.model.enums.FormatoExportacao;
+import com.dev.minhasfinancas.service.ExportacaoService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+@Service
+public class ExportacaoServiceImpl implements ExportacaoService {
+
+    private static final String SQL_LANCAMENTOS =
+            " select id, descricao, mes, ano, valor, tipo, status, data_cadastro "
+                    + " from financas.lancamento where id_usuario = ? order by id ";
+
+    private static final String CABECALHO_CSV = "id,descricao,mes,ano,valor,tipo,status,data_cadastro\n";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private int fetchSize;
+
+    public ExportacaoServiceImpl(JdbcTemplate jdbcTemplate,
+                                 @Value("${minhasfinancas.exportacao.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarLancamentos(Long idUsuario, FormatoExportacao formato, OutputStream saida) {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            JsonGenerator generator = formato == FormatoExportacao.CSV ? null : jsonFactory.createGenerator(writer);
+            RowCallbackHandler handler = generator == null
+                    ? csv(writer)
+                    : ndjson(generator);
+
+            // cursor somente-leitura e para frente: com o fetch size o driver traz as linhas em blocos
+            // (no Postgres isso exige a transação aberta, sem autocommit)
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_LANCAMENTOS,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setLong(1, idUsuario);
+                return ps;
+            }, handler);
+
+            // o que ainda está no buffer do gerador passa para o writer, e só então tudo segue para a resposta
+            if(generator != null) {
+                generator.flush();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Sem flush por linha: como no CSV, os buffers do gerador e do writer só descem para a resposta quando enchem,
+     * e um cliente desconectado aparece na primeira escrita que chega ao socket.
+     */
+    private RowCallbackHandler ndjson(JsonGenerator generator) {
+        // sem isso o gerador põe um espaço antes de cada objeto a partir do segundo; o separador é só a quebra de linha
+        generator.setRootValueSeparator(null);
+        return rs -> {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", rs.getLong("id"));
+                generator.writeStringField("descricao", rs.getString("descricao"));
+                generator.writeNumberField("mes", rs.getInt("mes"));
+                generator.writeNumberField("ano", rs.getInt("ano"));
+                generator.writeFieldName("valor");
+                generator.writeNumber(rs.getBigDecimal("valor"));
+                generator.writeStringField("tipo", rs.getString("tipo"));
+                generator.writeStringField("status", rs.getString("status"));
+                Date dataCadastro = rs.getDate("data_cadastro");
+                generator.writeStringField("dataCadastro", dataCadastro == null ? null : dataCadastro.toLocalDate().toString());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                // o cliente desconectou: interrompe a leitura do cursor
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private RowCallbackHandler csv(Writer writer) throws IOException {
+        writer.write(CABECALHO_CSV);
+        return rs -> {
+            try {
+                writer.write(Long.toString(rs.getLong("id")));
+                writer.write(',');
+                writer.write(escaparCsv(rs.getString("descricao")));
+                writer.write(',');
+                writer.write(Integer.toString(rs.getInt("mes")));
+                writer.write(',');
+                writer.write(Integer.toString(rs.getInt("ano")));
+                writer.write(',');
+                writer.write(texto(rs.getBigDecimal("valor")));
+                writer.write(',');
+                writer.write(texto(rs.getString("tipo")));
+                writer.write(',');
+                writer.write(texto(rs.getString("status")));
+                writer.write(',');
+                writer.write(texto(rs.getDate("data_cadastro")));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static String texto(String valor) {
+        return valor == null ? "" : valor;
+    }
+
+    private static String texto(BigDecimal valor) {
+        return valor == null ? "" : valor.toPlainString();
+    }
+
+    private static String texto(Date valor) {
+        return valor == null ? "" : valor.toLocalDate().toString();
+    }
+
+    static String escaparCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
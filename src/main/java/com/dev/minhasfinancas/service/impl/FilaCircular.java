@@ -0,0 +1,82 @@
+package com.dev.minhasfinancas.service.impl;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Fila circular limitada, sem trava, para vários produtores e um único consumidor. Cada produtor reserva
+ * uma posição avançando a cauda por compare-and-set e publica o elemento no espaço reservado; o consumidor
+ * lê em ordem até o primeiro espaço ainda não publicado e só então libera as posições lidas.
+ */
+class FilaCircular<E> {
+
+    private final AtomicReferenceArray<E> espacos;
+    private final int capacidade;
+    private final int mascara;
+
+    // próxima posição a reservar pelos produtores
+    private final AtomicLong cauda = new AtomicLong();
+
+    // próxima posição a ler; só o consumidor escreve
+    private final AtomicLong cabeca = new AtomicLong();
+
+    FilaCircular(int capacidadeMinima) {
+        if(capacidadeMinima < 1 || capacidadeMinima > 1 << 30) {
+            throw new IllegalArgumentException("Capacidade inválida: " + capacidadeMinima);
+        }
+        // potência de dois, para que o índice seja um "e" binário em vez de resto de divisão
+        int potencia = 1;
+        while (potencia < capacidadeMinima) {
+            potencia <<= 1;
+        }
+        this.capacidade = potencia;
+        this.mascara = capacidade - 1;
+        this.espacos = new AtomicReferenceArray<>(capacidade);
+    }
+
+    /*
+     * Retorna false, sem esperar, quando a fila está cheia.
+     */
+    boolean oferecer(E elemento) {
+        long posicao;
+        do {
+            posicao = cauda.get();
+            if(posicao - cabeca.get() >= capacidade) {
+                return false;
+            }
+        } while (!cauda.compareAndSet(posicao, posicao + 1));
+        espacos.lazySet((int) posicao & mascara, elemento);
+        return true;
+    }
+
+    /*
+     * Move para o destino até maximo elementos, na ordem de reserva. Só pode ser chamado por uma thread de cada vez.
+     */
+    int drenar(Collection<? super E> destino, int maximo) {
+        long posicao = cabeca.get();
+        int lidos = 0;
+        while (lidos < maximo) {
+            int indice = (int) posicao & mascara;
+            E elemento = espacos.get(indice);
+            if(elemento == null) {
+                // fila vazia, ou o produtor desta posição ainda não publicou
+                break;
+            }
+            espacos.lazySet(indice, null);
+            destino.add(elemento);
+            posicao++;
+            lidos++;
+        }
+        cabeca.lazySet(posicao);
+        return lidos;
+    }
+
+    int tamanho() {
+        return (int) Math.max(0, Math.min(capacidade, cauda.get() - cabeca.get()));
+    }
+
+    int getCapacidade() {
+        return capacidade;
+    }
+}
@@ -0,0 +1,189 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.service.GravacaoAgrupada;
+import com.dev.minhasfinancas.service.LancamentoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/*
+ * Cada pedido é validado na própria requisição e entra numa fila circular; uma única thread abre a janela no
+ * primeiro pedido, junta os que chegarem até ela fechar (ou até o grupo encher) e grava o grupo com salvarLote,
+ * completando o CompletableFuture de cada requisição com o seu lançamento. Se o grupo falhar, cada pedido é
+ * gravado sozinho, para que o problema de um não recuse os demais.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.lancamento.agrupamento.habilitado", havingValue = "true")
+public class GravacaoAgrupadaLancamentos extends ConsumidorFila<GravacaoAgrupadaLancamentos.Pedido> implements GravacaoAgrupada {
+
+    static final String METRICA_GRUPOS = "minhasfinancas.lancamento.agrupamento.grupos";
+    static final String METRICA_PEDIDOS = "minhasfinancas.lancamento.agrupamento.pedidos";
+    static final String METRICA_INDIVIDUAIS = "minhasfinancas.lancamento.agrupamento.individuais";
+    static final String METRICA_GRAVACAO = "minhasfinancas.lancamento.agrupamento.gravacao";
+
+    // sem pedidos, o agrupador só acorda quando um produtor o chama
+    private static final long ESPERA_OCIOSA = TimeUnit.SECONDS.toNanos(1);
+
+    private final LancamentoService service;
+    private final int tamanhoMaximo;
+    private final long janela;
+
+    private final Counter grupos;
+    private final Counter pedidos;
+    private final Counter individuais;
+    private final Timer gravacao;
+
+    public GravacaoAgrupadaLancamentos(LancamentoService service, MeterRegistry registry,
+                                       @Value("${minhasfinancas.lancamento.agrupamento.janela:2ms}") Duration janela,
+                                       @Value("${minhasfinancas.lancamento.agrupamento.tamanho-maximo:100}") int tamanhoMaximo,
+                                       @Value("${minhasfinancas.lancamento.agrupamento.capacidade:4096}") int capacidade,
+                                       @Value("${minhasfinancas.lancamento.agrupamento.tempo-encerramento:10s}") Duration tempoEncerramento) {
+        super("agrupamento-lancamentos", capacidade, tamanhoMaximo, ESPERA_OCIOSA, tempoEncerramento.toMillis());
+        this.service = service;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.janela = janela.toNanos();
+
+        this.grupos = registry.counter(METRICA_GRUPOS);
+        this.pedidos = registry.counter(METRICA_PEDIDOS);
+        this.individuais = registry.counter(METRICA_INDIVIDUAIS);
+        this.gravacao = Timer.builder(METRICA_GRAVACAO).register(registry);
+        registry.gauge("minhasfinancas.lancamento.agrupamento.fila", fila, FilaCircular::tamanho);
+    }
+
+    @Override
+    @PostConstruct
+    public void iniciar() {
+        super.iniciar();
+    }
+
+    @Override
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        super.encerrar();
+    }
+
+    @Override
+    public Lancamento salvar(Lancamento lancamento) {
+        // o erro de validação volta só para quem enviou o lançamento, antes de ele entrar num grupo
+        service.validar(lancamento);
+
+        Pedido pedido = new Pedido(lancamento);
+        if(!isAtivo() || !fila.oferecer(pedido)) {
+            // encerrando ou com a fila cheia, a requisição grava sozinha
+            return service.salvar(lancamento);
+        }
+        acordar();
+        return aguardar(pedido.resultado);
+    }
+
+    private Lancamento aguardar(CompletableFuture<Lancamento> resultado) {
+        boolean interrompida = false;
+        try {
+            while (true) {
+                try {
+                    // sem prazo: o agrupador sempre completa o pedido, e desistir antes não desfaria a gravação
+                    return resultado.get();
+                }catch (InterruptedException e) {
+                    interrompida = true;
+                }
+            }
+        }catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if(interrompida) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /*
+     * A janela conta a partir do primeiro pedido do grupo.
+     */
+    @Override
+    void completarLote(List<Pedido> grupo) {
+        long prazo = System.nanoTime() + janela;
+        while (grupo.size() < tamanhoMaximo) {
+            long restante = prazo - System.nanoTime();
+            if(restante <= 0) {
+                break;
+            }
+            LockSupport.parkNanos(this, restante);
+            fila.drenar(grupo, tamanhoMaximo - grupo.size());
+        }
+    }
+
+    @Override
+    void processar(List<Pedido> grupo) {
+        gravar(grupo);
+    }
+
+    /*
+     * Nenhuma requisição fica esperando por um pedido que o grupo não chegou a completar.
+     */
+    @Override
+    void falhar(List<Pedido> grupo, Throwable erro) {
+        for (Pedido pedido : grupo) {
+            pedido.resultado.completeExceptionally(erro);
+        }
+    }
+
+    private void gravar(List<Pedido> grupo) {
+        long inicio = System.nanoTime();
+        try {
+            List<Lancamento> salvos = service.salvarLote(grupo.stream().map( p -> p.lancamento ).collect(Collectors.toList()));
+            for (int i = 0; i < grupo.size(); i++) {
+                grupo.get(i).resultado.complete(salvos.get(i));
+            }
+        }catch (RuntimeException e) {
+            log.warn("Grupo de {} lançamento(s) recusado, gravando cada um separadamente: {}", grupo.size(), e.getMessage());
+            individuais.increment(grupo.size());
+            for (Pedido pedido : grupo) {
+                gravarSozinho(pedido);
+            }
+        } finally {
+            gravacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            grupos.increment();
+            pedidos.increment(grupo.size());
+        }
+    }
+
+    private void gravarSozinho(Pedido pedido) {
+        try {
+            // o persist do grupo desfeito já tinha atribuído id e versão à entidade
+            pedido.lancamento.setId(null);
+            pedido.lancamento.setVersao(0);
+            pedido.resultado.complete(service.salvar(pedido.lancamento));
+        }catch (RuntimeException e) {
+            pedido.resultado.completeExceptionally(e);
+        }
+    }
+
+    static final class Pedido {
+
+        final Lancamento lancamento;
+        final CompletableFuture<Lancamento> resultado = new CompletableFuture<>();
+
+        Pedido(Lancamento lancamento) {
+            this.lancamento = lancamento;
+        }
+    }
+}
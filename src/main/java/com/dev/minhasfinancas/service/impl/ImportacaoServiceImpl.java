@@ -0,0 +1,335 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.config.ImportacaoProperties;
+import com.dev.minhasfinancas.exceptions.RegraNegocioException;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.FormatoExtrato;
+import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.ImportacaoService;
+import com.dev.minhasfinancas.service.LancamentoService;
+import com.dev.minhasfinancas.service.ProgressoImportacao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/*
+ * A requisição lê e valida o extrato e entrega chunks de lançamentos numa fila limitada; um gravador do pool grava
+ * cada chunk com salvarLote. Com a fila cheia a leitura espera, e com ela a leitura do corpo da requisição, de
+ * modo que a memória ocupada fica em torno de (capacidadeFila + 2) chunks, qualquer que seja o tamanho do arquivo.
+ * A espera é limitada: se o gravador morre ou passa de esperaGravacao sem liberar vaga, a importação termina.
+ * Cada chunk tem a sua transação: numa falha de gravação, o que já foi gravado permanece e a importação termina
+ * como FALHOU, com os contadores indicando até onde ela foi.
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(ImportacaoProperties.class)
+public class ImportacaoServiceImpl implements ImportacaoService {
+
+    static final String METRICA_REGISTROS = "minhasfinancas.importacao.registros";
+
+    private static final int TAMANHO_DESCRICAO = 100;
+
+    // marca de fim de leitura para o gravador
+    private static final List<Lancamento> FIM = Collections.emptyList();
+
+    // de quanto em quanto tempo a leitura parada na fila cheia confere se o gravador ainda está vivo
+    private static final long VERIFICACAO_GRAVADOR = TimeUnit.SECONDS.toNanos(1);
+
+    private final LancamentoService lancamentoService;
+    private final ImportacaoProperties properties;
+    private final Counter gravados;
+    private final Counter rejeitados;
+    private final ThreadPoolExecutor gravadores;
+
+    private final Map<String, ProgressoImportacao> importacoes = new ConcurrentHashMap<>();
+
+    public ImportacaoServiceImpl(LancamentoService lancamentoService, ImportacaoProperties properties, MeterRegistry registry) {
+        this.lancamentoService = lancamentoService;
+        this.properties = properties;
+        this.gravados = registry.counter(METRICA_REGISTROS, "resultado", "gravado");
+        this.rejeitados = registry.counter(METRICA_REGISTROS, "resultado", "rejeitado");
+
+        // sem fila de espera: com maximoGravadores ocupados a submissão é recusada
+        AtomicInteger numero = new AtomicInteger();
+        this.gravadores = new ThreadPoolExecutor(properties.getMaximoGravadores(), properties.getMaximoGravadores(),
+                1, TimeUnit.MINUTES, new SynchronousQueue<>(), tarefa -> {
+                    Thread thread = new Thread(tarefa, "importacao-gravador-" + numero.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        gravadores.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void encerrarGravadores() {
+        gravadores.shutdown();
+    }
+
+    @Override
+    public ProgressoImportacao importar(Usuario usuario, FormatoExtrato formato, InputStream entrada, Charset charset, long bytesTotais) {
+        removerExpiradas();
+        ProgressoImportacao progresso = new ProgressoImportacao(UUID.randomUUID().toString(), usuario.getId(), formato,
+                bytesTotais, properties.getMaximoErros());
+
+        Reader reader = new InputStreamReader(new EntradaContada(entrada, progresso), charset);
+        LeitorExtrato leitor;
+        try {
+            leitor = formato == FormatoExtrato.OFX
+                    ? new LeitorExtratoOfx(reader, properties.getTamanhoMaximoRegistro())
+                    : new LeitorExtratoCsv(reader, properties.getTamanhoMaximoRegistro());
+        }catch (IOException e) {
+            throw new RegraNegocioException("Não foi possível ler o arquivo: " + e.getMessage());
+        }
+
+        BlockingQueue<List<Lancamento>> fila = new ArrayBlockingQueue<>(properties.getCapacidadeFila());
+        Future<?> gravador;
+        try {
+            gravador = gravadores.submit(() -> gravar(fila, progresso));
+        }catch (RejectedExecutionException e) {
+            fechar(leitor);
+            throw new RegraNegocioException("Limite de importações simultâneas atingido, tente novamente em instantes.");
+        }
+        importacoes.put(progresso.getId(), progresso);
+
+        try (LeitorExtrato leitorAberto = leitor) {
+            ler(leitorAberto, usuario, fila, gravador, progresso);
+        }catch (IOException e) {
+            // em geral o cliente interrompeu o envio
+            progresso.falhar("Falha na leitura do arquivo: " + e.getMessage());
+        }catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progresso.falhar("Importação interrompida.");
+        } finally {
+            encerrar(fila, gravador, progresso);
+        }
+
+        progresso.terminar();
+        log.info("Importação {} do usuário {} terminada como {}: {} gravado(s), {} rejeitado(s)", progresso.getId(),
+                usuario.getId(), progresso.getEstado(), progresso.getGravados(), progresso.getRejeitados());
+        return progresso;
+    }
+
+    @Override
+    public Optional<ProgressoImportacao> obterProgresso(String id) {
+        removerExpiradas();
+        return Optional.ofNullable(importacoes.get(id));
+    }
+
+    @Override
+    public List<ProgressoImportacao> listarPorUsuario(Long idUsuario) {
+        removerExpiradas();
+        return importacoes.values().stream()
+                .filter( progresso -> progresso.getIdUsuario().equals(idUsuario) )
+                .sorted( (a, b) -> a.getInicio().compareTo(b.getInicio()) )
+                .collect(Collectors.toList());
+    }
+
+    private void ler(LeitorExtrato leitor, Usuario usuario, BlockingQueue<List<Lancamento>> fila, Future<?> gravador,
+                     ProgressoImportacao progresso) throws IOException, InterruptedException {
+        List<Lancamento> chunk = new ArrayList<>(properties.getTamanhoChunk());
+        LeitorExtrato.Registro registro;
+        // com o gravador em falha não adianta continuar lendo
+        while (!progresso.isFalhou() && (registro = leitor.proximo()) != null) {
+            progresso.registroLido();
+            Lancamento lancamento = converter(registro, usuario, progresso);
+            if(lancamento == null) {
+                continue;
+            }
+            chunk.add(lancamento);
+            if(chunk.size() == properties.getTamanhoChunk()) {
+                // espera enquanto a fila estiver cheia: é aqui que a gravação segura a leitura
+                if(!entregar(fila, chunk, gravador, progresso)) {
+                    return;
+                }
+                chunk = new ArrayList<>(properties.getTamanhoChunk());
+            }
+        }
+        if(!chunk.isEmpty()) {
+            entregar(fila, chunk, gravador, progresso);
+        }
+    }
+
+    /*
+     * Põe o chunk na fila esperando vaga enquanto o gravador estiver vivo, por até esperaGravacao. False quando
+     * não há mais quem grave, com a falha já registrada no progresso.
+     */
+    private boolean entregar(BlockingQueue<List<Lancamento>> fila, List<Lancamento> chunk, Future<?> gravador,
+                             ProgressoImportacao progresso) throws InterruptedException {
+        long prazo = System.nanoTime() + properties.getEsperaGravacao().toNanos();
+        while (!fila.offer(chunk, VERIFICACAO_GRAVADOR, TimeUnit.NANOSECONDS)) {
+            if(gravador.isDone()) {
+                progresso.falhar("A gravação dos lançamentos foi interrompida.");
+                return false;
+            }
+            if(System.nanoTime() - prazo > 0) {
+                progresso.falhar("A gravação dos lançamentos não respondeu em " + properties.getEsperaGravacao().getSeconds() + "s.");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Lancamento converter(LeitorExtrato.Registro registro, Usuario usuario, ProgressoImportacao progresso) {
+        if(registro.erro != null) {
+            rejeitar(progresso, registro.linha, registro.erro);
+            return null;
+        }
+
+        Lancamento lancamento = new Lancamento();
+        lancamento.setUsuario(usuario);
+        lancamento.setDescricao(registro.descricao == null || registro.descricao.length() <= TAMANHO_DESCRICAO
+                ? registro.descricao
+                : registro.descricao.substring(0, TAMANHO_DESCRICAO));
+        lancamento.setMes(registro.data.getMonthValue());
+        lancamento.setAno(registro.data.getYear());
+        // o sinal do valor no extrato define o tipo: créditos são receitas e débitos, despesas
+        int sinal = registro.valor.signum();
+        lancamento.setTipo(sinal > 0 ? TipoLancamento.RECEITA : sinal < 0 ? TipoLancamento.DESPESA : null);
+        try {
+            lancamento.setValor(Dinheiro.de(registro.valor.abs()));
+            lancamentoService.validar(lancamento);
+        }catch (ArithmeticException e) {
+            rejeitar(progresso, registro.linha, "Informe um Valor válido.");
+            return null;
+        }catch (RegraNegocioException e) {
+            rejeitar(progresso, registro.linha, e.getMessage());
+            return null;
+        }
+        return lancamento;
+    }
+
+    private void rejeitar(ProgressoImportacao progresso, int linha, String motivo) {
+        progresso.rejeitar(linha, motivo);
+        rejeitados.increment();
+    }
+
+    private void gravar(BlockingQueue<List<Lancamento>> fila, ProgressoImportacao progresso) {
+        try {
+            List<Lancamento> chunk;
+            while ((chunk = fila.take()) != FIM) {
+                if(progresso.isFalhou()) {
+                    // só esvazia a fila, para não deixar a leitura bloqueada
+                    continue;
+                }
+                try {
+                    lancamentoService.salvarLote(chunk);
+                    progresso.adicionarGravados(chunk.size());
+                    gravados.increment(chunk.size());
+                }catch (RuntimeException e) {
+                    log.error("Falha ao gravar chunk da importação {}", progresso.getId(), e);
+                    progresso.falhar("Falha ao gravar os lançamentos: " + e.getMessage());
+                }
+            }
+        }catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progresso.falhar("Importação interrompida.");
+        }catch (Error e) {
+            // registrado antes de o gravador terminar, para a leitura encontrar o motivo ao vê-lo parado
+            progresso.falhar("Falha ao gravar os lançamentos: " + e);
+            throw e;
+        }
+    }
+
+    private void encerrar(BlockingQueue<List<Lancamento>> fila, Future<?> gravador, ProgressoImportacao progresso) {
+        // sem interrupção pendente na requisição: offer e get precisam poder esperar
+        boolean interrompida = Thread.interrupted();
+        try {
+            if(!entregar(fila, FIM, gravador, progresso)) {
+                // travado: a interrupção libera a thread para o pool
+                gravador.cancel(true);
+            }
+            gravador.get(properties.getEsperaGravacao().toNanos(), TimeUnit.NANOSECONDS);
+        }catch (InterruptedException e) {
+            interrompida = true;
+            progresso.falhar("Importação interrompida.");
+        }catch (ExecutionException e) {
+            // Error que derrubou o gravador, já registrado no progresso
+            log.error("Gravador da importação {} terminou com erro", progresso.getId(), e.getCause());
+        }catch (TimeoutException e) {
+            progresso.falhar("A gravação dos lançamentos não terminou em " + properties.getEsperaGravacao().getSeconds() + "s.");
+        }catch (CancellationException e) {
+            // a falha já foi registrada por entregar
+        } finally {
+            gravador.cancel(true);
+            if(interrompida) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void fechar(LeitorExtrato leitor) {
+        try {
+            leitor.close();
+        }catch (IOException e) {
+            log.debug("Falha ao fechar o extrato recusado", e);
+        }
+    }
+
+    private void removerExpiradas() {
+        LocalDateTime limite = LocalDateTime.now().minus(properties.getRetencao());
+        importacoes.values().removeIf( progresso -> progresso.getFim() != null && progresso.getFim().isBefore(limite) );
+    }
+
+    /*
+     * Conta os bytes lidos do corpo da requisição, para o progresso.
+     */
+    private static final class EntradaContada extends FilterInputStream {
+
+        private final ProgressoImportacao progresso;
+
+        EntradaContada(InputStream entrada, ProgressoImportacao progresso) {
+            super(entrada);
+            this.progresso = progresso;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if(b >= 0) {
+                progresso.adicionarBytesLidos(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int lidos = super.read(b, off, len);
+            if(lidos > 0) {
+                progresso.adicionarBytesLidos(lidos);
+            }
+            return lidos;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.DescricaoLancamento;
+import com.dev.minhasfinancas.service.IndiceDescricao;
+import com.dev.minhasfinancas.service.event.LancamentoAlteradoEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * Índice invertido de trigramas por usuário, carregado na primeira busca e mantido pelos eventos
+ * de alteração de lançamentos. Cumpre o papel do pg_trgm quando o banco é o H2.
+ */
+@Component
+@Profile("!prod")
+public class IndiceDescricaoMemoria implements IndiceDescricao {
+
+    private final Map<Long, IndiceUsuario> indices = new ConcurrentHashMap<>();
+    private final Map<Long, Long> usuarioPorLancamento = new ConcurrentHashMap<>();
+
+    private LancamentoRepository repository;
+
+    public IndiceDescricaoMemoria(LancamentoRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Lancamento> buscar(Long idUsuario, String termo, int limite) {
+        List<Long> ids = indice(idUsuario).buscar(termo, limite);
+        Map<Long, Lancamento> lancamentos = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Lancamento::getId, Function.identity()));
+        return ids.stream()
+                .map(lancamentos::get)
+                .filter(l -> l != null)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> autocompletar(Long idUsuario, String prefixo, int limite) {
+        return indice(idUsuario).autocompletar(prefixo, limite);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarLancamento(LancamentoAlteradoEvent evento) {
+        Lancamento lancamento = evento.getLancamento();
+        if(evento.getOperacao() == LancamentoAlteradoEvent.Operacao.ALTERADO_PARCIALMENTE && lancamento.getDescricao() == null) {
+            return;
+        }
+
+        Long idUsuarioAnterior = usuarioPorLancamento.get(lancamento.getId());
+        if(idUsuarioAnterior != null && indices.containsKey(idUsuarioAnterior)) {
+            indices.get(idUsuarioAnterior).remover(lancamento.getId());
+            usuarioPorLancamento.remove(lancamento.getId());
+        }
+
+        if(evento.getOperacao() != LancamentoAlteradoEvent.Operacao.REMOVIDO) {
+            IndiceUsuario indice = indices.get(lancamento.getUsuario().getId());
+            if(indice != null) {
+                indice.adicionar(lancamento.getId(), lancamento.getDescricao());
+                usuarioPorLancamento.put(lancamento.getId(), lancamento.getUsuario().getId());
+            }
+        }
+    }
+
+    private IndiceUsuario indice(Long idUsuario) {
+        return indices.computeIfAbsent(idUsuario, id -> {
+            IndiceUsuario indice = new IndiceUsuario();
+            for (DescricaoLancamento d : repository.obterDescricoesDoUsuario(id)) {
+                indice.adicionar(d.getId(), d.getDescricao());
+                usuarioPorLancamento.put(d.getId(), id);
+            }
+            return indice;
+        });
+    }
+
+    static Set<String> trigramas(String texto) {
+        Set<String> trigramas = new HashSet<>();
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            trigramas.add(texto.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+
+    static class IndiceUsuario {
+
+        private final Map<Long, String> descricoes = new HashMap<>();
+        private final Map<Long, String> grafiasOriginais = new HashMap<>();
+        private final Map<String, Set<Long>> lancamentosPorTrigrama = new HashMap<>();
+        private final TreeMap<String, Map<String, Integer>> descricoesPorTextoMinusculo = new TreeMap<>();
+
+        synchronized void adicionar(Long id, String descricao) {
+            if(descricao == null) {
+                return;
+            }
+            String minusculo = descricao.toLowerCase();
+            descricoes.put(id, minusculo);
+            grafiasOriginais.put(id, descricao);
+            for (String trigrama : trigramas(minusculo)) {
+                lancamentosPorTrigrama.computeIfAbsent(trigrama, t -> new HashSet<>()).add(id);
+            }
+            descricoesPorTextoMinusculo.computeIfAbsent(minusculo, d -> new HashMap<>()).merge(descricao, 1, Integer::sum);
+        }
+
+        synchronized void remover(Long id) {
+            String minusculo = descricoes.remove(id);
+            if(minusculo == null) {
+                return;
+            }
+            for (String trigrama : trigramas(minusculo)) {
+                Set<Long> ids = lancamentosPorTrigrama.get(trigrama);
+                ids.remove(id);
+                if(ids.isEmpty()) {
+                    lancamentosPorTrigrama.remove(trigrama);
+                }
+            }
+            Map<String, Integer> grafias = descricoesPorTextoMinusculo.get(minusculo);
+            String grafia = grafiasOriginais.remove(id);
+            if(grafias.merge(grafia, -1, Integer::sum) == 0) {
+                grafias.remove(grafia);
+            }
+            if(grafias.isEmpty()) {
+                descricoesPorTextoMinusculo.remove(minusculo);
+            }
+        }
+
+        synchronized List<Long> buscar(String termo, int limite) {
+            List<Long> candidatos;
+            if(termo.length() < 3) {
+                candidatos = new ArrayList<>(descricoes.keySet());
+            } else {
+                // interseção das listas de cada trigrama, começando pela menor
+                List<Set<Long>> listas = new ArrayList<>();
+                for (String trigrama : trigramas(termo)) {
+                    Set<Long> ids = lancamentosPorTrigrama.get(trigrama);
+                    if(ids == null) {
+                        return Collections.emptyList();
+                    }
+                    listas.add(ids);
+                }
+                listas.sort(Comparator.comparingInt(Set::size));
+                candidatos = new ArrayList<>(listas.get(0));
+                for (int i = 1; i < listas.size() && !candidatos.isEmpty(); i++) {
+                    candidatos.retainAll(listas.get(i));
+                }
+            }
+
+            return candidatos.stream()
+                    .filter(id -> descricoes.get(id).contains(termo))
+                    .sorted(Comparator.reverseOrder())
+                    .limit(limite)
+                    .collect(Collectors.toList());
+        }
+
+        synchronized List<String> autocompletar(String prefixo, int limite) {
+            Map<String, Integer> frequencias = new HashMap<>();
+            for (Map<String, Integer> grafias : descricoesPorTextoMinusculo.subMap(prefixo, prefixo + Character.MAX_VALUE).values()) {
+                String grafia = Collections.max(grafias.entrySet(), Map.Entry.comparingByValue()).getKey();
+                frequencias.put(grafia, grafias.values().stream().mapToInt(Integer::intValue).sum());
+            }
+
+            return frequencias.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limite)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.service.IndiceDescricao;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Component
+@Profile("prod")
+public class IndiceDescricaoPostgres implements IndiceDescricao {
+
+    private LancamentoRepository repository;
+
+    public IndiceDescricaoPostgres(LancamentoRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Lancamento> buscar(Long idUsuario, String termo, int limite) {
+        return repository.buscarPorTrechoDaDescricaoComTrigramas(idUsuario, "%" + escaparLike(termo) + "%", termo, limite);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> autocompletar(Long idUsuario, String prefixo, int limite) {
+        return repository.buscarDescricoesPorPrefixo(idUsuario, escaparLike(prefixo) + "%", limite);
+    }
+
+    static String escaparLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
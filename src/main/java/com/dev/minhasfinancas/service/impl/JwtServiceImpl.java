@@ -0,0 +1,81 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Date;
+
+@Service
+public class JwtServiceImpl implements JwtService {
+
+    public static final String CLAIM_NOME = "nome";
+    public static final String CLAIM_EMAIL = "email";
+
+    // o HS512 pede uma chave de ao menos 512 bits
+    static final int TAMANHO_MINIMO_CHAVE = 64;
+
+    private final long expiracaoEmMillis;
+    private final SecretKeySpec chave;
+    private final JwtParser parser;
+    private final Clock clock;
+
+    @Autowired
+    public JwtServiceImpl(@Value("${jwt.expiracao}") long expiracaoEmMinutos,
+                          @Value("${jwt.chave-assinatura}") String chaveAssinatura) {
+        this(expiracaoEmMinutos, chaveAssinatura, Clock.systemUTC());
+    }
+
+    public JwtServiceImpl(long expiracaoEmMinutos, String chaveAssinatura, Clock clock) {
+        this.expiracaoEmMillis = expiracaoEmMinutos * 60_000;
+        byte[] bytesChave = chaveAssinatura == null ? new byte[0] : Base64.getDecoder().decode(chaveAssinatura.trim());
+        if(bytesChave.length < TAMANHO_MINIMO_CHAVE) {
+            throw new IllegalStateException("Informe em jwt.chave-assinatura (JWT_CHAVE_ASSINATURA) uma chave em Base64 com ao menos "
+                    + TAMANHO_MINIMO_CHAVE + " bytes.");
+        }
+        this.chave = new SecretKeySpec(bytesChave, SignatureAlgorithm.HS512.getJcaName());
+        this.clock = clock;
+        // chave e parser montados uma única vez: validar um token não decodifica a chave nem reconfigura o parser
+        this.parser = Jwts.parser()
+                .setSigningKey(chave)
+                .setClock(() -> new Date(clock.millis()));
+    }
+
+    @Override
+    public String gerarToken(Usuario usuario) {
+        long agora = clock.millis();
+        return Jwts.builder()
+                .setSubject(usuario.getId().toString())
+                .claim(CLAIM_NOME, usuario.getNome())
+                .claim(CLAIM_EMAIL, usuario.getEmail())
+                .setIssuedAt(new Date(agora))
+                .setExpiration(new Date(agora + expiracaoEmMillis))
+                .signWith(SignatureAlgorithm.HS512, chave)
+                .compact();
+    }
+
+    @Override
+    public Claims obterClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    @Override
+    public boolean isTokenValido(String token) {
+        try {
+            obterClaims(token);
+            return true;
+        }catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,28 +1,69 @@
 package com.dev.minhasfinancas.service.impl;
 
+import com.dev.minhasfinancas.exceptions.ConflitoAtualizacaoException;
 import com.dev.minhasfinancas.exceptions.RegraNegocioException;
 import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.PeriodoResumo;
+import com.dev.minhasfinancas.model.enums.ResultadoAtualizacaoStatus;
 import com.dev.minhasfinancas.model.enums.StatusLancamento;
 import com.dev.minhasfinancas.model.enums.TipoLancamento;
 import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.ContribuicaoSaldo;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoProjecao;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoProjecaoVersionada;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.ResumoLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.SituacaoLancamento;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.IndiceDescricao;
 import com.dev.minhasfinancas.service.LancamentoService;
+import com.dev.minhasfinancas.service.ResumoLancamentos;
+import com.dev.minhasfinancas.service.SaldoUsuarioService;
+import com.dev.minhasfinancas.service.event.LancamentoAlteradoEvent;
+import com.dev.minhasfinancas.service.event.LancamentoAlteradoEvent.Operacao;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class LancamentoServiceImpl  implements LancamentoService {
 
+    static final int LIMITE_PADRAO_PAGINA = 50;
+    static final int LIMITE_MAXIMO_PAGINA = 500;
+    static final int LIMITE_PADRAO_BUSCA = 20;
+    static final int LIMITE_MAXIMO_BUSCA = 100;
+    static final int LIMITE_MAXIMO_STATUS_LOTE = 1000;
+
     private LancamentoRepository repository;
+    private SaldoUsuarioService saldoUsuarioService;
+    private IndiceDescricao indiceDescricao;
+    private ApplicationEventPublisher eventPublisher;
+    private ResumoLancamentos resumoLancamentos;
+
+    @Value("${minhasfinancas.lancamento.lote.tamanho-maximo:10000}")
+    private int tamanhoMaximoLote;
 
-    public LancamentoServiceImpl(LancamentoRepository repository) {
+    public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioService saldoUsuarioService,
+                                 IndiceDescricao indiceDescricao, ApplicationEventPublisher eventPublisher,
+                                 ResumoLancamentos resumoLancamentos) {
         this.repository = repository;
+        this.saldoUsuarioService = saldoUsuarioService;
+        this.indiceDescricao = indiceDescricao;
+        this.eventPublisher = eventPublisher;
+        this.resumoLancamentos = resumoLancamentos;
     }
 
     @Override
@@ -30,50 +71,195 @@ public class LancamentoServiceImpl  implements LancamentoService {
     public Lancamento salvar(Lancamento lancamento) {
         validar(lancamento);
         lancamento.setStatus(StatusLancamento.PENDENTE);
-        return repository.save(lancamento);
+        Lancamento salvo = repository.save(lancamento);
+        saldoUsuarioService.ajustar(lancamento.getUsuario().getId(), contribuicaoNoSaldo(lancamento));
+        eventPublisher.publishEvent(new LancamentoAlteradoEvent(Operacao.CRIADO, salvo));
+        return salvo;
     }
 
     @Override
-    public void validar(Lancamento lancamento) {
-
-        if(lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")) {
-            throw new RegraNegocioException("Informe uma Descrição válida.");
+    @Transactional
+    public List<Lancamento> salvarLote(List<Lancamento> lancamentos) {
+        if(lancamentos == null || lancamentos.isEmpty()) {
+            throw new RegraNegocioException("Informe ao menos um Lançamento.");
         }
 
-        if(lancamento.getMes() == null || lancamento.getMes() < 1 || lancamento.getMes() > 12) {
-            throw new RegraNegocioException("Informe um Mês válido.");
+        if(lancamentos.size() > tamanhoMaximoLote) {
+            throw new RegraNegocioException("Informe no máximo " + tamanhoMaximoLote + " lançamentos por lote.");
         }
 
-        if(lancamento.getAno() == null || lancamento.getAno().toString().length() != 4 ) {
-            throw new RegraNegocioException("Informe um Ano válido.");
+        for (int i = 0; i < lancamentos.size(); i++) {
+            try {
+                validar(lancamentos.get(i));
+            }catch (RegraNegocioException e) {
+                throw new RegraNegocioException("Lançamento " + (i + 1) + " do lote: " + e.getMessage());
+            }
+            lancamentos.get(i).setStatus(StatusLancamento.PENDENTE);
         }
 
+        // todos entram como pendentes, então o saldo dos usuários não muda, só a versão
+        List<Lancamento> salvos = repository.inserirEmLote(lancamentos);
+        salvos.stream()
+                .map( l -> l.getUsuario().getId() )
+                .distinct()
+                .forEach(saldoUsuarioService::registrarAlteracao);
+        salvos.forEach( l -> eventPublisher.publishEvent(new LancamentoAlteradoEvent(Operacao.CRIADO, l)) );
+        return salvos;
+    }
+
+    @Override
+    public void validar(Lancamento lancamento) {
+
+        validarDescricao(lancamento.getDescricao());
+        validarMes(lancamento.getMes());
+        validarAno(lancamento.getAno());
+
         if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
             throw new RegraNegocioException("Informe um Usuário.");
         }
 
-        if(lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1 ) {
-            throw new RegraNegocioException("Informe um Valor válido.");
-        }
+        validarValor(lancamento.getValor());
 
         if(lancamento.getTipo() == null) {
             throw new RegraNegocioException("Informe um tipo de Lançamento.");
         }
     }
 
+    private void validarDescricao(String descricao) {
+        if(descricao == null || descricao.trim().equals("")) {
+            throw new RegraNegocioException("Informe uma Descrição válida.");
+        }
+    }
+
+    private void validarMes(Integer mes) {
+        if(mes == null || mes < 1 || mes > 12) {
+            throw new RegraNegocioException("Informe um Mês válido.");
+        }
+    }
+
+    private void validarAno(Integer ano) {
+        if(ano == null || ano.toString().length() != 4 ) {
+            throw new RegraNegocioException("Informe um Ano válido.");
+        }
+    }
+
+    private void validarValor(Dinheiro valor) {
+        if(valor == null || !valor.isPositivo() || valor.compareTo(Dinheiro.MAXIMO) > 0 ) {
+            throw new RegraNegocioException("Informe um Valor válido.");
+        }
+    }
+
     @Override
     @Transactional
     public Lancamento atualizar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
         validar(lancamento);
-        return repository.save(lancamento);
+        Optional<ContribuicaoSaldo> anterior = repository.obterContribuicaoPersistidaNoSaldo(lancamento.getId());
+        // a versão do lançamento garante que o status lido aqui é o que está sendo substituído
+        anterior.ifPresent( gravado -> validarTransicao(gravado.getStatus(), lancamento.getStatus()) );
+        Lancamento atualizado = repository.save(lancamento);
+
+        Long idUsuario = lancamento.getUsuario().getId();
+        Dinheiro contribuicao = contribuicaoNoSaldo(lancamento);
+        if(anterior.isPresent() && !anterior.get().getIdUsuario().equals(idUsuario)) {
+            saldoUsuarioService.ajustar(anterior.get().getIdUsuario(), anterior.get().getValor().negar());
+            saldoUsuarioService.ajustar(idUsuario, contribuicao);
+        } else {
+            Dinheiro contribuicaoAnterior = anterior.map(ContribuicaoSaldo::getValor).orElse(Dinheiro.ZERO);
+            saldoUsuarioService.ajustar(idUsuario, contribuicao.subtrair(contribuicaoAnterior));
+        }
+        eventPublisher.publishEvent(new LancamentoAlteradoEvent(Operacao.ATUALIZADO, atualizado,
+                anterior.map(ContribuicaoSaldo::getIdUsuario).orElse(idUsuario)));
+        return atualizado;
+    }
+
+    @Override
+    @Transactional
+    public void atualizarParcialmente(Long id, Long idUsuario, Lancamento alteracoes, Long versao) {
+        Objects.requireNonNull(id);
+
+        // só os campos informados (não nulos) são validados e gravados
+        Map<String, Object> campos = new LinkedHashMap<>();
+        if(alteracoes.getDescricao() != null) {
+            validarDescricao(alteracoes.getDescricao());
+            campos.put("descricao", alteracoes.getDescricao());
+        }
+        if(alteracoes.getMes() != null) {
+            validarMes(alteracoes.getMes());
+            campos.put("mes", alteracoes.getMes());
+        }
+        if(alteracoes.getAno() != null) {
+            validarAno(alteracoes.getAno());
+            campos.put("ano", alteracoes.getAno());
+        }
+        if(alteracoes.getValor() != null) {
+            validarValor(alteracoes.getValor());
+            campos.put("valor", alteracoes.getValor());
+        }
+        if(alteracoes.getTipo() != null) {
+            campos.put("tipo", alteracoes.getTipo());
+        }
+
+        if(campos.isEmpty()) {
+            throw new RegraNegocioException("Informe ao menos um campo para alterar.");
+        }
+
+        // valor e tipo mudam a contribuição no saldo: a situação atual é lida antes, e o update exige a mesma versão
+        boolean alteraSaldo = campos.containsKey("valor") || campos.containsKey("tipo");
+        Optional<SituacaoLancamento> anterior = Optional.empty();
+        if(alteraSaldo) {
+            anterior = repository.obterSituacao(id)
+                    .filter( s -> idUsuario == null || s.getIdUsuario().equals(idUsuario) );
+            if(!anterior.isPresent()) {
+                throw new RegraNegocioException("Lançamento não encontrado.");
+            }
+        }
+
+        Long versaoEsperada = versao != null ? versao : anterior.map(SituacaoLancamento::getVersao).orElse(null);
+        if(repository.atualizarCampos(id, idUsuario, campos, versaoEsperada) == 0) {
+            boolean existe = idUsuario == null ? repository.existsById(id) : repository.existsByIdAndUsuarioId(id, idUsuario);
+            if(!existe) {
+                throw new RegraNegocioException("Lançamento não encontrado.");
+            }
+            throw new ConflitoAtualizacaoException("O lançamento foi alterado por outra operação. Consulte-o novamente antes de alterar.");
+        }
+
+        if(alteraSaldo) {
+            SituacaoLancamento situacao = anterior.get();
+            TipoLancamento tipo = alteracoes.getTipo() != null ? alteracoes.getTipo() : situacao.getTipo();
+            Dinheiro valor = alteracoes.getValor() != null ? alteracoes.getValor() : situacao.getValor();
+            saldoUsuarioService.ajustar(situacao.getIdUsuario(), contribuicaoNoSaldo(tipo, valor, situacao.getStatus())
+                    .subtrair(contribuicaoNoSaldo(situacao.getTipo(), situacao.getValor(), situacao.getStatus())));
+        } else {
+            // só avança a versão do dono, localizado pelo próprio lançamento no banco
+            saldoUsuarioService.ajustarPelaContribuicao(id, 0);
+        }
+
+        // o índice de descrições e o livro-razão são separados por usuário
+        Long idDono = idUsuario != null ? idUsuario : anterior.map(SituacaoLancamento::getIdUsuario)
+                .orElseGet( () -> repository.obterIdUsuario(id).orElse(null) );
+        Lancamento alterado = Lancamento.builder()
+                .id(id)
+                .descricao(alteracoes.getDescricao())
+                .mes(alteracoes.getMes())
+                .ano(alteracoes.getAno())
+                .valor(alteracoes.getValor())
+                .tipo(alteracoes.getTipo())
+                .usuario(idDono == null ? null : Usuario.builder().id(idDono).build())
+                .build();
+        eventPublisher.publishEvent(new LancamentoAlteradoEvent(Operacao.ALTERADO_PARCIALMENTE, alterado));
     }
 
     @Override
     @Transactional
     public void deletar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
+        Optional<ContribuicaoSaldo> anterior = repository.obterContribuicaoPersistidaNoSaldo(lancamento.getId());
         repository.delete(lancamento);
+
+        anterior.ifPresent( c -> saldoUsuarioService.ajustar(c.getIdUsuario(), c.getValor().negar()) );
+        eventPublisher.publishEvent(new LancamentoAlteradoEvent(Operacao.REMOVIDO, lancamento,
+                anterior.map(ContribuicaoSaldo::getIdUsuario).orElse(null)));
     }
 
     @Override
@@ -88,11 +274,184 @@ public class LancamentoServiceImpl  implements LancamentoService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<LancamentoProjecao> buscarProjecoes(Lancamento lancamentoFiltro) {
+        if(lancamentoFiltro.getUsuario() == null || lancamentoFiltro.getUsuario().getId() == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+
+        // mesmos critérios do buscar (descrição contendo o texto, sem diferenciar maiúsculas), em uma única consulta
+        return repository.buscarProjecoes(
+                lancamentoFiltro.getUsuario().getId(),
+                lancamentoFiltro.getDescricao() == null ? null : contendo(lancamentoFiltro.getDescricao()),
+                lancamentoFiltro.getMes(),
+                lancamentoFiltro.getAno());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<LancamentoProjecao> buscarPagina(Lancamento lancamentoFiltro, Long apos, Integer limite) {
+        if(lancamentoFiltro.getUsuario() == null || lancamentoFiltro.getUsuario().getId() == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+
+        if(limite == null) {
+            limite = LIMITE_PADRAO_PAGINA;
+        }
+
+        if(limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new RegraNegocioException("Informe um limite entre 1 e " + LIMITE_MAXIMO_PAGINA + ".");
+        }
+
+        String descricao = lancamentoFiltro.getDescricao() == null
+                ? "%"
+                : contendo(lancamentoFiltro.getDescricao());
+
+        // paginação por chave: a página começa após o último id visto, usando o índice (id_usuario, id)
+        return repository.buscarPagina(
+                lancamentoFiltro.getUsuario().getId(),
+                apos == null ? 0L : apos,
+                descricao,
+                lancamentoFiltro.getMes(),
+                lancamentoFiltro.getAno(),
+                PageRequest.of(0, limite));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Lancamento> buscarPorDescricao(Long idUsuario, String termo, Integer limite) {
+        validarBuscaPorDescricao(idUsuario, termo);
+        return indiceDescricao.buscar(idUsuario, normalizarBusca(termo), limiteDaBusca(limite));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> autocompletarDescricao(Long idUsuario, String prefixo, Integer limite) {
+        validarBuscaPorDescricao(idUsuario, prefixo);
+        return indiceDescricao.autocompletar(idUsuario, normalizarBusca(prefixo), limiteDaBusca(limite));
+    }
+
+    // os índices comparam com a descrição em minúsculas e recebem o termo já assim
+    private static String normalizarBusca(String termo) {
+        return termo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // padrão do like das buscas por descrição: % e _ digitados valem como texto, não como curinga
+    private static String contendo(String descricao) {
+        return "%" + IndiceDescricaoPostgres.escaparLike(descricao.toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    private static void validarTransicao(StatusLancamento origem, StatusLancamento destino) {
+        if(origem != null && destino != null && origem != destino && !destino.getOrigensPermitidas().contains(origem)) {
+            throw new RegraNegocioException("Um lançamento " + origem + " não pode passar para " + destino + ".");
+        }
+    }
+
+    private void validarBuscaPorDescricao(Long idUsuario, String termo) {
+        if(idUsuario == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+
+        if(termo == null || termo.trim().equals("")) {
+            throw new RegraNegocioException("Informe um termo para a busca.");
+        }
+    }
+
+    private int limiteDaBusca(Integer limite) {
+        if(limite == null) {
+            return LIMITE_PADRAO_BUSCA;
+        }
+
+        if(limite < 1 || limite > LIMITE_MAXIMO_BUSCA) {
+            throw new RegraNegocioException("Informe um limite entre 1 e " + LIMITE_MAXIMO_BUSCA + ".");
+        }
+        return limite;
+    }
+
+    @Override
+    @Transactional
     public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
         lancamento.setStatus(status);
         atualizar(lancamento);
     }
 
+    @Override
+    @Transactional
+    public void transicionarStatus(Long id, Long idUsuario, StatusLancamento status, Long versao) {
+        Objects.requireNonNull(id);
+        if(status == null) {
+            throw new RegraNegocioException("Informe um status válido.");
+        }
+
+        for (StatusLancamento origem : status.getOrigensPermitidas()) {
+            if(repository.transicionarStatus(id, idUsuario, origem, status, versao) == 1) {
+                // tipo e valor não mudam na transição: só o status define a contribuição no saldo
+                int fator = (status == StatusLancamento.EFETIVADO ? 1 : 0) - (origem == StatusLancamento.EFETIVADO ? 1 : 0);
+                saldoUsuarioService.ajustarPelaContribuicao(id, fator);
+                Long idDono = idUsuario != null ? idUsuario : repository.obterIdUsuario(id).orElse(null);
+                eventPublisher.publishEvent(new LancamentoAlteradoEvent(Operacao.ALTERADO_PARCIALMENTE, statusAlterado(id, idDono, status)));
+                return;
+            }
+        }
+
+        boolean existe = idUsuario == null ? repository.existsById(id) : repository.existsByIdAndUsuarioId(id, idUsuario);
+        if(!existe) {
+            throw new RegraNegocioException("Lançamento não encontrado.");
+        }
+        throw new ConflitoAtualizacaoException("O lançamento foi alterado por outra operação ou não pode passar para "
+                + status + ". Consulte-o novamente antes de alterar o status.");
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, ResultadoAtualizacaoStatus> atualizarStatusEmLote(Long idUsuario, List<Long> ids, StatusLancamento status) {
+        if(idUsuario == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+
+        if(status == null) {
+            throw new RegraNegocioException("Informe um status válido.");
+        }
+
+        if(ids == null || ids.isEmpty()) {
+            throw new RegraNegocioException("Informe ao menos um Lançamento.");
+        }
+
+        if(ids.size() > LIMITE_MAXIMO_STATUS_LOTE) {
+            throw new RegraNegocioException("Informe no máximo " + LIMITE_MAXIMO_STATUS_LOTE + " lançamentos por vez.");
+        }
+
+        Map<Long, ResultadoAtualizacaoStatus> resultados = new LinkedHashMap<>();
+        ids.forEach( id -> resultados.put(id, ResultadoAtualizacaoStatus.NAO_ENCONTRADO) );
+
+        // só os lançamentos do próprio usuário voltam da consulta; os demais ficam como não encontrados
+        List<Long> alterados = new ArrayList<>();
+        Dinheiro ajusteNoSaldo = Dinheiro.ZERO;
+        for (SituacaoLancamento situacao : repository.obterSituacaoParaAtualizarStatus(idUsuario, resultados.keySet())) {
+            if(situacao.getStatus() == status) {
+                resultados.put(situacao.getId(), ResultadoAtualizacaoStatus.INALTERADO);
+                continue;
+            }
+            if(!status.getOrigensPermitidas().contains(situacao.getStatus())) {
+                resultados.put(situacao.getId(), ResultadoAtualizacaoStatus.NAO_PERMITIDO);
+                continue;
+            }
+            alterados.add(situacao.getId());
+            resultados.put(situacao.getId(), ResultadoAtualizacaoStatus.ATUALIZADO);
+            ajusteNoSaldo = ajusteNoSaldo
+                    .somar(contribuicaoNoSaldo(situacao.getTipo(), situacao.getValor(), status))
+                    .subtrair(contribuicaoNoSaldo(situacao.getTipo(), situacao.getValor(), situacao.getStatus()));
+        }
+
+        if(!alterados.isEmpty()) {
+            repository.atualizarStatus(idUsuario, alterados, status);
+            saldoUsuarioService.ajustar(idUsuario, ajusteNoSaldo);
+            alterados.forEach( id -> eventPublisher.publishEvent(
+                    new LancamentoAlteradoEvent(Operacao.ALTERADO_PARCIALMENTE, statusAlterado(id, idUsuario, status))) );
+        }
+        return resultados;
+    }
+
     @Override
     public Optional<Lancamento> obterPorId(Long id) {
         return repository.findById(id);
@@ -100,22 +459,47 @@ public class LancamentoServiceImpl  implements LancamentoService {
 
     @Override
     @Transactional(readOnly = true)
-    public BigDecimal obterSaldoPorUsuario(Long id) {
+    public Optional<LancamentoProjecaoVersionada> obterProjecaoPorId(Long id) {
+        return repository.obterProjecaoPorId(id);
+    }
 
-        BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
-        BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+    @Override
+    @Transactional(readOnly = true)
+    public Dinheiro obterSaldoPorUsuario(Long id) {
+        return saldoUsuarioService.obterSaldo(id);
+    }
 
-        if(receitas == null) {
-            receitas = BigDecimal.ZERO;
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public long obterVersaoPorUsuario(Long id) {
+        return saldoUsuarioService.obterVersao(id);
+    }
 
-        if(despesas == null) {
-            despesas = BigDecimal.ZERO;
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResumoLancamento> obterResumo(Long idUsuario, PeriodoResumo periodo, Integer ano) {
+        return resumoLancamentos.resumir(idUsuario, periodo, ano);
+    }
 
-        return receitas.subtract(despesas);
+    private static Lancamento statusAlterado(Long id, Long idUsuario, StatusLancamento status) {
+        return Lancamento.builder()
+                .id(id)
+                .status(status)
+                .usuario(idUsuario == null ? null : Usuario.builder().id(idUsuario).build())
+                .build();
     }
 
+    static Dinheiro contribuicaoNoSaldo(Lancamento lancamento) {
+        return contribuicaoNoSaldo(lancamento.getTipo(), lancamento.getValor(), lancamento.getStatus());
+    }
 
+    static Dinheiro contribuicaoNoSaldo(TipoLancamento tipo, Dinheiro valor, StatusLancamento status) {
+        if(status != StatusLancamento.EFETIVADO) {
+            return Dinheiro.ZERO;
+        }
+        return tipo == TipoLancamento.RECEITA
+                ? valor
+                : valor.negar();
+    }
 
 }
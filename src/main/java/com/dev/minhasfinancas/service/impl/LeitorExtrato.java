@@ -0,0 +1,120 @@
+package com.dev.minhasfinancas.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/*
+ * Leitura incremental de um extrato bancário: cada chamada a proximo() consome da entrada só o necessário para
+ * o próximo registro, e nenhum registro guarda mais que tamanhoMaximoRegistro caracteres. Registros que não
+ * puderam ser interpretados voltam com o erro preenchido, para que a importação siga com os demais.
+ */
+abstract class LeitorExtrato implements Closeable {
+
+    private static final int SEM_DEVOLUCAO = -2;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int posicao;
+    private int limite;
+    private int devolvido = SEM_DEVOLUCAO;
+    private int linha = 1;
+
+    protected final int tamanhoMaximoRegistro;
+
+    LeitorExtrato(Reader reader, int tamanhoMaximoRegistro) {
+        this.reader = reader;
+        this.tamanhoMaximoRegistro = tamanhoMaximoRegistro;
+    }
+
+    /*
+     * Retorna null no fim da entrada.
+     */
+    abstract Registro proximo() throws IOException;
+
+    int ler() throws IOException {
+        if(devolvido != SEM_DEVOLUCAO) {
+            int c = devolvido;
+            devolvido = SEM_DEVOLUCAO;
+            if(c == '\n') {
+                linha++;
+            }
+            return c;
+        }
+        if(posicao == limite) {
+            limite = reader.read(buffer, 0, buffer.length);
+            posicao = 0;
+            if(limite < 0) {
+                limite = 0;
+                return -1;
+            }
+        }
+        char c = buffer[posicao++];
+        if(c == '\n') {
+            linha++;
+        }
+        return c;
+    }
+
+    /*
+     * Devolve um único caractere lido, que volta na próxima chamada a ler().
+     */
+    void devolver(int c) {
+        devolvido = c;
+        if(c == '\n') {
+            linha--;
+        }
+    }
+
+    int getLinha() {
+        return linha;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /*
+     * Aceita ponto ou vírgula como separador decimal: o último dos dois que aparecer é o decimal e o outro,
+     * separador de milhar ("-1.234,56", "1,234.56", "R$ 10,00").
+     */
+    static BigDecimal converterValor(String texto) {
+        String valor = texto.replace("R$", "").replace(" ", "").trim();
+        int virgula = valor.lastIndexOf(',');
+        int ponto = valor.lastIndexOf('.');
+        if(virgula > ponto) {
+            valor = valor.replace(".", "").replace(',', '.');
+        }else if(virgula >= 0) {
+            valor = valor.replace(",", "");
+        }
+        return new BigDecimal(valor);
+    }
+
+    static final class Registro {
+
+        final int linha;
+        final LocalDate data;
+        final String descricao;
+        final BigDecimal valor;
+        final String erro;
+
+        private Registro(int linha, LocalDate data, String descricao, BigDecimal valor, String erro) {
+            this.linha = linha;
+            this.data = data;
+            this.descricao = descricao;
+            this.valor = valor;
+            this.erro = erro;
+        }
+
+        static Registro valido(int linha, LocalDate data, String descricao, BigDecimal valor) {
+            return new Registro(linha, data, descricao, valor, null);
+        }
+
+        static Registro invalido(int linha, String erro) {
+            return new Registro(linha, null, null, null, erro);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.exceptions.RegraNegocioException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * CSV com cabeçalho contendo as colunas data, descricao (ou historico) e valor, em qualquer ordem e com outras
+ * colunas ignoradas. O separador (vírgula ou ponto e vírgula) vem do cabeçalho; campos entre aspas seguem a mesma
+ * regra de escaparCsv da exportação. Datas em yyyy-MM-dd ou dd/MM/yyyy.
+ */
+class LeitorExtratoCsv extends LeitorExtrato {
+
+    private static final DateTimeFormatter DATA_BRASILEIRA =
+            DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+
+    private final char separador;
+    private final int colunaData;
+    private final int colunaDescricao;
+    private final int colunaValor;
+    private final int colunasNecessarias;
+
+    private final List<String> campos = new ArrayList<>();
+    private final StringBuilder campo = new StringBuilder();
+    private boolean excedeu;
+    private boolean fim;
+
+    LeitorExtratoCsv(Reader reader, int tamanhoMaximoRegistro) throws IOException {
+        super(reader, tamanhoMaximoRegistro);
+
+        String cabecalho = lerCabecalho();
+        if(cabecalho == null) {
+            throw new RegraNegocioException("Arquivo CSV sem cabeçalho.");
+        }
+        separador = contar(cabecalho, ';') > contar(cabecalho, ',') ? ';' : ',';
+
+        List<String> colunas = new ArrayList<>();
+        for (String coluna : cabecalho.split(String.valueOf(separador), -1)) {
+            colunas.add(normalizar(coluna));
+        }
+        colunaData = colunas.indexOf("data");
+        colunaDescricao = colunas.contains("descricao") ? colunas.indexOf("descricao") : colunas.indexOf("historico");
+        colunaValor = colunas.indexOf("valor");
+        if(colunaData < 0 || colunaDescricao < 0 || colunaValor < 0) {
+            throw new RegraNegocioException("O cabeçalho do CSV deve ter as colunas data, descricao e valor.");
+        }
+        colunasNecessarias = Math.max(colunaData, Math.max(colunaDescricao, colunaValor)) + 1;
+    }
+
+    @Override
+    Registro proximo() throws IOException {
+        while (!fim) {
+            int linha = getLinha();
+            if(!lerRegistro()) {
+                return null;
+            }
+            if(excedeu) {
+                return Registro.invalido(linha, "Registro maior que " + tamanhoMaximoRegistro + " caracteres.");
+            }
+            if(campos.size() == 1 && campos.get(0).trim().isEmpty()) {
+                // linha em branco
+                continue;
+            }
+            return converter(linha);
+        }
+        return null;
+    }
+
+    private Registro converter(int linha) {
+        if(campos.size() < colunasNecessarias) {
+            return Registro.invalido(linha, "Registro com " + campos.size() + " coluna(s), esperadas ao menos " + colunasNecessarias + ".");
+        }
+
+        String data = campos.get(colunaData).trim();
+        LocalDate dataConvertida;
+        try {
+            dataConvertida = data.indexOf('/') >= 0 ? LocalDate.parse(data, DATA_BRASILEIRA) : LocalDate.parse(data);
+        }catch (DateTimeParseException e) {
+            return Registro.invalido(linha, "Data inválida: " + data);
+        }
+
+        String valor = campos.get(colunaValor);
+        BigDecimal valorConvertido;
+        try {
+            valorConvertido = converterValor(valor);
+        }catch (NumberFormatException e) {
+            return Registro.invalido(linha, "Valor inválido: " + valor.trim());
+        }
+
+        return Registro.valido(linha, dataConvertida, campos.get(colunaDescricao).trim(), valorConvertido);
+    }
+
+    /*
+     * Preenche campos com o próximo registro; false quando a entrada já terminou. Registros longos demais
+     * continuam sendo consumidos até o fim, mas sem guardar os caracteres.
+     */
+    private boolean lerRegistro() throws IOException {
+        campos.clear();
+        campo.setLength(0);
+        excedeu = false;
+        int tamanho = 0;
+        boolean entreAspas = false;
+        boolean leuAlgo = false;
+
+        while (true) {
+            int c = ler();
+            if(c < 0) {
+                fim = true;
+                if(!leuAlgo) {
+                    return false;
+                }
+                break;
+            }
+            leuAlgo = true;
+            if(++tamanho > tamanhoMaximoRegistro) {
+                excedeu = true;
+            }
+
+            if(entreAspas) {
+                if(c != '"') {
+                    acrescentar(c);
+                    continue;
+                }
+                int seguinte = ler();
+                if(seguinte == '"') {
+                    acrescentar('"');
+                    continue;
+                }
+                entreAspas = false;
+                if(seguinte < 0) {
+                    continue;
+                }
+                c = seguinte;
+            }else if(c == '"' && campo.length() == 0) {
+                entreAspas = true;
+                continue;
+            }
+
+            if(c == separador) {
+                fecharCampo();
+            }else if(c == '\n') {
+                break;
+            }else if(c != '\r') {
+                acrescentar(c);
+            }
+        }
+        fecharCampo();
+        return true;
+    }
+
+    private void acrescentar(int c) {
+        if(!excedeu) {
+            campo.append((char) c);
+        }
+    }
+
+    private void fecharCampo() {
+        if(!excedeu) {
+            campos.add(campo.toString());
+        }
+        campo.setLength(0);
+    }
+
+    private String lerCabecalho() throws IOException {
+        StringBuilder cabecalho = new StringBuilder();
+        int c = ler();
+        // marca de ordem de bytes (BOM) no início do arquivo
+        if(c == '\uFEFF') {
+            c = ler();
+        }
+        while (c >= 0 && c != '\n') {
+            if(cabecalho.length() == tamanhoMaximoRegistro) {
+                throw new RegraNegocioException("Cabeçalho do CSV maior que " + tamanhoMaximoRegistro + " caracteres.");
+            }
+            cabecalho.append((char) c);
+            c = ler();
+        }
+        String texto = cabecalho.toString().trim();
+        return texto.isEmpty() ? null : texto;
+    }
+
+    private static int contar(String texto, char caractere) {
+        return (int) texto.chars().filter( c -> c == caractere ).count();
+    }
+
+    // "Descrição" -> "descricao"
+    private static String normalizar(String coluna) {
+        String semAcentos = Normalizer.normalize(coluna.replace("\"", "").trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        return semAcentos.toLowerCase(Locale.ROOT);
+    }
+}
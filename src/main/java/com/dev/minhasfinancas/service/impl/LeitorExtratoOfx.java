@@ -0,0 +1,153 @@
+package com.dev.minhasfinancas.service.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/*
+ * OFX 1.x (SGML, com elementos sem tag de fechamento) ou 2.x (XML). Só os blocos <STMTTRN> interessam: DTPOSTED
+ * dá a data, TRNAMT o valor com sinal e MEMO (ou NAME, na falta dele) a descrição. O cabeçalho e os demais
+ * elementos são percorridos sem serem guardados.
+ */
+class LeitorExtratoOfx extends LeitorExtrato {
+
+    private static final int TAMANHO_MAXIMO_TAG = 64;
+
+    private boolean excedeu;
+
+    LeitorExtratoOfx(Reader reader, int tamanhoMaximoRegistro) {
+        super(reader, tamanhoMaximoRegistro);
+    }
+
+    @Override
+    Registro proximo() throws IOException {
+        String tag;
+        do {
+            tag = proximaTag();
+            if(tag == null) {
+                return null;
+            }
+        } while (!tag.equals("STMTTRN"));
+
+        int linha = getLinha();
+        excedeu = false;
+        String data = null;
+        String valor = null;
+        String memo = null;
+        String nome = null;
+        while (true) {
+            tag = proximaTag();
+            if(tag == null) {
+                return Registro.invalido(linha, "Transação sem </STMTTRN>.");
+            }
+            if(tag.equals("/STMTTRN")) {
+                break;
+            }
+            switch (tag) {
+                case "DTPOSTED":
+                    data = lerTexto();
+                    break;
+                case "TRNAMT":
+                    valor = lerTexto();
+                    break;
+                case "MEMO":
+                    memo = lerTexto();
+                    break;
+                case "NAME":
+                    nome = lerTexto();
+                    break;
+                default:
+                    // o texto dos demais elementos é descartado pela próxima busca de tag
+            }
+        }
+
+        if(excedeu) {
+            return Registro.invalido(linha, "Registro maior que " + tamanhoMaximoRegistro + " caracteres.");
+        }
+        return converter(linha, data, valor, memo == null || memo.isEmpty() ? nome : memo);
+    }
+
+    private Registro converter(int linha, String data, String valor, String descricao) {
+        // DTPOSTED: AAAAMMDD seguido opcionalmente de hora e fuso, ex. 20190115120000[-3:BRT]
+        if(data == null) {
+            return Registro.invalido(linha, "Transação sem DTPOSTED.");
+        }
+        if(data.length() < 8) {
+            return Registro.invalido(linha, "Data inválida: " + data);
+        }
+        LocalDate dataConvertida;
+        try {
+            dataConvertida = LocalDate.parse(data.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+        }catch (DateTimeParseException e) {
+            return Registro.invalido(linha, "Data inválida: " + data);
+        }
+
+        if(valor == null) {
+            return Registro.invalido(linha, "Transação sem TRNAMT.");
+        }
+        BigDecimal valorConvertido;
+        try {
+            valorConvertido = converterValor(valor);
+        }catch (NumberFormatException e) {
+            return Registro.invalido(linha, "Valor inválido: " + valor);
+        }
+
+        return Registro.valido(linha, dataConvertida, descricao, valorConvertido);
+    }
+
+    /*
+     * Avança até a próxima tag e retorna o nome em maiúsculas, com "/" no início para as de fechamento.
+     * Null no fim da entrada.
+     */
+    private String proximaTag() throws IOException {
+        int c;
+        do {
+            c = ler();
+            if(c < 0) {
+                return null;
+            }
+        } while (c != '<');
+
+        StringBuilder nome = new StringBuilder();
+        while ((c = ler()) >= 0 && c != '>') {
+            if(nome.length() < TAMANHO_MAXIMO_TAG) {
+                nome.append((char) c);
+            }
+        }
+        return c < 0 ? null : nome.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    /*
+     * Texto até a próxima tag, que fica para proximaTag().
+     */
+    private String lerTexto() throws IOException {
+        StringBuilder texto = new StringBuilder();
+        int c;
+        while ((c = ler()) >= 0 && c != '<') {
+            if(texto.length() < tamanhoMaximoRegistro) {
+                texto.append((char) c);
+            }else {
+                excedeu = true;
+            }
+        }
+        if(c == '<') {
+            devolver(c);
+        }
+        return decodificar(texto.toString().trim());
+    }
+
+    private static String decodificar(String texto) {
+        if(texto.indexOf('&') < 0) {
+            return texto;
+        }
+        return texto.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+}
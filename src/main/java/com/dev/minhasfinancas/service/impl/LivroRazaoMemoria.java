@@ -0,0 +1,198 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.enums.PeriodoResumo;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoLivroRazao;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.ResumoLancamento;
+import com.dev.minhasfinancas.service.ResumoLancamentos;
+import com.dev.minhasfinancas.service.event.LancamentoAlteradoEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Livro-razão por usuário, carregado na primeira consulta e mantido pelos eventos de alteração de
+ * lançamentos. Os usuários menos consultados saem da memória quando o total passa de
+ * minhasfinancas.livro-razao.memoria-maxima.
+ *
+ * A carga roda numa transação própria que não é somente leitura, e por isso vai sempre ao primário mesmo com o
+ * roteamento para réplicas ligado: uma réplica atrasada deixaria fora do livro uma alteração já confirmada, sem
+ * evento durante a carga que a denunciasse, e o livro guardado ficaria errado até ser descartado.
+ */
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.livro-razao.habilitado", havingValue = "true")
+public class LivroRazaoMemoria implements ResumoLancamentos {
+
+    private final LancamentoRepository repository;
+    private final TransactionTemplate transacaoCarga;
+    private final long memoriaMaxima;
+
+    // em ordem de acesso, para descartar o usuário consultado há mais tempo
+    private final LinkedHashMap<Long, LivroRazaoUsuario> livros = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytesEmUso;
+
+    // cargas em andamento por usuário: um livro que recebeu evento durante a carga pode ter perdido a alteração,
+    // e não é guardado
+    private final Map<Long, Carga> cargas = new HashMap<>();
+
+    public LivroRazaoMemoria(LancamentoRepository repository, PlatformTransactionManager transactionManager,
+                             MeterRegistry registry,
+                             @Value("${minhasfinancas.livro-razao.memoria-maxima:64MB}") DataSize memoriaMaxima) {
+        this.repository = repository;
+        this.transacaoCarga = new TransactionTemplate(transactionManager);
+        transacaoCarga.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.memoriaMaxima = memoriaMaxima.toBytes();
+        registry.gauge("minhasfinancas.livro-razao.usuarios", this, LivroRazaoMemoria::getQuantidadeUsuarios);
+        registry.gauge("minhasfinancas.livro-razao.bytes", this, LivroRazaoMemoria::getBytesEmUso);
+    }
+
+    @Override
+    public List<ResumoLancamento> resumir(Long idUsuario, PeriodoResumo periodo, Integer ano) {
+        return livro(idUsuario).resumir(periodo, ano);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarLancamento(LancamentoAlteradoEvent evento) {
+        Lancamento lancamento = evento.getLancamento();
+        Long idUsuario = lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+        Long idUsuarioAnterior = evento.getIdUsuarioAnterior();
+
+        synchronized (livros) {
+            registrarNasCargas(idUsuario, idUsuarioAnterior);
+            switch (evento.getOperacao()) {
+                case REMOVIDO:
+                    LivroRazaoUsuario anterior = idUsuarioAnterior == null ? null : livros.get(idUsuarioAnterior);
+                    if(anterior != null) {
+                        anterior.remover(lancamento.getId());
+                    }
+                    break;
+                case ALTERADO_PARCIALMENTE:
+                    LivroRazaoUsuario livro = idUsuario == null ? null : livros.get(idUsuario);
+                    if(livro != null) {
+                        livro.alterar(lancamento.getId(), lancamento.getValor(), lancamento.getAno(),
+                                lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus());
+                    }
+                    break;
+                default:
+                    // na atualização o lançamento pode ter mudado de usuário
+                    LivroRazaoUsuario origem = evento.getOperacao() == LancamentoAlteradoEvent.Operacao.ATUALIZADO
+                            && idUsuarioAnterior != null
+                            ? livros.get(idUsuarioAnterior)
+                            : null;
+                    LivroRazaoUsuario destino = livros.get(idUsuario);
+                    if(origem != null && origem != destino) {
+                        origem.remover(lancamento.getId());
+                    }
+                    if(destino != null) {
+                        long antes = destino.getBytes();
+                        destino.gravar(lancamento.getId(), lancamento.getValor(), lancamento.getAno(),
+                                lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus());
+                        bytesEmUso += destino.getBytes() - antes;
+                        liberarMemoria();
+                    }
+            }
+        }
+    }
+
+    public int getQuantidadeUsuarios() {
+        synchronized (livros) {
+            return livros.size();
+        }
+    }
+
+    public long getBytesEmUso() {
+        synchronized (livros) {
+            return bytesEmUso;
+        }
+    }
+
+    private LivroRazaoUsuario livro(Long idUsuario) {
+        Carga carga;
+        long eventosAntes;
+        synchronized (livros) {
+            LivroRazaoUsuario livro = livros.get(idUsuario);
+            if(livro != null) {
+                return livro;
+            }
+            carga = cargas.computeIfAbsent(idUsuario, id -> new Carga());
+            carga.leitores++;
+            eventosAntes = carga.eventos;
+        }
+
+        List<LancamentoLivroRazao> lancamentos;
+        try {
+            // suspende a transação somente leitura de quem pediu o resumo, para ler do primário
+            lancamentos = transacaoCarga.execute( status -> repository.obterLivroRazaoDoUsuario(idUsuario) );
+        }catch (RuntimeException e) {
+            synchronized (livros) {
+                encerrarCarga(idUsuario, carga);
+            }
+            throw e;
+        }
+        LivroRazaoUsuario livro = new LivroRazaoUsuario(lancamentos.size());
+        for (LancamentoLivroRazao l : lancamentos) {
+            livro.gravar(l.getId(), l.getValor(), l.getAno(), l.getMes(), l.getTipo(), l.getStatus());
+        }
+
+        synchronized (livros) {
+            encerrarCarga(idUsuario, carga);
+            LivroRazaoUsuario carregado = livros.get(idUsuario);
+            if(carregado != null) {
+                return carregado;
+            }
+            if(carga.eventos == eventosAntes) {
+                livros.put(idUsuario, livro);
+                bytesEmUso += livro.getBytes();
+                liberarMemoria();
+            }
+        }
+        return livro;
+    }
+
+    private void encerrarCarga(Long idUsuario, Carga carga) {
+        if(--carga.leitores == 0) {
+            cargas.remove(idUsuario);
+        }
+    }
+
+    private void registrarNasCargas(Long idUsuario, Long idUsuarioAnterior) {
+        if(idUsuario == null && idUsuarioAnterior == null) {
+            // sem o dono, qualquer carga em andamento pode ter perdido o evento
+            cargas.values().forEach( carga -> carga.eventos++ );
+            return;
+        }
+        for (Long id : new Long[]{idUsuario, idUsuarioAnterior}) {
+            Carga carga = id == null ? null : cargas.get(id);
+            if(carga != null) {
+                carga.eventos++;
+            }
+        }
+    }
+
+    private void liberarMemoria() {
+        Iterator<Map.Entry<Long, LivroRazaoUsuario>> iterator = livros.entrySet().iterator();
+        while (bytesEmUso > memoriaMaxima && iterator.hasNext()) {
+            bytesEmUso -= iterator.next().getValue().getBytes();
+            iterator.remove();
+        }
+    }
+
+    // protegida pelo lock de livros
+    private static final class Carga {
+        int leitores;
+        long eventos;
+    }
+}
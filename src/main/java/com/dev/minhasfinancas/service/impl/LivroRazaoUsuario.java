@@ -0,0 +1,200 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.model.enums.PeriodoResumo;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.ResumoLancamento;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Lançamentos de um usuário em colunas de tipos primitivos, ordenadas pelo id: valor em centavos,
+ * período (ano * 12 + mês - 1) e o ordinal do tipo e do status. O resumo é calculado em laços sobre
+ * os arrays, sem criar objetos por lançamento.
+ */
+class LivroRazaoUsuario {
+
+    static final int BYTES_POR_LANCAMENTO = 8 + 8 + 4 + 1 + 1;
+
+    private static final byte RECEITA = (byte) TipoLancamento.RECEITA.ordinal();
+    private static final byte EFETIVADO = (byte) StatusLancamento.EFETIVADO.ordinal();
+    private static final byte PENDENTE = (byte) StatusLancamento.PENDENTE.ordinal();
+    private static final byte CANCELADO = (byte) StatusLancamento.CANCELADO.ordinal();
+
+    // receita e despesa de efetivados, pendentes e cancelados, nesta ordem
+    private static final int COLUNAS = 6;
+
+    private long[] ids;
+    private long[] centavos;
+    private int[] periodos;
+    private byte[] tipos;
+    private byte[] status;
+    private int tamanho;
+
+    LivroRazaoUsuario(int capacidade) {
+        capacidade = Math.max(capacidade, 8);
+        ids = new long[capacidade];
+        centavos = new long[capacidade];
+        periodos = new int[capacidade];
+        tipos = new byte[capacidade];
+        status = new byte[capacidade];
+    }
+
+    synchronized void gravar(long id, Dinheiro valor, int ano, int mes, TipoLancamento tipo, StatusLancamento status) {
+        int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if(posicao < 0) {
+            posicao = -posicao - 1;
+            abrirEspaco(posicao);
+            ids[posicao] = id;
+        }
+        centavos[posicao] = valor.getCentavos();
+        periodos[posicao] = ano * 12 + mes - 1;
+        tipos[posicao] = ordinal(tipo);
+        this.status[posicao] = ordinal(status);
+    }
+
+    /*
+     * Aplica só os campos informados (não nulos). Retorna false se o lançamento não está neste livro.
+     */
+    synchronized boolean alterar(long id, Dinheiro valor, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status) {
+        int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if(posicao < 0) {
+            return false;
+        }
+        if(valor != null) {
+            centavos[posicao] = valor.getCentavos();
+        }
+        if(ano != null || mes != null) {
+            int atual = periodos[posicao];
+            periodos[posicao] = (ano != null ? ano : atual / 12) * 12 + (mes != null ? mes - 1 : atual % 12);
+        }
+        if(tipo != null) {
+            tipos[posicao] = ordinal(tipo);
+        }
+        if(status != null) {
+            this.status[posicao] = ordinal(status);
+        }
+        return true;
+    }
+
+    synchronized boolean remover(long id) {
+        int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if(posicao < 0) {
+            return false;
+        }
+        int seguintes = tamanho - posicao - 1;
+        System.arraycopy(ids, posicao + 1, ids, posicao, seguintes);
+        System.arraycopy(centavos, posicao + 1, centavos, posicao, seguintes);
+        System.arraycopy(periodos, posicao + 1, periodos, posicao, seguintes);
+        System.arraycopy(tipos, posicao + 1, tipos, posicao, seguintes);
+        System.arraycopy(status, posicao + 1, status, posicao, seguintes);
+        tamanho--;
+        return true;
+    }
+
+    synchronized long getBytes() {
+        return (long) ids.length * BYTES_POR_LANCAMENTO;
+    }
+
+    synchronized List<ResumoLancamento> resumir(PeriodoResumo periodo, Integer ano) {
+        boolean anual = periodo == PeriodoResumo.ANUAL;
+
+        // primeira passada: intervalo de chaves (meses ou anos) presentes, para acumular em arrays
+        int primeira = Integer.MAX_VALUE;
+        int ultima = Integer.MIN_VALUE;
+        for (int i = 0; i < tamanho; i++) {
+            int p = periodos[i];
+            if(ano != null && p / 12 != ano) {
+                continue;
+            }
+            int chave = anual ? p / 12 : p;
+            primeira = Math.min(primeira, chave);
+            ultima = Math.max(ultima, chave);
+        }
+        if(primeira > ultima) {
+            return Collections.emptyList();
+        }
+
+        int chaves = ultima - primeira + 1;
+        long[] totais = new long[chaves * COLUNAS];
+        long[] quantidades = new long[chaves];
+        for (int i = 0; i < tamanho; i++) {
+            int p = periodos[i];
+            if(ano != null && p / 12 != ano) {
+                continue;
+            }
+            int k = (anual ? p / 12 : p) - primeira;
+            quantidades[k]++;
+            int coluna = tipos[i] == RECEITA ? 0 : 1;
+            if(status[i] == EFETIVADO) {
+                totais[k * COLUNAS + coluna] += centavos[i];
+            } else if(status[i] == PENDENTE) {
+                totais[k * COLUNAS + 2 + coluna] += centavos[i];
+            } else if(status[i] == CANCELADO) {
+                totais[k * COLUNAS + 4 + coluna] += centavos[i];
+            }
+        }
+
+        List<ResumoLancamento> resumo = new ArrayList<>();
+        for (int k = 0; k < chaves; k++) {
+            if(quantidades[k] == 0) {
+                continue;
+            }
+            int chave = primeira + k;
+            resumo.add(new Totais(
+                    anual ? chave : chave / 12,
+                    anual ? null : chave % 12 + 1,
+                    Dinheiro.deCentavos(totais[k * COLUNAS]),
+                    Dinheiro.deCentavos(totais[k * COLUNAS + 1]),
+                    Dinheiro.deCentavos(totais[k * COLUNAS + 2]),
+                    Dinheiro.deCentavos(totais[k * COLUNAS + 3]),
+                    Dinheiro.deCentavos(totais[k * COLUNAS + 4]),
+                    Dinheiro.deCentavos(totais[k * COLUNAS + 5]),
+                    quantidades[k]));
+        }
+        return resumo;
+    }
+
+    private void abrirEspaco(int posicao) {
+        if(tamanho == ids.length) {
+            int capacidade = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacidade);
+            centavos = Arrays.copyOf(centavos, capacidade);
+            periodos = Arrays.copyOf(periodos, capacidade);
+            tipos = Arrays.copyOf(tipos, capacidade);
+            status = Arrays.copyOf(status, capacidade);
+        }
+        int seguintes = tamanho - posicao;
+        System.arraycopy(ids, posicao, ids, posicao + 1, seguintes);
+        System.arraycopy(centavos, posicao, centavos, posicao + 1, seguintes);
+        System.arraycopy(periodos, posicao, periodos, posicao + 1, seguintes);
+        System.arraycopy(tipos, posicao, tipos, posicao + 1, seguintes);
+        System.arraycopy(status, posicao, status, posicao + 1, seguintes);
+        tamanho++;
+    }
+
+    private static byte ordinal(Enum<?> valor) {
+        return valor == null ? -1 : (byte) valor.ordinal();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Totais implements ResumoLancamento {
+
+        private final Integer ano;
+        private final Integer mes;
+        private final Dinheiro receitasEfetivadas;
+        private final Dinheiro despesasEfetivadas;
+        private final Dinheiro receitasPendentes;
+        private final Dinheiro despesasPendentes;
+        private final Dinheiro receitasCanceladas;
+        private final Dinheiro despesasCanceladas;
+        private final Long quantidade;
+    }
+}
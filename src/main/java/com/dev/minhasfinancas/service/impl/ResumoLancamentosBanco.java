@@ -0,0 +1,31 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.model.enums.PeriodoResumo;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.ResumoLancamento;
+import com.dev.minhasfinancas.service.ResumoLancamentos;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.livro-razao.habilitado", havingValue = "false", matchIfMissing = true)
+public class ResumoLancamentosBanco implements ResumoLancamentos {
+
+    private LancamentoRepository repository;
+
+    public ResumoLancamentosBanco(LancamentoRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResumoLancamento> resumir(Long idUsuario, PeriodoResumo periodo, Integer ano) {
+        if(periodo == PeriodoResumo.ANUAL) {
+            return repository.resumirPorAno(idUsuario, ano);
+        }
+        return repository.resumirPorMes(idUsuario, ano);
+    }
+}
@@ -0,0 +1,134 @@
+package com.dev.minhasfinancas.service.impl;
+
+import com.dev.minhasfinancas.model.entity.SaldoUsuario;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.SaldoUsuarioService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Slf4j
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+
+    private SaldoUsuarioRepository repository;
+    private LancamentoRepository lancamentoRepository;
+    private TransactionTemplate transacao;
+
+    public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.lancamentoRepository = lancamentoRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Dinheiro obterSaldo(Long idUsuario) {
+        return repository.findById(idUsuario)
+                .map(SaldoUsuario::getSaldo)
+                .orElseGet( () -> calcularSaldo(idUsuario) );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long obterVersao(Long idUsuario) {
+        // do mesmo registro em cache que o saldo: uma versão mais nova que o saldo geraria uma ETag nova com saldo antigo
+        return repository.findById(idUsuario).map(SaldoUsuario::getVersao).orElse(0L);
+    }
+
+    /*
+     * Na primeira movimentação do usuário o saldo é criado já calculado sobre os lançamentos, o que inclui a
+     * alteração corrente. Se duas transações tentarem criá-lo juntas, a que perder soma o seu ajuste ao saldo
+     * criado pela outra.
+     */
+    @Override
+    @Transactional
+    public void ajustar(Long idUsuario, Dinheiro valor) {
+        // a versão avança mesmo quando o saldo não muda: ela marca qualquer alteração nos lançamentos do usuário
+        Dinheiro ajuste = valor == null ? Dinheiro.ZERO : valor;
+        if(repository.somarAoSaldo(idUsuario, ajuste) == 0 && repository.criarSaldo(idUsuario) == 0) {
+            // outra transação criou o saldo sem enxergar esta alteração
+            repository.somarAoSaldo(idUsuario, ajuste);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void registrarAlteracao(Long idUsuario) {
+        ajustar(idUsuario, Dinheiro.ZERO);
+    }
+
+    @Override
+    @Transactional
+    public void ajustarPelaContribuicao(Long idLancamento, int fator) {
+        if(repository.somarContribuicaoDoLancamento(idLancamento, fator) > 0) {
+            return;
+        }
+        lancamentoRepository.obterIdUsuario(idLancamento).ifPresent( idUsuario -> {
+            if(repository.criarSaldo(idUsuario) == 0) {
+                repository.somarContribuicaoDoLancamento(idLancamento, fator);
+            }
+        });
+    }
+
+    /*
+     * Cada usuário é conferido na sua transação, com o saldo travado: um ajuste em andamento termina antes da
+     * comparação, e só é corrigida a divergência que continua existindo com a trava.
+     */
+    @Override
+    @Scheduled(cron = "${minhasfinancas.saldo.verificacao.cron:0 0 4 * * *}")
+    public int verificarSaldos() {
+        Set<Long> usuarios = new TreeSet<>(repository.listarIdsDeUsuarios());
+        usuarios.addAll(lancamentoRepository.listarIdsDeUsuarios());
+
+        int divergencias = 0;
+        int criados = 0;
+        for (Long idUsuario : usuarios) {
+            Verificacao verificacao = transacao.execute( status -> verificar(idUsuario) );
+            if(verificacao == Verificacao.CORRIGIDO) {
+                divergencias++;
+            }else if(verificacao == Verificacao.CRIADO) {
+                criados++;
+            }
+        }
+
+        log.info("Verificação de saldos concluída: {} divergência(s) corrigida(s), {} saldo(s) criado(s)",
+                divergencias, criados);
+        return divergencias;
+    }
+
+    private Verificacao verificar(Long idUsuario) {
+        Optional<Dinheiro> gravado = repository.bloquearSaldo(idUsuario);
+        if(!gravado.isPresent()) {
+            if(repository.criarSaldo(idUsuario) == 1) {
+                return Verificacao.CRIADO;
+            }
+            // criado por um ajuste concorrente
+            gravado = repository.bloquearSaldo(idUsuario);
+        }
+
+        if(repository.corrigirSaldo(idUsuario) == 0) {
+            return Verificacao.CONFERIDO;
+        }
+        log.warn("Saldo divergente para o usuário {}: gravado {}, calculado {}",
+                idUsuario, gravado.orElse(null), calcularSaldo(idUsuario));
+        return Verificacao.CORRIGIDO;
+    }
+
+    private Dinheiro calcularSaldo(Long idUsuario) {
+        Dinheiro saldo = lancamentoRepository.calcularSaldoDoUsuario(idUsuario);
+        return saldo == null ? Dinheiro.ZERO : saldo;
+    }
+
+    private enum Verificacao { CONFERIDO, CORRIGIDO, CRIADO }
+}
@@ -0,0 +1,25 @@
+CREATE SCHEMA IF NOT EXISTS financas;
+
+CREATE TABLE financas.usuario
+(
+  id bigserial NOT NULL PRIMARY KEY,
+  nome character varying(150),
+  email character varying(100),
+  senha character varying(20),
+  data_cadastro date default now()
+);
+
+CREATE SEQUENCE financas.lancamento_id_seq;
+
+CREATE TABLE financas.lancamento
+(
+  id bigint NOT NULL DEFAULT nextval('financas.lancamento_id_seq') PRIMARY KEY,
+  descricao character varying(100) NOT NULL,
+  mes integer NOT NULL,
+  ano integer NOT NULL,
+  valor numeric(16,2),
+  tipo character varying(20),
+  status character varying(20),
+  id_usuario bigint REFERENCES financas.usuario (id),
+  data_cadastro date default now()
+);
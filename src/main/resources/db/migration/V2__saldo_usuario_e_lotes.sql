@@ -0,0 +1,10 @@
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_id ON financas.lancamento (id_usuario, id);
+
+CREATE TABLE IF NOT EXISTS financas.saldo_usuario
+(
+  id_usuario bigint NOT NULL PRIMARY KEY REFERENCES financas.usuario (id),
+  saldo numeric(16,2) NOT NULL default 0
+);
+
+-- os ids de lançamento são reservados em blocos de 50 pela aplicação (inserts em lote)
+ALTER SEQUENCE financas.lancamento_id_seq INCREMENT BY 50;
@@ -0,0 +1,8 @@
+-- saldo e resumo por tipo/status (obterSaldoPorTipoLancamentoEUsuarioEStatus, calcularSaldoDoUsuario)
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_tipo_status ON financas.lancamento (id_usuario, tipo, status);
+
+-- filtros por período (buscar, buscarPagina, resumirPorMes)
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_ano_mes ON financas.lancamento (id_usuario, ano, mes);
+
+-- findByEmail / existsByEmail; o email também passa a ser único no banco
+CREATE UNIQUE INDEX IF NOT EXISTS uk_usuario_email ON financas.usuario (email);
@@ -0,0 +1,2 @@
+-- incrementada a cada alteração nos lançamentos do usuário; base das ETags das consultas
+ALTER TABLE financas.saldo_usuario ADD COLUMN versao bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- controle de concorrência otimista (@Version) das alterações de lançamento
+ALTER TABLE financas.lancamento ADD COLUMN versao bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,18 @@
+-- alterações de lançamentos, gravadas em lote pela auditoria assíncrona; só recebe inserções.
+-- sem chave estrangeira, para que o histórico continue depois da remoção do lançamento ou do usuário
+CREATE TABLE IF NOT EXISTS financas.lancamento_auditoria
+(
+  id bigserial NOT NULL PRIMARY KEY,
+  id_lancamento bigint NOT NULL,
+  id_usuario bigint,
+  operacao character varying(30) NOT NULL,
+  descricao character varying(100),
+  mes integer,
+  ano integer,
+  valor numeric(16,2),
+  tipo character varying(20),
+  status character varying(20),
+  data_hora timestamp NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_lancamento_auditoria_lancamento ON financas.lancamento_auditoria (id_lancamento, id);
@@ -0,0 +1,139 @@
+package com.dev.minhasfinancas.api.resource;
+
+import com.dev.minhasfinancas.config.UsuarioAutenticado;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Conta os comandos SQL de cada consulta de lançamentos: a leitura por projeção não pode
+ * carregar o usuário de cada linha (N+1).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class LancamentoConsultaSqlTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Usuario usuario;
+    Long idLancamento;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        List<Lancamento> lancamentos = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+            lancamento.setUsuario(usuario);
+            lancamentos.add(lancamento);
+        }
+        idLancamento = lancamentoRepository.saveAll(lancamentos).get(0).getId();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveBuscarLancamentosComUmaUnicaConsulta() throws Exception {
+        long comandos = comandosExecutados( MockMvcRequestBuilders.get("/api/lancamentos?descricao=qualquer") );
+
+        assertThat(comandos).isEqualTo(1);
+    }
+
+    @Test
+    public void deveBuscarUmaPaginaComUmaUnicaConsulta() throws Exception {
+        long comandos = comandosExecutados( MockMvcRequestBuilders.get("/api/lancamentos/pagina?limite=10") );
+
+        assertThat(comandos).isEqualTo(1);
+    }
+
+    @Test
+    public void deveObterUmLancamentoComUmaUnicaConsulta() throws Exception {
+        long comandos = comandosExecutados( MockMvcRequestBuilders.get("/api/lancamentos/" + idLancamento) );
+
+        assertThat(comandos).isEqualTo(1);
+    }
+
+    @Test
+    public void deveAtualizarOStatusDeVariosLancamentosComUmUnicoUpdate() throws Exception {
+        jdbcTemplate.update("insert into financas.saldo_usuario (id_usuario, saldo) values (?, 0)", usuario.getId());
+        String ids = lancamentoRepository.findAll().stream()
+                .map( l -> l.getId().toString() )
+                .collect(Collectors.joining(","));
+
+        long comandos = comandosExecutados( MockMvcRequestBuilders.put("/api/lancamentos/atualiza-status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [" + ids + "], \"status\": \"EFETIVADO\"}") );
+
+        // trava das linhas, update dos lançamentos e ajuste do saldo
+        assertThat(comandos).isEqualTo(3);
+    }
+
+    @Test
+    public void deveAlterarADescricaoSemCarregarOLancamento() throws Exception {
+        jdbcTemplate.update("insert into financas.saldo_usuario (id_usuario, saldo) values (?, 0)", usuario.getId());
+
+        long comandos = comandosExecutados( MockMvcRequestBuilders.patch("/api/lancamentos/" + idLancamento)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"descricao\": \"nova descricao\"}") );
+
+        // update só da descrição (e versão) do lançamento, e a versão do usuário para as ETags
+        assertThat(comandos).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select descricao from financas.lancamento where id = ?", String.class, idLancamento))
+                .isEqualTo("nova descricao");
+    }
+
+    private long comandosExecutados(MockHttpServletRequestBuilder request) throws Exception {
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        mvc.perform(request.requestAttr(UsuarioAutenticado.ATRIBUTO,
+                new UsuarioAutenticado(usuario.getId(), usuario.getNome(), usuario.getEmail(), Long.MAX_VALUE)))
+                .andExpect( MockMvcResultMatchers.status().is2xxSuccessful() );
+
+        return estatisticas.getPrepareStatementCount();
+    }
+}
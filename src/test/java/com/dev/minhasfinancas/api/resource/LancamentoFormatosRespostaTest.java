@@ -0,0 +1,113 @@
+package com.dev.minhasfinancas.api.resource;
+
+import com.dev.minhasfinancas.api.dto.LancamentoDTO;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Negociação de conteúdo e compressão, com o servidor embutido (o MockMvc não comprime as respostas).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class LancamentoFormatosRespostaTest {
+
+    static final int LANCAMENTOS = 40;
+    static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Usuario usuario;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        for (int i = 0; i < LANCAMENTOS; i++) {
+            Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+            lancamento.setUsuario(usuario);
+            lancamentoRepository.save(lancamento);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveResponderEmCborESmileOsMesmosLancamentosDoJson() throws Exception {
+        //execucao
+        ResponseEntity<byte[]> json = buscar(MediaType.APPLICATION_JSON, null);
+        ResponseEntity<byte[]> cbor = buscar(MediaType.APPLICATION_CBOR, null);
+        ResponseEntity<byte[]> smile = buscar(SMILE, null);
+
+        //verificacao
+        LancamentoDTO[] esperados = new ObjectMapper().readValue(json.getBody(), LancamentoDTO[].class);
+        assertThat(esperados).hasSize(LANCAMENTOS);
+        assertThat(cbor.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(cbor.getBody(), LancamentoDTO[].class)).containsExactly(esperados);
+        assertThat(smile.getHeaders().getContentType()).isEqualTo(SMILE);
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(smile.getBody(), LancamentoDTO[].class)).containsExactly(esperados);
+        assertThat(cbor.getBody().length).isLessThan(json.getBody().length);
+    }
+
+    @Test
+    public void deveComprimirComGzipQuandoOClienteAceita() throws Exception {
+        //execucao
+        ResponseEntity<byte[]> semCompressao = buscar(MediaType.APPLICATION_JSON, null);
+        ResponseEntity<byte[]> comprimida = buscar(MediaType.APPLICATION_JSON, "gzip");
+
+        //verificacao
+        assertThat(comprimida.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(comprimida.getBody().length).isLessThan(semCompressao.getBody().length);
+        byte[] descomprimida = new GZIPInputStream(new ByteArrayInputStream(comprimida.getBody())).readAllBytes();
+        assertThat(descomprimida).isEqualTo(semCompressao.getBody());
+    }
+
+    private ResponseEntity<byte[]> buscar(MediaType formato, String codificacao) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(formato));
+        if(codificacao != null) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, codificacao);
+        }
+        return restTemplate.exchange("/api/lancamentos?usuario=" + usuario.getId(),
+                HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+}
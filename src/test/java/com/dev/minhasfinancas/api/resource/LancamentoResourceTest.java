@@ -0,0 +1,479 @@
+package com.dev.minhasfinancas.api.resource;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.dev.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.dev.minhasfinancas.api.dto.LancamentoDTO;
+import com.dev.minhasfinancas.config.UsuarioAutenticado;
+import com.dev.minhasfinancas.exceptions.ConflitoAtualizacaoException;
+import com.dev.minhasfinancas.exceptions.RegraNegocioException;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.ResultadoAtualizacaoStatus;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoProjecao;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoProjecaoVersionada;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.model.enums.FormatoExtrato;
+import com.dev.minhasfinancas.service.ExportacaoService;
+import com.dev.minhasfinancas.service.ImportacaoService;
+import com.dev.minhasfinancas.service.LancamentoService;
+import com.dev.minhasfinancas.service.ProgressoImportacao;
+import com.dev.minhasfinancas.service.UsuarioService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest( controllers = LancamentoResource.class )
+@AutoConfigureMockMvc
+public class LancamentoResourceTest {
+
+    static final String API = "/api/lancamentos";
+    static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    LancamentoService service;
+
+    @MockBean
+    UsuarioService usuarioService;
+
+    @MockBean
+    ExportacaoService exportacaoService;
+
+    @MockBean
+    ImportacaoService importacaoService;
+
+    @Test
+    public void deveRetornarUmaPaginaComOCursorDaProxima() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1l).build();
+        LancamentoProjecao primeiro = projecao(lancamento(5l, usuario));
+        LancamentoProjecao segundo = projecao(lancamento(8l, usuario));
+
+        Mockito.when( usuarioService.obterPorId(1l) ).thenReturn(Optional.of(usuario));
+        Mockito.when( service.buscarPagina(Mockito.any(Lancamento.class), Mockito.eq(4l), Mockito.eq(2)) )
+                .thenReturn(new SliceImpl<>(Arrays.asList(primeiro, segundo), PageRequest.of(0, 2), true));
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/pagina?usuario=1&apos=4&limite=2") )
+                .accept( JSON );
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isOk()  )
+                .andExpect( MockMvcResultMatchers.jsonPath("conteudo.length()").value(2)  )
+                .andExpect( MockMvcResultMatchers.jsonPath("conteudo[0].id").value(5)  )
+                .andExpect( MockMvcResultMatchers.jsonPath("proximo").value(8)  )
+        ;
+    }
+
+    @Test
+    public void devePaginarComOUsuarioDoTokenSemConsultarOBanco() throws Exception {
+        //cenario
+        Mockito.when( service.buscarPagina(Mockito.any(Lancamento.class), Mockito.isNull(), Mockito.isNull()) )
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/pagina") )
+                .requestAttr( UsuarioAutenticado.ATRIBUTO, new UsuarioAutenticado(1l, "usuario", "usuario@email.com", Long.MAX_VALUE) )
+                .accept( JSON );
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isOk()  );
+
+        ArgumentCaptor<Lancamento> filtro = ArgumentCaptor.forClass(Lancamento.class);
+        Mockito.verify(service).buscarPagina(filtro.capture(), Mockito.isNull(), Mockito.isNull());
+        org.assertj.core.api.Assertions.assertThat(filtro.getValue().getUsuario().getId()).isEqualTo(1l);
+        Mockito.verifyNoInteractions(usuarioService);
+    }
+
+    @Test
+    public void deveRetornarBadRequestAoPaginarParaUsuarioInexistente() throws Exception {
+        //cenario
+        Mockito.when( usuarioService.obterPorId(1l) ).thenReturn(Optional.empty());
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/pagina?usuario=1") )
+                .accept( JSON );
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isBadRequest()  );
+    }
+
+    @Test
+    public void deveBuscarLancamentosPorTrechoDaDescricao() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1l).build();
+        Mockito.when( usuarioService.obterPorId(1l) ).thenReturn(Optional.of(usuario));
+        Mockito.when( service.buscarPorDescricao(1l, "luz", null) ).thenReturn(Arrays.asList(lancamento(5l, usuario)));
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/busca?usuario=1&termo=luz") )
+                .accept( JSON );
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isOk()  )
+                .andExpect( MockMvcResultMatchers.jsonPath("length()").value(1)  )
+                .andExpect( MockMvcResultMatchers.jsonPath("[0].id").value(5)  );
+    }
+
+    @Test
+    public void deveRetornarBadRequestAoAutocompletarComLimiteInvalido() throws Exception {
+        //cenario
+        Mockito.when( service.autocompletarDescricao(1l, "co", 1000) )
+                .thenThrow(new RegraNegocioException("Informe um limite entre 1 e 100."));
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/autocompletar?usuario=1&prefixo=co&limite=1000") )
+                .accept( JSON );
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isBadRequest()  );
+    }
+
+    @Test
+    public void deveRetornarBadRequestAoExportarEmFormatoInvalido() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/exportar?usuario=1&formato=xml") );
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isBadRequest()  );
+
+        Mockito.verifyNoInteractions(exportacaoService);
+    }
+
+    @Test
+    public void deveImportarOExtratoLidoDoCorpoDaRequisicao() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1l).build();
+        ProgressoImportacao progresso = new ProgressoImportacao("abc", 1l, FormatoExtrato.OFX, 200, 10);
+        progresso.adicionarBytesLidos(50);
+        progresso.adicionarGravados(3);
+        progresso.rejeitar(7, "Informe um Valor válido.");
+        progresso.terminar();
+
+        Mockito.when( usuarioService.obterPorId(1l) ).thenReturn(Optional.of(usuario));
+        Mockito.when( importacaoService.importar(Mockito.eq(usuario), Mockito.eq(FormatoExtrato.OFX), Mockito.any(),
+                Mockito.any(), Mockito.eq(5l)) ).thenReturn(progresso);
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post( API.concat("/importar?usuario=1&formato=ofx") )
+                .contentType( "application/x-ofx" )
+                .content("<OFX>");
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.jsonPath("id").value("abc") )
+                .andExpect( MockMvcResultMatchers.jsonPath("estado").value("CONCLUIDA") )
+                .andExpect( MockMvcResultMatchers.jsonPath("percentual").value(25) )
+                .andExpect( MockMvcResultMatchers.jsonPath("gravados").value(3) )
+                .andExpect( MockMvcResultMatchers.jsonPath("erros[0]").value("Linha 7: Informe um Valor válido.") );
+    }
+
+    @Test
+    public void deveRecusarImportacaoEnviadaComoFormulario() throws Exception {
+        // o corpo de um formulário seria consumido pelo container ao ler os parâmetros
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post( API.concat("/importar?usuario=1") )
+                .contentType( MediaType.APPLICATION_FORM_URLENCODED )
+                .content("data,descricao,valor");
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isUnsupportedMediaType() );
+
+        Mockito.verifyNoInteractions(importacaoService);
+    }
+
+    @Test
+    public void naoDeveMostrarOProgressoDaImportacaoDeOutroUsuario() throws Exception {
+        Mockito.when( usuarioService.obterPorId(2l) ).thenReturn(Optional.of(Usuario.builder().id(2l).build()));
+        Mockito.when( importacaoService.obterProgresso("abc") )
+                .thenReturn(Optional.of(new ProgressoImportacao("abc", 1l, FormatoExtrato.CSV, -1, 10)));
+
+        mvc
+                .perform( MockMvcRequestBuilders.get( API.concat("/importacoes/abc?usuario=2") ) )
+                .andExpect( MockMvcResultMatchers.status().isNotFound() );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void deveSalvarUmLoteBuscandoOUsuarioUmaUnicaVez() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1l).build();
+        LancamentoDTO dto = LancamentoDTO.builder().descricao("Mercado").mes(1).ano(2020)
+                .valor(Dinheiro.de("10")).tipo("DESPESA").usuario(1l).build();
+        String json = new ObjectMapper().writeValueAsString(Arrays.asList(dto, dto, dto));
+
+        Mockito.when( usuarioService.obterPorId(1l) ).thenReturn(Optional.of(usuario));
+        Mockito.when( service.salvarLote(Mockito.anyList()) ).thenAnswer( i -> {
+            List<Lancamento> salvos = i.getArgument(0);
+            salvos.forEach( l -> l.setStatus(StatusLancamento.PENDENTE) );
+            return salvos;
+        });
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post( API.concat("/lote") )
+                .accept( JSON )
+                .contentType( JSON )
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isCreated()  )
+                .andExpect( MockMvcResultMatchers.jsonPath("length()").value(3)  );
+
+        ArgumentCaptor<List<Lancamento>> lote = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(service).salvarLote(lote.capture());
+        Mockito.verify(usuarioService, Mockito.times(1)).obterPorId(1l);
+        org.assertj.core.api.Assertions.assertThat(lote.getValue()).hasSize(3).allMatch(l -> l.getUsuario() == usuario);
+    }
+
+    @Test
+    public void deveAlterarApenasOsCamposInformados() throws Exception {
+        mvc
+                .perform(MockMvcRequestBuilders.patch( API.concat("/5") )
+                        .requestAttr( UsuarioAutenticado.ATRIBUTO, new UsuarioAutenticado(1l, "usuario", "usuario@email.com", Long.MAX_VALUE) )
+                        .contentType( JSON ).content("{\"descricao\": \"aluguel\"}"))
+                .andExpect( MockMvcResultMatchers.status().isNoContent()  );
+
+        ArgumentCaptor<Lancamento> alteracoes = ArgumentCaptor.forClass(Lancamento.class);
+        Mockito.verify(service).atualizarParcialmente(Mockito.eq(5l), Mockito.eq(1l), alteracoes.capture(), Mockito.isNull());
+        org.assertj.core.api.Assertions.assertThat(alteracoes.getValue())
+                .isEqualTo(Lancamento.builder().descricao("aluguel").build());
+        Mockito.verifyNoInteractions(usuarioService);
+    }
+
+    @Test
+    public void deveRetornarBadRequestAoAlterarOStatusParcialmente() throws Exception {
+        mvc
+                .perform(MockMvcRequestBuilders.patch( API.concat("/5") )
+                        .contentType( JSON ).content("{\"status\": \"EFETIVADO\"}"))
+                .andExpect( MockMvcResultMatchers.status().isBadRequest()  );
+
+        Mockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    public void deveAtualizarOStatusDeUmLancamentoSemCarregaLo() throws Exception {
+        mvc
+                .perform(MockMvcRequestBuilders.put( API.concat("/5/atualiza-status") )
+                        .contentType( JSON ).content("{\"status\": \"EFETIVADO\", \"versao\": 2}"))
+                .andExpect( MockMvcResultMatchers.status().isNoContent()  );
+
+        Mockito.verify(service).transicionarStatus(5l, null, StatusLancamento.EFETIVADO, 2l);
+        Mockito.verify(service, Mockito.never()).obterPorId(Mockito.anyLong());
+    }
+
+    @Test
+    public void deveRetornarConflitoQuandoOLancamentoMudouAntesDaTransicao() throws Exception {
+        //cenario
+        Mockito.doThrow(new ConflitoAtualizacaoException("alterado"))
+                .when(service).transicionarStatus(5l, null, StatusLancamento.EFETIVADO, 2l);
+
+        //execucao e verificacao
+        mvc
+                .perform(MockMvcRequestBuilders.put( API.concat("/5/atualiza-status") )
+                        .contentType( JSON ).content("{\"status\": \"EFETIVADO\", \"versao\": 2}"))
+                .andExpect( MockMvcResultMatchers.status().isConflict()  );
+    }
+
+    @Test
+    public void deveRetornarConflitoAoAtualizarUmaVersaoDesatualizada() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1l).build();
+        Mockito.when( usuarioService.obterPorId(1l) ).thenReturn(Optional.of(usuario));
+        Mockito.when( service.obterPorId(5l) ).thenReturn(Optional.of(lancamento(5l, usuario)));
+        Mockito.when( service.atualizar(Mockito.any(Lancamento.class)) )
+                .thenThrow(new ObjectOptimisticLockingFailureException(Lancamento.class, 5l));
+        LancamentoDTO dto = LancamentoConverter.paraDTO(lancamento(5l, usuario));
+        dto.setVersao(1l);
+
+        //execucao e verificacao
+        mvc
+                .perform(MockMvcRequestBuilders.put( API.concat("/5") )
+                        .contentType( JSON ).content(new ObjectMapper().writeValueAsString(dto)))
+                .andExpect( MockMvcResultMatchers.status().isConflict()  );
+
+        ArgumentCaptor<Lancamento> enviado = ArgumentCaptor.forClass(Lancamento.class);
+        Mockito.verify(service).atualizar(enviado.capture());
+        org.assertj.core.api.Assertions.assertThat(enviado.getValue().getVersao()).isEqualTo(1l);
+    }
+
+    @Test
+    public void deveAtualizarOStatusDeVariosLancamentosDoUsuarioDoToken() throws Exception {
+        //cenario
+        Map<Long, ResultadoAtualizacaoStatus> resultados = new LinkedHashMap<>();
+        resultados.put(5l, ResultadoAtualizacaoStatus.ATUALIZADO);
+        resultados.put(8l, ResultadoAtualizacaoStatus.NAO_ENCONTRADO);
+        Mockito.when( service.atualizarStatusEmLote(1l, Arrays.asList(5l, 8l), StatusLancamento.EFETIVADO) ).thenReturn(resultados);
+        String json = new ObjectMapper().writeValueAsString(
+                AtualizaStatusLoteDTO.builder().ids(Arrays.asList(5l, 8l)).status("EFETIVADO").build());
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put( API.concat("/atualiza-status") )
+                .requestAttr( UsuarioAutenticado.ATRIBUTO, new UsuarioAutenticado(1l, "usuario", "usuario@email.com", Long.MAX_VALUE) )
+                .contentType( JSON )
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isOk()  )
+                .andExpect( MockMvcResultMatchers.jsonPath("[0].id").value(5)  )
+                .andExpect( MockMvcResultMatchers.jsonPath("[0].resultado").value("ATUALIZADO")  )
+                .andExpect( MockMvcResultMatchers.jsonPath("[1].id").value(8)  )
+                .andExpect( MockMvcResultMatchers.jsonPath("[1].resultado").value("NAO_ENCONTRADO")  );
+
+        Mockito.verify(usuarioService, Mockito.never()).obterPorId(Mockito.anyLong());
+    }
+
+    @Test
+    public void deveRetornarBadRequestAoAtualizarStatusEmLoteComStatusInvalido() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(
+                AtualizaStatusLoteDTO.builder().ids(Arrays.asList(5l)).status("PAGO").usuario(1l).build());
+
+        mvc
+                .perform(MockMvcRequestBuilders.put( API.concat("/atualiza-status") ).contentType( JSON ).content(json))
+                .andExpect( MockMvcResultMatchers.status().isBadRequest()  );
+
+        Mockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    public void deveObterUmLancamentoComETag() throws Exception {
+        //cenario
+        Mockito.when( service.obterProjecaoPorId(5l) ).thenReturn(Optional.of(projecao(lancamento(5l, Usuario.builder().id(1l).build()))));
+
+        //execucao e verificacao
+        mvc
+                .perform(MockMvcRequestBuilders.get( API.concat("/5") ).accept( JSON ))
+                .andExpect( MockMvcResultMatchers.status().isOk()  )
+                .andExpect( MockMvcResultMatchers.header().string("ETag", "\"5-1-3\"")  )
+                .andExpect( MockMvcResultMatchers.jsonPath("id").value(5)  );
+    }
+
+    @Test
+    public void deveResponderNaoModificadoSemConsultarOLancamento() throws Exception {
+        //cenario
+        Mockito.when( service.obterVersaoPorUsuario(1l) ).thenReturn(3l);
+
+        //execucao e verificacao
+        mvc
+                .perform(MockMvcRequestBuilders.get( API.concat("/5") ).header("If-None-Match", "\"5-1-3\""))
+                .andExpect( MockMvcResultMatchers.status().isNotModified()  )
+                .andExpect( MockMvcResultMatchers.content().string("")  );
+
+        Mockito.verify(service, Mockito.never()).obterProjecaoPorId(Mockito.anyLong());
+    }
+
+    @Test
+    public void deveDevolverOLancamentoQuandoAVersaoDoDonoMudou() throws Exception {
+        //cenario
+        Mockito.when( service.obterVersaoPorUsuario(1l) ).thenReturn(3l);
+        Mockito.when( service.obterProjecaoPorId(5l) ).thenReturn(Optional.of(projecao(lancamento(5l, Usuario.builder().id(1l).build()))));
+
+        //execucao e verificacao
+        mvc
+                .perform(MockMvcRequestBuilders.get( API.concat("/5") ).header("If-None-Match", "\"5-1-2\""))
+                .andExpect( MockMvcResultMatchers.status().isOk()  )
+                .andExpect( MockMvcResultMatchers.header().string("ETag", "\"5-1-3\"")  );
+    }
+
+    @Test
+    public void naoDeveExporNemAlterarOLancamentoDeOutroUsuario() throws Exception {
+        //cenario: o lançamento 5 é do usuário 2, o token é do usuário 1
+        UsuarioAutenticado autenticado = new UsuarioAutenticado(1l, "usuario", "usuario@email.com", Long.MAX_VALUE);
+        Lancamento deOutro = lancamento(5l, Usuario.builder().id(2l).build());
+        Mockito.when( service.obterPorId(5l) ).thenReturn(Optional.of(deOutro));
+        Mockito.when( service.obterProjecaoPorId(5l) ).thenReturn(Optional.of(projecao(deOutro)));
+        String json = new ObjectMapper().writeValueAsString(LancamentoConverter.paraDTO(lancamento(5l, Usuario.builder().id(1l).build())));
+
+        //execucao e verificacao
+        mvc
+                .perform( MockMvcRequestBuilders.get( API.concat("/5") ).requestAttr( UsuarioAutenticado.ATRIBUTO, autenticado ) )
+                .andExpect( MockMvcResultMatchers.status().isNotFound() );
+        mvc
+                .perform( MockMvcRequestBuilders.get( API.concat("/5") )
+                        .requestAttr( UsuarioAutenticado.ATRIBUTO, autenticado )
+                        .header( "If-None-Match", LancamentoResource.etag(5l, 2l, 0) ) )
+                .andExpect( MockMvcResultMatchers.status().isNotFound() );
+        mvc
+                .perform( MockMvcRequestBuilders.put( API.concat("/5") )
+                        .requestAttr( UsuarioAutenticado.ATRIBUTO, autenticado )
+                        .contentType( JSON ).content(json) )
+                .andExpect( MockMvcResultMatchers.status().isNotFound() );
+        mvc
+                .perform( MockMvcRequestBuilders.delete( API.concat("/5") ).requestAttr( UsuarioAutenticado.ATRIBUTO, autenticado ) )
+                .andExpect( MockMvcResultMatchers.status().isNotFound() );
+
+        Mockito.verify(service, Mockito.never()).atualizar(Mockito.any());
+        Mockito.verify(service, Mockito.never()).deletar(Mockito.any());
+        Mockito.verify(service, Mockito.never()).obterVersaoPorUsuario(Mockito.any());
+    }
+
+    static LancamentoProjecaoVersionada projecao(Lancamento lancamento) {
+        Map<String, Object> colunas = new HashMap<>();
+        colunas.put("id", lancamento.getId());
+        colunas.put("descricao", lancamento.getDescricao());
+        colunas.put("mes", lancamento.getMes());
+        colunas.put("ano", lancamento.getAno());
+        colunas.put("valor", lancamento.getValor());
+        colunas.put("tipo", lancamento.getTipo());
+        colunas.put("status", lancamento.getStatus());
+        colunas.put("idUsuario", lancamento.getUsuario().getId());
+        colunas.put("versao", 0l);
+        colunas.put("versaoDoDono", 3l);
+        return new SpelAwareProxyProjectionFactory().createProjection(LancamentoProjecaoVersionada.class, colunas);
+    }
+
+    static Lancamento lancamento(Long id, Usuario usuario) {
+        Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+        lancamento.setId(id);
+        lancamento.setUsuario(usuario);
+        return lancamento;
+    }
+}
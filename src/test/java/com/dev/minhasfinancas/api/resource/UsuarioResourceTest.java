@@ -1,13 +1,17 @@
 package com.dev.minhasfinancas.api.resource;
 
 
-import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.Optional;
 
 import com.dev.minhasfinancas.api.dto.UsuarioDTO;
+import com.dev.minhasfinancas.config.UsuarioAutenticado;
 import com.dev.minhasfinancas.exceptions.ErroAutenticacaoException;
 import com.dev.minhasfinancas.exceptions.RegraNegocioException;
 import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.PeriodoResumo;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.JwtService;
 import com.dev.minhasfinancas.service.LancamentoService;
 import com.dev.minhasfinancas.service.UsuarioService;
 import org.junit.jupiter.api.Test;
@@ -45,6 +49,9 @@ public class UsuarioResourceTest {
     @MockBean
     LancamentoService lancamentoService;
 
+    @MockBean
+    JwtService jwtService;
+
     @Test
     public void deveAutenticarUmUsuario() throws Exception {
         //cenario
@@ -54,6 +61,7 @@ public class UsuarioResourceTest {
         UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
         Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
         Mockito.when( service.autenticar(email, senha) ).thenReturn(usuario);
+        Mockito.when( jwtService.gerarToken(usuario) ).thenReturn("token");
         String json = new ObjectMapper().writeValueAsString(dto);
 
         //execucao e verificacao
@@ -70,11 +78,67 @@ public class UsuarioResourceTest {
                 .andExpect( MockMvcResultMatchers.jsonPath("id").value(usuario.getId())  )
                 .andExpect( MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome())  )
                 .andExpect( MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail())  )
+                .andExpect( MockMvcResultMatchers.jsonPath("token").value("token")  )
+                .andExpect( MockMvcResultMatchers.jsonPath("senha").doesNotExist()  )
 
         ;
 
     }
 
+    @Test
+    public void deveObterOSaldoDoUsuarioDoTokenSemConsultarOBanco() throws Exception {
+        //cenario
+        Mockito.when( lancamentoService.obterSaldoPorUsuario(1l) ).thenReturn(Dinheiro.de("10"));
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/1/saldo") )
+                .requestAttr( UsuarioAutenticado.ATRIBUTO, new UsuarioAutenticado(1l, "usuario", "usuario@email.com", Long.MAX_VALUE) )
+                .accept( JSON );
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isOk()  );
+
+        Mockito.verify(service, Mockito.never()).obterPorId(Mockito.anyLong());
+    }
+
+    @Test
+    public void deveResponderNaoModificadoQuandoAVersaoDoSaldoNaoMudou() throws Exception {
+        //cenario
+        Mockito.when( service.obterPorId(1l) ).thenReturn(Optional.of(Usuario.builder().id(1l).build()));
+        Mockito.when( lancamentoService.obterVersaoPorUsuario(1l) ).thenReturn(7l);
+
+        //execucao e verificacao
+        mvc
+                .perform(MockMvcRequestBuilders.get( API.concat("/1/saldo") ).header("If-None-Match", "\"saldo-1-7\""))
+                .andExpect( MockMvcResultMatchers.status().isNotModified()  );
+
+        Mockito.verify(lancamentoService, Mockito.never()).obterSaldoPorUsuario(Mockito.anyLong());
+
+        Mockito.when( lancamentoService.obterVersaoPorUsuario(1l) ).thenReturn(8l);
+        Mockito.when( lancamentoService.obterSaldoPorUsuario(1l) ).thenReturn(Dinheiro.de("10"));
+        mvc
+                .perform(MockMvcRequestBuilders.get( API.concat("/1/saldo") ).header("If-None-Match", "\"saldo-1-7\""))
+                .andExpect( MockMvcResultMatchers.status().isOk()  )
+                .andExpect( MockMvcResultMatchers.header().string("ETag", "\"saldo-1-8\"")  )
+                .andExpect( MockMvcResultMatchers.content().string("10.00")  );
+    }
+
+    @Test
+    public void deveRetornarNotFoundAoConsultarOSaldoDeOutroUsuarioComToken() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/2/saldo") )
+                .requestAttr( UsuarioAutenticado.ATRIBUTO, new UsuarioAutenticado(1l, "usuario", "usuario@email.com", Long.MAX_VALUE) )
+                .accept( JSON );
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isNotFound()  );
+
+        Mockito.verifyNoInteractions(lancamentoService);
+    }
+
     @Test
     public void deveRetornarBadRequestAoObterErroDeAutenticacao() throws Exception {
         //cenario
@@ -160,6 +224,37 @@ public class UsuarioResourceTest {
 
     }
 
+    @Test
+    public void deveObterOResumoAnualDoUsuario() throws Exception {
+        //cenario
+        Mockito.when( service.obterPorId(1l) ).thenReturn(Optional.of(Usuario.builder().id(1l).build()));
+        Mockito.when( lancamentoService.obterResumo(1l, PeriodoResumo.ANUAL, 2020) ).thenReturn(Collections.emptyList());
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/1/resumo?periodo=anual&ano=2020") )
+                .accept( JSON );
 
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isOk()  );
+
+        Mockito.verify(lancamentoService).obterResumo(1l, PeriodoResumo.ANUAL, 2020);
+    }
+
+    @Test
+    public void deveRetornarNotFoundAoResumirUsuarioInexistente() throws Exception {
+        //cenario
+        Mockito.when( service.obterPorId(1l) ).thenReturn(Optional.empty());
+
+        //execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get( API.concat("/1/resumo") )
+                .accept( JSON );
+
+        mvc
+                .perform(request)
+                .andExpect( MockMvcResultMatchers.status().isNotFound()  );
+    }
 
 }
@@ -0,0 +1,90 @@
+package com.dev.minhasfinancas.benchmark;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.service.LancamentoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Compara a taxa de inserção (linhas/s) do salvar linha a linha com o salvarLote.
+ * Executado apenas com o perfil de build "benchmark": mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class LancamentoLoteBenchmarkTest {
+
+    static final int QUANTIDADE = 5_000;
+
+    @Autowired
+    LancamentoService service;
+
+    @Autowired
+    LancamentoRepository repository;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    Usuario usuario;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void deveCompararSalvarLinhaALinhaComSalvarLote() {
+        // aquecimento para não medir a carga de classes e a compilação das queries
+        salvarLinhaALinha(500);
+        service.salvarLote(lancamentos(500));
+
+        long inicio = System.nanoTime();
+        salvarLinhaALinha(QUANTIDADE);
+        double linhaALinha = QUANTIDADE / ((System.nanoTime() - inicio) / 1e9);
+
+        inicio = System.nanoTime();
+        service.salvarLote(lancamentos(QUANTIDADE));
+        double lote = QUANTIDADE / ((System.nanoTime() - inicio) / 1e9);
+
+        System.out.printf("salvar linha a linha: %.0f linhas/s | salvarLote: %.0f linhas/s (%.1fx)%n",
+                linhaALinha, lote, lote / linhaALinha);
+        assertThat(repository.count()).isEqualTo(2L * (QUANTIDADE + 500));
+    }
+
+    private void salvarLinhaALinha(int quantidade) {
+        for (Lancamento lancamento : lancamentos(quantidade)) {
+            service.salvar(lancamento);
+        }
+    }
+
+    private List<Lancamento> lancamentos(int quantidade) {
+        List<Lancamento> lancamentos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+            lancamento.setUsuario(usuario);
+            lancamentos.add(lancamento);
+        }
+        return lancamentos;
+    }
+}
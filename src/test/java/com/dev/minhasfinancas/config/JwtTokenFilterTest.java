@@ -0,0 +1,95 @@
+package com.dev.minhasfinancas.config;
+
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.service.JwtService;
+import com.dev.minhasfinancas.service.impl.JwtServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JwtTokenFilterTest {
+
+    JwtService jwtService = new JwtServiceImpl(30,
+            Base64.getEncoder().encodeToString("chave-de-teste-com-tamanho-suficiente-para-hs512-0123456789abcdef".getBytes()));
+
+    @Test
+    public void deveColocarOUsuarioDoTokenNaRequisicao() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(7l).nome("usuario").email("usuario@email.com").build();
+        MockHttpServletRequest request = requisicao("GET", "/api/lancamentos");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.gerarToken(usuario));
+        MockFilterChain chain = new MockFilterChain();
+
+        //execucao
+        new JwtTokenFilter(jwtService, true).doFilter(request, new MockHttpServletResponse(), chain);
+
+        //verificacao
+        UsuarioAutenticado autenticado = (UsuarioAutenticado) request.getAttribute(UsuarioAutenticado.ATRIBUTO);
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(autenticado.getId()).isEqualTo(7l);
+        assertThat(autenticado.getEmail()).isEqualTo("usuario@email.com");
+    }
+
+    @Test
+    public void deveValidarAAssinaturaDeCadaTokenUmaUnicaVez() {
+        //cenario
+        JwtService espiao = Mockito.spy(jwtService);
+        JwtTokenFilter filtro = new JwtTokenFilter(espiao, true);
+        String token = jwtService.gerarToken(Usuario.builder().id(7l).build());
+
+        //execucao
+        UsuarioAutenticado primeiro = filtro.autenticar(token);
+        UsuarioAutenticado segundo = filtro.autenticar(token);
+
+        //verificacao
+        assertThat(segundo).isSameAs(primeiro);
+        Mockito.verify(espiao, Mockito.times(1)).obterClaims(token);
+    }
+
+    @Test
+    public void deveRetornarNaoAutorizadoComTokenInvalido() throws Exception {
+        //cenario
+        MockHttpServletRequest request = requisicao("GET", "/api/lancamentos");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer invalido");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        //execucao
+        new JwtTokenFilter(jwtService, false).doFilter(request, response, chain);
+
+        //verificacao
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    public void deveExigirTokenApenasForaDasRotasPublicasQuandoConfigurado() throws Exception {
+        //cenario
+        MockHttpServletResponse semToken = new MockHttpServletResponse();
+        MockFilterChain autenticar = new MockFilterChain();
+        MockFilterChain semTokenOpcional = new MockFilterChain();
+
+        //execucao
+        new JwtTokenFilter(jwtService, true).doFilter(requisicao("GET", "/api/lancamentos"), semToken, new MockFilterChain());
+        new JwtTokenFilter(jwtService, true).doFilter(requisicao("POST", "/api/usuarios/autenticar"), new MockHttpServletResponse(), autenticar);
+        new JwtTokenFilter(jwtService, false).doFilter(requisicao("GET", "/api/lancamentos"), new MockHttpServletResponse(), semTokenOpcional);
+
+        //verificacao
+        assertThat(semToken.getStatus()).isEqualTo(401);
+        assertThat(autenticar.getRequest()).isNotNull();
+        assertThat(semTokenOpcional.getRequest()).isNotNull();
+    }
+
+    private MockHttpServletRequest requisicao(String metodo, String caminho) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, caminho);
+        request.setServletPath(caminho);
+        return request;
+    }
+}
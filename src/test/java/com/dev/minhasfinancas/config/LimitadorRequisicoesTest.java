@@ -0,0 +1,97 @@
+package com.dev.minhasfinancas.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LimitadorRequisicoesTest {
+
+    AtomicLong relogio = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void deveAceitarARajadaERecarregarComOTempo() {
+        //cenario
+        LimitadorRequisicoes limitador = limitador(10.0, 3, 0);
+
+        //execucao
+        boolean primeira = limitador.adquirir("busca", "1").isConcedida();
+        boolean segunda = limitador.adquirir("busca", "1").isConcedida();
+        boolean terceira = limitador.adquirir("busca", "1").isConcedida();
+        LimitadorRequisicoes.Permissao excedida = limitador.adquirir("busca", "1");
+        boolean outroUsuario = limitador.adquirir("busca", "2").isConcedida();
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        boolean aposRecarga = limitador.adquirir("busca", "1").isConcedida();
+
+        //verificacao
+        assertThat(primeira && segunda && terceira).isTrue();
+        assertThat(excedida.isConcedida()).isFalse();
+        assertThat(excedida.getEsperaEmSegundos()).isEqualTo(1);
+        assertThat(outroUsuario).isTrue();
+        assertThat(aposRecarga).isTrue();
+        assertThat(rejeicoes("taxa")).isEqualTo(1);
+    }
+
+    @Test
+    public void deveLimitarRequisicoesSimultaneasDoMesmoUsuario() {
+        //cenario
+        LimitadorRequisicoes limitador = limitador(1000.0, 100, 2);
+        LimitadorRequisicoes.Permissao primeira = limitador.adquirir("busca", "1");
+        LimitadorRequisicoes.Permissao segunda = limitador.adquirir("busca", "1");
+
+        //execucao
+        boolean terceira = limitador.adquirir("busca", "1").isConcedida();
+        primeira.liberar();
+        boolean aposLiberar = limitador.adquirir("busca", "1").isConcedida();
+
+        //verificacao
+        assertThat(segunda.isConcedida()).isTrue();
+        assertThat(terceira).isFalse();
+        assertThat(aposLiberar).isTrue();
+        assertThat(rejeicoes("concorrencia")).isEqualTo(1);
+    }
+
+    @Test
+    public void deveDescartarApenasAsCotasOciosas() {
+        //cenario
+        LimitadorRequisicoes limitador = limitador(10.0, 1, 1);
+        limitador.adquirir("busca", "1").liberar();
+        limitador.adquirir("busca", "2");
+
+        //execucao
+        relogio.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limitador.descartarCotasOciosas();
+
+        //verificacao: a cota do usuário 2 ainda tem uma requisição em andamento
+        assertThat(limitador.getQuantidadeCotas()).isEqualTo(1);
+    }
+
+    @Test
+    public void deveUsarOPadraoNosCamposNaoInformadosDoEndpoint() {
+        //cenario
+        LimitesProperties properties = new LimitesProperties();
+        properties.getEndpoints().put("saldo", new LimitesProperties.Limite(null, null, 2));
+
+        //execucao
+        LimitesProperties.Limite limite = properties.obter("saldo");
+
+        //verificacao
+        assertThat(limite.getRequisicoesPorSegundo()).isEqualTo(properties.getPadrao().getRequisicoesPorSegundo());
+        assertThat(limite.getRajada()).isEqualTo(properties.getPadrao().getRajada());
+        assertThat(limite.getConcorrencia()).isEqualTo(2);
+    }
+
+    private LimitadorRequisicoes limitador(double requisicoesPorSegundo, int rajada, int concorrencia) {
+        LimitesProperties properties = new LimitesProperties();
+        properties.getEndpoints().put("busca", new LimitesProperties.Limite(requisicoesPorSegundo, rajada, concorrencia));
+        return new LimitadorRequisicoes(properties, registry, relogio::get);
+    }
+
+    private double rejeicoes(String motivo) {
+        return registry.counter(LimitadorRequisicoes.METRICA_REJEICOES, "limite", "busca", "motivo", motivo).count();
+    }
+}
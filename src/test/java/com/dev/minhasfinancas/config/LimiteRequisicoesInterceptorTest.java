@@ -0,0 +1,52 @@
+package com.dev.minhasfinancas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "minhasfinancas.limites.endpoints.saldo.requisicoes-por-segundo=0.001",
+        "minhasfinancas.limites.endpoints.saldo.rajada=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class LimiteRequisicoesInterceptorTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    public void deveResponderTooManyRequestsAoExcederOLimiteDoEnderecoSemToken() throws Exception {
+        //cenario: usuários inexistentes (404) também consomem a cota
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/901/saldo"))
+                    .andExpect(MockMvcResultMatchers.status().isNotFound());
+        }
+
+        //execucao e verificacao: trocar o id na URL não renova a cota do endereço
+        mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/901/saldo"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.RETRY_AFTER));
+        mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/902/saldo").param("usuario", "902"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+        mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/902/saldo").with( request -> {
+                    request.setRemoteAddr("10.0.0.2");
+                    return request;
+                }))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        assertThat(registry.counter(LimitadorRequisicoes.METRICA_REJEICOES, "limite", "saldo", "motivo", "taxa").count())
+                .isEqualTo(2);
+    }
+}
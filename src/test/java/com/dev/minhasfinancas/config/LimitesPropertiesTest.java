@@ -0,0 +1,38 @@
+package com.dev.minhasfinancas.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LimitesPropertiesTest {
+
+    ApplicationContextRunner contexto = new ApplicationContextRunner().withUserConfiguration(Limites.class);
+
+    @Test
+    public void deveRecusarNaSubidaUmLimiteSemRequisicoesPorSegundoPositivo() {
+        contexto.withPropertyValues("minhasfinancas.limites.endpoints.busca.requisicoes-por-segundo=0")
+                .run( context -> assertThat(context).hasFailed()
+                        .getFailure().hasStackTraceContaining("endpoints[busca].requisicoesPorSegundo") );
+        contexto.withPropertyValues("minhasfinancas.limites.padrao.requisicoes-por-segundo=-1")
+                .run( context -> assertThat(context).hasFailed() );
+        contexto.withPropertyValues("minhasfinancas.limites.endpoints.busca.rajada=-1")
+                .run( context -> assertThat(context).hasFailed() );
+    }
+
+    @Test
+    public void deveAceitarOsLimitesValidos() {
+        contexto.withPropertyValues(
+                "minhasfinancas.limites.endpoints.exportacao.requisicoes-por-segundo=0.2",
+                "minhasfinancas.limites.endpoints.saldo.concorrencia=0")
+                .run( context -> assertThat(context.getBean(LimitesProperties.class).obter("exportacao").getRequisicoesPorSegundo())
+                        .isEqualTo(0.2) );
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(LimitesProperties.class)
+    static class Limites {
+    }
+}
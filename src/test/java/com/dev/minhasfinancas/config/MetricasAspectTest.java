@@ -0,0 +1,77 @@
+package com.dev.minhasfinancas.config;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.service.LancamentoService;
+import com.dev.minhasfinancas.service.UsuarioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class MetricasAspectTest {
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioService usuarioService;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    public void deveCronometrarServicosERepositorioPorOperacaoEResultado() {
+        //cenario
+        long count = contagem(MetricasAspect.METRICA_REPOSITORIO, "LancamentoRepository", "count", "sucesso");
+        long salvar = contagem(MetricasAspect.METRICA_SERVICO, "LancamentoService", "salvar", "regra_negocio");
+        long autenticar = contagem(MetricasAspect.METRICA_SERVICO, "UsuarioService", "autenticar", "erro_autenticacao");
+
+        //execucao
+        lancamentoRepository.count();
+        catchThrowable( () -> lancamentoService.salvar(new Lancamento()) );
+        catchThrowable( () -> usuarioService.autenticar("inexistente@email.com", "senha") );
+
+        //verificacao
+        assertThat(contagem(MetricasAspect.METRICA_REPOSITORIO, "LancamentoRepository", "count", "sucesso")).isEqualTo(count + 1);
+        assertThat(contagem(MetricasAspect.METRICA_SERVICO, "LancamentoService", "salvar", "regra_negocio")).isEqualTo(salvar + 1);
+        assertThat(contagem(MetricasAspect.METRICA_SERVICO, "UsuarioService", "autenticar", "erro_autenticacao")).isEqualTo(autenticar + 1);
+    }
+
+    @Test
+    public void devePublicarOHistogramaNoEndpointDoPrometheus() throws Exception {
+        lancamentoRepository.count();
+
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect( MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.content().string(containsString("minhasfinancas_repositorio_seconds_bucket")) );
+    }
+
+    private long contagem(String metrica, String classe, String operacao, String resultado) {
+        Timer timer = registry.find(metrica)
+                .tag("classe", classe)
+                .tag("operacao", operacao)
+                .tag("resultado", resultado)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,101 @@
+package com.dev.minhasfinancas.config;
+
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.LancamentoService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Primário e réplica são dois bancos H2 independentes; o mesmo usuário tem saldos diferentes em cada um
+ * para que a consulta mostre de onde a leitura veio.
+ */
+@SpringBootTest(properties = {
+        "minhasfinancas.datasource.roteamento.habilitado=true",
+        "spring.datasource.url=jdbc:h2:mem:primario;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas",
+        "minhasfinancas.datasource.replicas[0].url=" + RoteamentoDataSourceConfigTest.URL_REPLICA,
+        "minhasfinancas.datasource.replicas[0].username=sa",
+        "minhasfinancas.datasource.replicas[0].password=sa",
+        "minhasfinancas.datasource.consulta-atraso=select segundos from financas.atraso_replicacao",
+        "minhasfinancas.datasource.intervalo-verificacao=3600000"
+})
+@ActiveProfiles("test")
+public class RoteamentoDataSourceConfigTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas";
+    static final long ID_USUARIO = 1000;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    ReplicasLeitura replicasLeitura;
+
+    @Autowired
+    JdbcTemplate primario;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(URL_REPLICA, "sa", "sa"));
+
+    @BeforeEach
+    public void setUp() {
+        Flyway.configure().dataSource(replica.getDataSource()).schemas("financas").load().migrate();
+        replica.execute("create table if not exists financas.atraso_replicacao (segundos numeric)");
+        replica.update("insert into financas.atraso_replicacao values (0)");
+
+        for (JdbcTemplate banco : new JdbcTemplate[]{ primario, replica }) {
+            banco.update("insert into financas.usuario (id, nome, email, senha) values (?, 'usuario', 'usuario@email.com', 'senha')", ID_USUARIO);
+        }
+        primario.update("insert into financas.saldo_usuario (id_usuario, saldo) values (?, 1)", ID_USUARIO);
+        replica.update("insert into financas.saldo_usuario (id_usuario, saldo) values (?, 999)", ID_USUARIO);
+
+        replicasLeitura.verificar();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (JdbcTemplate banco : new JdbcTemplate[]{ primario, replica }) {
+            banco.update("delete from financas.saldo_usuario");
+            banco.update("delete from financas.usuario");
+        }
+        replica.update("delete from financas.atraso_replicacao");
+        // os saldos mudam por fora do Hibernate: sem isso o próximo teste leria o saldo do cache de segundo nível
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void deveLerDaReplicaApenasEmTransacoesSomenteLeitura() {
+        assertThat(lancamentoService.obterSaldoPorUsuario(ID_USUARIO)).isEqualTo(Dinheiro.de("999"));
+        assertThat(primario.queryForObject("select saldo from financas.saldo_usuario", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    public void deveLerDoPrimarioEnquantoAReplicaEstiverAtrasada() {
+        //cenario
+        replica.update("update financas.atraso_replicacao set segundos = 120");
+
+        //execucao
+        replicasLeitura.verificar();
+
+        //verificacao
+        assertThat(lancamentoService.obterSaldoPorUsuario(ID_USUARIO)).isEqualTo(Dinheiro.de("1"));
+
+        replica.update("update financas.atraso_replicacao set segundos = 0");
+        replicasLeitura.verificar();
+        // o saldo lido do primário ficaria no cache até expirar
+        entityManagerFactory.getCache().evictAll();
+        assertThat(lancamentoService.obterSaldoPorUsuario(ID_USUARIO)).isEqualTo(Dinheiro.de("999"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.dev.minhasfinancas.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RoteamentoDataSourceTest {
+
+    DataSource primario = Mockito.mock(DataSource.class);
+    DataSource replica1 = Mockito.mock(DataSource.class);
+    DataSource replica2 = Mockito.mock(DataSource.class);
+    Connection conexaoPrimario = Mockito.mock(Connection.class);
+    Connection conexaoReplica1 = Mockito.mock(Connection.class);
+    Connection conexaoReplica2 = Mockito.mock(Connection.class);
+
+    ReplicasLeitura replicas = new ReplicasLeitura(Arrays.asList(replica1, replica2), Duration.ofSeconds(30), "select 0");
+    RoteamentoDataSource roteamento;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        Mockito.when(primario.getConnection()).thenReturn(conexaoPrimario);
+        Mockito.when(replica1.getConnection()).thenReturn(conexaoReplica1);
+        Mockito.when(replica2.getConnection()).thenReturn(conexaoReplica2);
+        roteamento = new RoteamentoDataSource(primario, replicas);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    // a conexão física só é obtida no primeiro uso do proxy
+    private Connection conexao() throws SQLException {
+        return ((ConnectionProxy) roteamento.getConnection()).getTargetConnection();
+    }
+
+    @Test
+    public void deveUsarOPrimarioForaDeTransacoesSomenteLeitura() throws SQLException {
+        assertThat(conexao()).isSameAs(conexaoPrimario);
+    }
+
+    @Test
+    public void deveAlternarEntreAsReplicasNasLeituras() throws SQLException {
+        //cenario
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //execucao e verificacao
+        assertThat(conexao()).isSameAs(conexaoReplica1);
+        assertThat(conexao()).isSameAs(conexaoReplica2);
+        assertThat(conexao()).isSameAs(conexaoReplica1);
+    }
+
+    @Test
+    public void deveRetirarDoRodizioAReplicaQueFalhaAoConectar() throws SQLException {
+        //cenario
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Mockito.when(replica1.getConnection()).thenThrow(new SQLException("fora do ar"));
+
+        //execucao e verificacao
+        assertThat(conexao()).isSameAs(conexaoReplica2);
+        assertThat(conexao()).isSameAs(conexaoReplica2);
+        assertThat(replicas.getDisponiveis()).isEqualTo(1);
+        Mockito.verify(replica1, Mockito.times(1)).getConnection();
+    }
+
+    @Test
+    public void deveLerDoPrimarioQuandoNenhumaReplicaEstiverDisponivel() throws SQLException {
+        //cenario
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Mockito.when(replica1.getConnection()).thenThrow(new SQLException("fora do ar"));
+        Mockito.when(replica2.getConnection()).thenThrow(new SQLException("fora do ar"));
+
+        //execucao e verificacao
+        assertThat(conexao()).isSameAs(conexaoPrimario);
+        assertThat(replicas.getDisponiveis()).isZero();
+    }
+}
@@ -0,0 +1,97 @@
+package com.dev.minhasfinancas.model.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Confere, pelo plano de execução, que as consultas mais frequentes usam os índices criados
+ * pelas migrações em vez de varrer as tabelas. As tabelas recebem uma massa de dados e estatísticas
+ * (ANALYZE) para que o otimizador escolha pelo custo, como faria em produção.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IndicesConsultasTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        List<Object[]> usuarios = new ArrayList<>();
+        List<Object[]> lancamentos = new ArrayList<>();
+        for (int u = 1; u <= 20; u++) {
+            usuarios.add(new Object[]{ "usuario" + u, "usuario" + u + "@email.com" });
+        }
+        jdbcTemplate.batchUpdate("insert into financas.usuario (nome, email, senha) values (?, ?, 'senha')", usuarios);
+
+        List<Long> ids = jdbcTemplate.queryForList("select id from financas.usuario", Long.class);
+        for (Long idUsuario : ids) {
+            for (int i = 0; i < 100; i++) {
+                lancamentos.add(new Object[]{ "Lançamento " + i, i % 12 + 1, 2000 + i % 20, idUsuario,
+                        i % 2 == 0 ? "RECEITA" : "DESPESA", i % 3 == 0 ? "EFETIVADO" : "PENDENTE" });
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into financas.lancamento (descricao, mes, ano, id_usuario, tipo, status, valor) "
+                + "values (?, ?, ?, ?, ?, ?, 10)", lancamentos);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveUsarOIndiceDeTipoEStatusNoCalculoDoSaldo() {
+        String plano = explicar("select sum(valor) from financas.lancamento "
+                + "where id_usuario = 1 and tipo = 'RECEITA' and status = 'EFETIVADO'");
+
+        assertThat(plano).containsIgnoringCase("idx_lancamento_usuario_tipo_status");
+    }
+
+    @Test
+    public void deveUsarOIndiceDePeriodoNoResumoMensal() {
+        String plano = explicar("select ano, mes, sum(valor) from financas.lancamento "
+                + "where id_usuario = 1 and ano = 2020 group by ano, mes");
+
+        assertThat(plano).containsIgnoringCase("idx_lancamento_usuario_ano_mes");
+    }
+
+    @Test
+    public void deveUsarOIndiceDeUsuarioEIdNaPaginacao() {
+        String plano = explicar("select * from financas.lancamento "
+                + "where id_usuario = 1 and id > 100 order by id limit 50");
+
+        assertThat(plano).containsIgnoringCase("idx_lancamento_usuario_id");
+    }
+
+    @Test
+    public void deveUsarOIndiceUnicoNaBuscaPorEmail() {
+        String plano = explicar("select * from financas.usuario where email = 'email@hotmail.com'");
+
+        assertThat(plano).containsIgnoringCase("uk_usuario_email");
+    }
+
+    private String explicar(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+}
@@ -1,9 +1,11 @@
 package com.dev.minhasfinancas.model.repository;
 import static org.assertj.core.api.Assertions.assertThat;
 import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
 import com.dev.minhasfinancas.model.enums.StatusLancamento;
 import com.dev.minhasfinancas.model.enums.TipoLancamento;
 import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,11 +13,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @RunWith(SpringRunner.class)
@@ -67,6 +72,22 @@ public class LancamentoRepositoryTest {
         Assertions.assertThat(l.getId()).isNotNull();
     }
 
+    @Test
+    public void deveInserirUmLoteDeLancamentos(){
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        List<Lancamento> lote = new java.util.ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Lancamento l = lancamentoFactory();
+            l.setUsuario(usuario);
+            lote.add(l);
+        }
+
+        repository.inserirEmLote(lote);
+
+        Assertions.assertThat(lote).allMatch(l -> l.getId() != null);
+        Assertions.assertThat(repository.count()).isEqualTo(120);
+    }
+
     @Test
     public void deveDeletarUmLancamentoExistente(){
         Lancamento l = lancamentoFactory();
@@ -82,12 +103,86 @@ public class LancamentoRepositoryTest {
 
     }
 
+    @Test
+    public void deveBuscarLancamentosPaginadosAposOUltimoIdVisto(){
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        for (int i = 0; i < 5; i++) {
+            Lancamento l = lancamentoFactory();
+            l.setUsuario(usuario);
+            entityManager.persist(l);
+        }
+
+        Slice<LancamentoRepository.LancamentoProjecao> primeiraPagina = repository.buscarPagina(usuario.getId(), 0L, "%", null, null, PageRequest.of(0, 3));
+        Long ultimoId = primeiraPagina.getContent().get(2).getId();
+        Slice<LancamentoRepository.LancamentoProjecao> segundaPagina = repository.buscarPagina(usuario.getId(), ultimoId, "%", null, 2019, PageRequest.of(0, 3));
+
+        Assertions.assertThat(primeiraPagina.getContent()).hasSize(3);
+        Assertions.assertThat(primeiraPagina.hasNext()).isTrue();
+        Assertions.assertThat(segundaPagina.getContent()).hasSize(2);
+        Assertions.assertThat(segundaPagina.hasNext()).isFalse();
+        Assertions.assertThat(segundaPagina.getContent()).allMatch(l -> l.getId() > ultimoId);
+    }
+
+    @Test
+    public void deveTratarOCuringaEscapadoComoTextoNaBuscaPorDescricao(){
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        for (String descricao : new String[]{"Desconto 10% loja", "Desconto 105 loja"}) {
+            Lancamento l = lancamentoFactory();
+            l.setDescricao(descricao);
+            l.setUsuario(usuario);
+            entityManager.persist(l);
+        }
+
+        List<LancamentoRepository.LancamentoProjecao> projecoes = repository.buscarProjecoes(usuario.getId(), "%10\\%%", null, null);
+        Slice<LancamentoRepository.LancamentoProjecao> pagina = repository.buscarPagina(usuario.getId(), 0L, "%10\\%%", null, null, PageRequest.of(0, 3));
+
+        Assertions.assertThat(projecoes).extracting(LancamentoRepository.LancamentoProjecao::getDescricao).containsExactly("Desconto 10% loja");
+        Assertions.assertThat(pagina.getContent()).extracting(LancamentoRepository.LancamentoProjecao::getDescricao).containsExactly("Desconto 10% loja");
+    }
+
+    @Test
+    public void deveResumirOsLancamentosPorMesEmUmaUnicaConsulta(){
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        persistirLancamento(usuario, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 100);
+        persistirLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 30);
+        persistirLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 5);
+        persistirLancamento(usuario, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, 70);
+        persistirLancamento(usuario, 2, TipoLancamento.DESPESA, StatusLancamento.CANCELADO, 15);
+
+        List<LancamentoRepository.ResumoLancamento> resumo = repository.resumirPorMes(usuario.getId(), 2019);
+        List<LancamentoRepository.ResumoLancamento> resumoAnual = repository.resumirPorAno(usuario.getId(), null);
+
+        Assertions.assertThat(resumo).hasSize(2);
+        Assertions.assertThat(resumo.get(0).getMes()).isEqualTo(1);
+        Assertions.assertThat(resumo.get(0).getReceitasEfetivadas()).isEqualTo(Dinheiro.de("100"));
+        Assertions.assertThat(resumo.get(0).getDespesasEfetivadas()).isEqualTo(Dinheiro.de("30"));
+        Assertions.assertThat(resumo.get(0).getDespesasPendentes()).isEqualTo(Dinheiro.de("5"));
+        Assertions.assertThat(resumo.get(0).getQuantidade()).isEqualTo(3);
+        Assertions.assertThat(resumo.get(1).getReceitasPendentes()).isEqualTo(Dinheiro.de("70"));
+        Assertions.assertThat(resumo.get(1).getDespesasCanceladas()).isEqualTo(Dinheiro.de("15"));
+        Assertions.assertThat(resumo.get(1).getReceitasCanceladas()).isEqualTo(Dinheiro.de("0"));
+        Assertions.assertThat(resumo.get(1).getQuantidade()).isEqualTo(2);
+        Assertions.assertThat(resumoAnual).hasSize(1);
+        Assertions.assertThat(resumoAnual.get(0).getQuantidade()).isEqualTo(5);
+        Assertions.assertThat(repository.calcularSaldoDoUsuario(usuario.getId())).isEqualTo(Dinheiro.de("70"));
+    }
+
+    private void persistirLancamento(Usuario usuario, int mes, TipoLancamento tipo, StatusLancamento status, int valor) {
+        Lancamento l = lancamentoFactory();
+        l.setUsuario(usuario);
+        l.setMes(mes);
+        l.setTipo(tipo);
+        l.setStatus(status);
+        l.setValor(Dinheiro.de(BigDecimal.valueOf(valor)));
+        entityManager.persist(l);
+    }
+
     public static Lancamento lancamentoFactory() {
        return  Lancamento.builder()
                 .ano(2019)
                 .mes(1)
                 .descricao("Lançamento qualquer")
-                .valor(BigDecimal.valueOf(10))
+                .valor(Dinheiro.de("10"))
                 .tipo(TipoLancamento.RECEITA)
                 .status(StatusLancamento.PENDENTE)
                 .dataCadastro(LocalDate.now())
@@ -0,0 +1,63 @@
+package com.dev.minhasfinancas.model.valor;
+
+import com.dev.minhasfinancas.api.dto.LancamentoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class DinheiroTest {
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void deveArredondarParaCentavosComoOBanco() {
+        assertThat(Dinheiro.de("10.005").getCentavos()).isEqualTo(1001);
+        assertThat(Dinheiro.de("-10.005").getCentavos()).isEqualTo(-1001);
+        assertThat(Dinheiro.de("1250.5").toString()).isEqualTo("1250.50");
+        assertThat(Dinheiro.de(new BigDecimal("0.001"))).isEqualTo(Dinheiro.ZERO);
+    }
+
+    @Test
+    public void deveSomarESubtrairSemPerderPrecisao() {
+        //execucao
+        Dinheiro resultado = Dinheiro.de("0.10").somar(Dinheiro.de("0.20")).subtrair(Dinheiro.de("0.30"));
+
+        //verificacao
+        assertThat(resultado).isEqualTo(Dinheiro.ZERO);
+        assertThat(Dinheiro.de("5").negar()).isEqualTo(Dinheiro.de("-5.00"));
+    }
+
+    @Test
+    public void deveLancarErroNoEstouroEmVezDePerderOValor() {
+        Dinheiro maximo = Dinheiro.deCentavos(Long.MAX_VALUE);
+
+        assertThat(catchThrowable( () -> maximo.somar(Dinheiro.deCentavos(1)) )).isInstanceOf(ArithmeticException.class);
+        assertThat(catchThrowable( () -> Dinheiro.deCentavos(Long.MIN_VALUE).negar() )).isInstanceOf(ArithmeticException.class);
+        assertThat(catchThrowable( () -> Dinheiro.de("1e30") )).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    public void deveManterONumeroDecimalNoJson() throws Exception {
+        //execucao
+        LancamentoDTO lido = mapper.readValue("{\"valor\": 10.5}", LancamentoDTO.class);
+        LancamentoDTO lidoDeTexto = mapper.readValue("{\"valor\": \"7\"}", LancamentoDTO.class);
+        String escrito = mapper.writeValueAsString(LancamentoDTO.builder().valor(Dinheiro.de("1250.5")).build());
+
+        //verificacao
+        assertThat(lido.getValor()).isEqualTo(Dinheiro.de("10.50"));
+        assertThat(lidoDeTexto.getValor()).isEqualTo(Dinheiro.de("7"));
+        assertThat(escrito).contains("\"valor\":1250.50");
+    }
+
+    @Test
+    public void deveRecusarValorForaDoLimiteNoJson() {
+        Throwable erro = catchThrowable( () -> mapper.readValue("{\"valor\": 1e30}", LancamentoDTO.class) );
+
+        assertThat(erro).isInstanceOf(InvalidFormatException.class);
+    }
+}
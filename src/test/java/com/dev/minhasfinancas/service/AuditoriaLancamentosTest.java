@@ -0,0 +1,202 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.config.AuditoriaProperties;
+import com.dev.minhasfinancas.config.AuditoriaProperties.PoliticaFilaCheia;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.service.event.LancamentoAlteradoEvent;
+import com.dev.minhasfinancas.service.event.LancamentoAlteradoEvent.Operacao;
+import com.dev.minhasfinancas.service.impl.AuditoriaLancamentos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "minhasfinancas.auditoria.intervalo=10ms")
+@ActiveProfiles("test")
+public class AuditoriaLancamentosTest {
+
+    @Autowired
+    LancamentoService service;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // ids recebidos pelo insert em lote simulado, e o tamanho de cada lote
+    Set<Long> gravados = ConcurrentHashMap.newKeySet();
+    List<Integer> lotes = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from financas.lancamento_auditoria");
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveGravarCadaAlteracaoConfirmadaDoServico() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+        lancamento.setUsuario(usuario);
+
+        //execucao
+        Lancamento salvo = service.salvar(lancamento);
+        service.transicionarStatus(salvo.getId(), usuario.getId(), StatusLancamento.EFETIVADO, null);
+        Lancamento atual = service.obterPorId(salvo.getId()).get();
+        atual.setDescricao("Descrição alterada");
+        service.atualizar(atual);
+        service.deletar(service.obterPorId(salvo.getId()).get());
+
+        //verificacao
+        long prazo = System.currentTimeMillis() + 5000;
+        while (contarAuditoria(salvo.getId()) < 4 && System.currentTimeMillis() < prazo) {
+            Thread.sleep(10);
+        }
+        assertThat(jdbcTemplate.queryForList("select operacao from financas.lancamento_auditoria "
+                + " where id_lancamento = ? order by id", String.class, salvo.getId()))
+                .containsExactly("CRIADO", "ALTERADO_PARCIALMENTE", "ATUALIZADO", "REMOVIDO");
+        assertThat(jdbcTemplate.queryForObject("select status from financas.lancamento_auditoria "
+                + " where id_lancamento = ? and operacao = 'ALTERADO_PARCIALMENTE'", String.class, salvo.getId()))
+                .isEqualTo("EFETIVADO");
+    }
+
+    @Test
+    public void deveDescartarEContarQuandoAFilaEstaCheia() throws Exception {
+        //cenario: sem iniciar o escritor, a fila (2 posições) não é esvaziada
+        AuditoriaLancamentos auditoria = auditoria(PoliticaFilaCheia.DESCARTAR, 2, 100);
+
+        //execucao
+        for (long id = 1; id <= 3; id++) {
+            auditoria.aoAlterarLancamento(evento(id));
+        }
+        auditoria.encerrar();
+
+        //verificacao: o encerramento grava o que estava na fila
+        assertThat(gravados).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(registry.get("minhasfinancas.auditoria.descartados").tag("motivo", "fila_cheia").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void deveGravarNaPropriaThreadQuandoAFilaEstaCheia() throws Exception {
+        AuditoriaLancamentos auditoria = auditoria(PoliticaFilaCheia.GRAVAR_DIRETO, 2, 100);
+
+        for (long id = 1; id <= 3; id++) {
+            auditoria.aoAlterarLancamento(evento(id));
+        }
+        assertThat(gravados).containsExactly(3L);
+
+        auditoria.encerrar();
+        assertThat(gravados).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    public void deveGravarEmLotesTudoQueVariasThreadsRegistram() throws Exception {
+        //cenario: fila bem menor que o total, então os produtores esperam pelo escritor
+        int threads = 8;
+        int porThread = 5000;
+        AuditoriaLancamentos auditoria = auditoria(PoliticaFilaCheia.AGUARDAR, 1024, 256);
+        auditoria.iniciar();
+
+        //execucao
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long primeiro = (long) t * porThread;
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (long id = primeiro; id < primeiro + porThread; id++) {
+                        auditoria.aoAlterarLancamento(evento(id));
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        auditoria.encerrar();
+
+        //verificacao
+        assertThat(gravados).hasSize(threads * porThread);
+        assertThat(lotes).allMatch( tamanho -> tamanho <= 256 );
+        assertThat(registry.get("minhasfinancas.auditoria.gravados").counter().count()).isEqualTo(threads * porThread);
+        assertThat(registry.find("minhasfinancas.auditoria.descartados").counters())
+                .allMatch( contador -> contador.count() == 0 );
+        assertThat(registry.get("minhasfinancas.auditoria.fila").gauge().value()).isZero();
+    }
+
+    private AuditoriaLancamentos auditoria(PoliticaFilaCheia politica, int capacidade, int tamanhoLote) throws Exception {
+        JdbcTemplate jdbc = Mockito.mock(JdbcTemplate.class);
+        // stubOnly: sem guardar as dezenas de milhares de chamadas
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class, Mockito.withSettings().stubOnly());
+        Mockito.doAnswer( invocacao -> gravados.add(invocacao.getArgument(1)) )
+                .when(ps).setLong(ArgumentMatchers.eq(1), ArgumentMatchers.anyLong());
+        Mockito.when(jdbc.batchUpdate(ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection(),
+                ArgumentMatchers.anyInt(), ArgumentMatchers.any())).thenAnswer( invocacao -> {
+            Collection<Object> registros = invocacao.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocacao.getArgument(3);
+            for (Object registro : registros) {
+                setter.setValues(ps, registro);
+            }
+            lotes.add(registros.size());
+            return new int[0][];
+        });
+
+        AuditoriaProperties properties = new AuditoriaProperties();
+        properties.setPolitica(politica);
+        properties.setCapacidade(capacidade);
+        properties.setTamanhoLote(tamanhoLote);
+        properties.setIntervalo(Duration.ofMillis(5));
+        properties.setEsperaMaxima(Duration.ofSeconds(10));
+        return new AuditoriaLancamentos(jdbc, properties, registry);
+    }
+
+    private LancamentoAlteradoEvent evento(long id) {
+        Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+        lancamento.setId(id);
+        return new LancamentoAlteradoEvent(Operacao.CRIADO, lancamento);
+    }
+
+    private int contarAuditoria(Long idLancamento) {
+        return jdbcTemplate.queryForObject("select count(*) from financas.lancamento_auditoria where id_lancamento = ?",
+                Integer.class, idLancamento);
+    }
+}
@@ -0,0 +1,134 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.FormatoExportacao;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.impl.ExportacaoServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import(ExportacaoServiceImpl.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+public class ExportacaoServiceTest {
+
+    @Autowired
+    ExportacaoService service;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    Usuario usuario;
+
+    Lancamento salario;
+
+    Lancamento aluguel;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+
+        salario = LancamentoRepositoryTest.lancamentoFactory();
+        salario.setDescricao("Salário");
+        salario.setUsuario(usuario);
+        entityManager.persist(salario);
+
+        aluguel = LancamentoRepositoryTest.lancamentoFactory();
+        aluguel.setDescricao("Aluguel, condomínio");
+        aluguel.setValor(Dinheiro.de("1250.5"));
+        aluguel.setUsuario(usuario);
+        entityManager.persist(aluguel);
+
+        entityManager.flush();
+    }
+
+    @Test
+    public void deveExportarLancamentosEmNdjson() {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        service.exportarLancamentos(usuario.getId(), FormatoExportacao.NDJSON, saida);
+
+        // um objeto por linha, sem nada entre o \n e o { seguinte
+        String hoje = LocalDate.now().toString();
+        assertThat(saida.toByteArray()).isEqualTo((
+                "{\"id\":" + salario.getId() + ",\"descricao\":\"Salário\",\"mes\":1,\"ano\":2019,\"valor\":10.00,"
+                        + "\"tipo\":\"RECEITA\",\"status\":\"PENDENTE\",\"dataCadastro\":\"" + hoje + "\"}\n"
+                + "{\"id\":" + aluguel.getId() + ",\"descricao\":\"Aluguel, condomínio\",\"mes\":1,\"ano\":2019,\"valor\":1250.50,"
+                        + "\"tipo\":\"RECEITA\",\"status\":\"PENDENTE\",\"dataCadastro\":\"" + hoje + "\"}\n"
+        ).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void deveExportarNdjsonSemFlushPorLinha() {
+        for (int i = 0; i < 50; i++) {
+            Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+            lancamento.setUsuario(usuario);
+            entityManager.persist(lancamento);
+        }
+        entityManager.flush();
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        service.exportarLancamentos(usuario.getId(), FormatoExportacao.NDJSON, saida);
+
+        // só os do fim da exportação, qualquer que seja o número de linhas
+        assertThat(saida.toString(StandardCharsets.UTF_8).split("\n")).hasSize(52);
+        assertThat(flushes.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void deveExportarLancamentosEmCsvEscapandoADescricao() {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        service.exportarLancamentos(usuario.getId(), FormatoExportacao.CSV, saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(linhas).hasSize(3);
+        assertThat(linhas[0]).isEqualTo("id,descricao,mes,ano,valor,tipo,status,data_cadastro");
+        assertThat(linhas[2]).contains(",\"Aluguel, condomínio\",1,2019,1250.50,RECEITA,PENDENTE,");
+    }
+
+    @Test
+    public void deveInterromperAExportacaoQuandoOClienteDesconectar() {
+        OutputStream clienteDesconectado = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        Throwable erro = catchThrowable( () ->
+                service.exportarLancamentos(usuario.getId(), FormatoExportacao.CSV, clienteDesconectado) );
+
+        assertThat(erro).isInstanceOf(UncheckedIOException.class);
+    }
+}
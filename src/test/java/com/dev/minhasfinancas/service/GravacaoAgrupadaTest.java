@@ -0,0 +1,185 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.exceptions.RegraNegocioException;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.service.impl.GravacaoAgrupadaLancamentos;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+// janela longa para que os pedidos simultâneos do teste caiam no mesmo grupo
+@SpringBootTest(properties = {
+        "minhasfinancas.lancamento.agrupamento.habilitado=true",
+        "minhasfinancas.lancamento.agrupamento.janela=300ms"
+})
+@ActiveProfiles("test")
+public class GravacaoAgrupadaTest {
+
+    @Autowired
+    GravacaoAgrupada gravacaoAgrupada;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from financas.lancamento_auditoria");
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveGravarEmGrupoOsPedidosSimultaneosDevolvendoOIdDeCadaUm() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        double grupos = contador("minhasfinancas.lancamento.agrupamento.grupos");
+        double pedidos = contador("minhasfinancas.lancamento.agrupamento.pedidos");
+        List<Lancamento> lancamentos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+            lancamento.setDescricao("Lançamento " + i);
+            lancamento.setUsuario(usuario);
+            lancamentos.add(lancamento);
+        }
+
+        //execucao
+        List<Future<Lancamento>> resultados = salvarAoMesmoTempo(lancamentos);
+
+        //verificacao
+        for (int i = 0; i < lancamentos.size(); i++) {
+            Lancamento salvo = resultados.get(i).get(10, TimeUnit.SECONDS);
+            assertThat(salvo.getId()).isNotNull();
+            assertThat(salvo.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+            assertThat(jdbcTemplate.queryForObject("select descricao from financas.lancamento where id = ?",
+                    String.class, salvo.getId())).isEqualTo("Lançamento " + i);
+        }
+        assertThat(contador("minhasfinancas.lancamento.agrupamento.pedidos") - pedidos).isEqualTo(10);
+        assertThat(contador("minhasfinancas.lancamento.agrupamento.grupos") - grupos).isLessThan(10);
+    }
+
+    @Test
+    public void deveGravarOsDemaisQuandoUmPedidoFazOGrupoFalhar() throws Exception {
+        //cenario: o usuário inexistente passa na validação, mas o insert viola a chave estrangeira
+        Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        Usuario inexistente = Usuario.builder().id(usuario.getId() + 1000).build();
+        List<Lancamento> lancamentos = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+            lancamento.setUsuario(i == 2 ? inexistente : usuario);
+            lancamentos.add(lancamento);
+        }
+
+        //execucao
+        List<Future<Lancamento>> resultados = salvarAoMesmoTempo(lancamentos);
+
+        //verificacao
+        Throwable erro = catchThrowable( () -> resultados.get(2).get(10, TimeUnit.SECONDS) );
+        assertThat(erro).isInstanceOf(ExecutionException.class);
+        List<Long> ids = new ArrayList<>();
+        for (int i : new int[]{0, 1, 3}) {
+            ids.add(resultados.get(i).get(10, TimeUnit.SECONDS).getId());
+        }
+        assertThat(jdbcTemplate.queryForList("select id from financas.lancamento", Long.class))
+                .containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    public void deveRecusarNaRequisicaoOLancamentoInvalidoSemEntrarNoGrupo() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+        lancamento.setUsuario(usuario);
+        lancamento.setMes(13);
+        double pedidos = contador("minhasfinancas.lancamento.agrupamento.pedidos");
+
+        //execucao
+        Throwable erro = catchThrowable( () -> gravacaoAgrupada.salvar(lancamento) );
+
+        //verificacao
+        assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Mês válido.");
+        assertThat(contador("minhasfinancas.lancamento.agrupamento.pedidos")).isEqualTo(pedidos);
+    }
+
+    @Test
+    public void deveDevolverOErroAoPedidoESeguirAgrupandoDepoisDeUmError() throws Exception {
+        //cenario: o primeiro grupo lança um Error, que não é RuntimeException
+        LancamentoService service = Mockito.mock(LancamentoService.class);
+        Mockito.when(service.salvarLote(Mockito.anyList()))
+                .thenThrow(new StackOverflowError("grupo"))
+                .thenAnswer( invocacao -> invocacao.getArgument(0) );
+        Mockito.when(service.salvar(Mockito.any())).thenThrow(new StackOverflowError("sozinho"));
+        GravacaoAgrupadaLancamentos agrupador = new GravacaoAgrupadaLancamentos(service, new SimpleMeterRegistry(),
+                Duration.ofMillis(1), 100, 16, Duration.ofSeconds(5));
+        agrupador.iniciar();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            //execucao
+            Future<Lancamento> primeiro = executor.submit( () -> agrupador.salvar(LancamentoRepositoryTest.lancamentoFactory()) );
+            Throwable erro = catchThrowable( () -> primeiro.get(10, TimeUnit.SECONDS) );
+            Lancamento segundo = LancamentoRepositoryTest.lancamentoFactory();
+            Future<Lancamento> depois = executor.submit( () -> agrupador.salvar(segundo) );
+
+            //verificacao
+            assertThat(erro).isInstanceOf(ExecutionException.class).hasRootCauseInstanceOf(StackOverflowError.class);
+            assertThat(depois.get(10, TimeUnit.SECONDS)).isSameAs(segundo);
+        } finally {
+            executor.shutdownNow();
+            agrupador.encerrar();
+        }
+    }
+
+    private List<Future<Lancamento>> salvarAoMesmoTempo(List<Lancamento> lancamentos) throws InterruptedException {
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(lancamentos.size());
+        try {
+            List<Future<Lancamento>> resultados = lancamentos.stream()
+                    .map( lancamento -> executor.submit(() -> {
+                        largada.await();
+                        return gravacaoAgrupada.salvar(lancamento);
+                    }))
+                    .collect(Collectors.toList());
+            largada.countDown();
+            return resultados;
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private double contador(String nome) {
+        return registry.get(nome).counter().count();
+    }
+}
@@ -0,0 +1,279 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.config.ImportacaoProperties;
+import com.dev.minhasfinancas.exceptions.RegraNegocioException;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.FormatoExtrato;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.service.impl.ImportacaoServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ImportacaoServiceTest {
+
+    @Autowired
+    ImportacaoService service;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from financas.lancamento_auditoria");
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveImportarCsvTirandoOTipoDoSinalERejeitandoLinhasInvalidas() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        String csv = "Data;Histórico;Documento;Valor\r\n"
+                + "15/01/2020;Salário;001;1.234,56\r\n"
+                + "16/01/2020;\"Mercado; padaria\";002;-87,90\r\n"
+                + "\r\n"
+                + "31/02/2020;Data errada;003;-1,00\r\n"
+                + "17/01/2020;Estorno;004;0,00\r\n"
+                + "18/01/2020;Sem valor\r\n";
+
+        //execucao
+        ProgressoImportacao progresso = service.importar(usuario, FormatoExtrato.CSV, entrada(csv),
+                StandardCharsets.UTF_8, csv.length());
+
+        //verificacao
+        assertThat(progresso.getEstado()).isEqualTo(ProgressoImportacao.Estado.CONCLUIDA);
+        assertThat(progresso.getRegistrosLidos()).isEqualTo(5);
+        assertThat(progresso.getGravados()).isEqualTo(2);
+        assertThat(progresso.getRejeitados()).isEqualTo(3);
+        assertThat(progresso.getErros()).containsExactly(
+                "Linha 5: Data inválida: 31/02/2020",
+                "Linha 6: Informe um Valor válido.",
+                "Linha 7: Registro com 2 coluna(s), esperadas ao menos 4.");
+        assertThat(progresso.getBytesLidos()).isEqualTo(csv.getBytes(StandardCharsets.UTF_8).length);
+
+        List<Map<String, Object>> gravados = jdbcTemplate.queryForList(
+                "select descricao, mes, ano, valor, tipo, status from financas.lancamento order by id");
+        assertThat(gravados).hasSize(2);
+        assertThat(gravados.get(0)).containsEntry("DESCRICAO", "Salário").containsEntry("TIPO", "RECEITA")
+                .containsEntry("MES", 1).containsEntry("ANO", 2020).containsEntry("STATUS", "PENDENTE");
+        assertThat(gravados.get(0).get("VALOR").toString()).isEqualTo("1234.56");
+        assertThat(gravados.get(1)).containsEntry("DESCRICAO", "Mercado; padaria").containsEntry("TIPO", "DESPESA");
+        assertThat(gravados.get(1).get("VALOR").toString()).isEqualTo("87.90");
+    }
+
+    @Test
+    public void deveImportarOfxSgml() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\nVERSION:102\nCHARSET:1252\n\n"
+                + "<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n"
+                + "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20190305120000[-3:BRT]\n<TRNAMT>-150.00\n<FITID>1\n"
+                + "<NAME>CONTA DE LUZ\n<MEMO>Energia &amp; gás\n</STMTTRN>\n"
+                + "<STMTTRN>\n<TRNTYPE>CREDIT\n<DTPOSTED>20190310\n<TRNAMT>2500,00\n<FITID>2\n<NAME>TED RECEBIDA\n</STMTTRN>\n"
+                + "<STMTTRN>\n<TRNTYPE>DEBIT\n<TRNAMT>-5.00\n</STMTTRN>\n"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+
+        //execucao
+        Charset windows1252 = Charset.forName("windows-1252");
+        ProgressoImportacao progresso = service.importar(usuario, FormatoExtrato.OFX,
+                new ByteArrayInputStream(ofx.getBytes(windows1252)), windows1252, -1);
+
+        //verificacao
+        assertThat(progresso.getGravados()).isEqualTo(2);
+        assertThat(progresso.getErros()).containsExactly("Linha 22: Transação sem DTPOSTED.");
+        assertThat(jdbcTemplate.queryForList("select descricao || '|' || tipo || '|' || mes || '|' || valor "
+                + " from financas.lancamento order by id", String.class))
+                .containsExactly("Energia & gás|DESPESA|3|150.00", "TED RECEBIDA|RECEITA|3|2500.00");
+    }
+
+    @Test
+    public void deveRecusarCsvSemAsColunasNecessarias() {
+        Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+
+        Throwable erro = catchThrowable( () -> service.importar(usuario, FormatoExtrato.CSV,
+                entrada("data,valor\n2020-01-01,10\n"), StandardCharsets.UTF_8, -1) );
+
+        assertThat(erro).isInstanceOf(RegraNegocioException.class)
+                .hasMessage("O cabeçalho do CSV deve ter as colunas data, descricao e valor.");
+        assertThat(service.listarPorUsuario(usuario.getId())).isEmpty();
+    }
+
+    @Test
+    public void deveSegurarALeituraEnquantoAGravacaoNaoLiberaAFila() throws Exception {
+        //cenario: gravação travada, chunks de 100 e fila de 2 chunks
+        CountDownLatch liberar = new CountDownLatch(1);
+        LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+        Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenAnswer( invocacao -> {
+            liberar.await();
+            return invocacao.getArgument(0);
+        });
+        ImportacaoProperties properties = new ImportacaoProperties();
+        properties.setTamanhoChunk(100);
+        properties.setCapacidadeFila(2);
+        ImportacaoService importacao = new ImportacaoServiceImpl(lancamentoService, properties, new SimpleMeterRegistry());
+        Usuario usuario = Usuario.builder().id(1l).build();
+        int linhas = 100_000;
+
+        //execucao
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProgressoImportacao> resultado = executor.submit( () -> importacao.importar(usuario,
+                    FormatoExtrato.CSV, new ExtratoGerado(linhas), StandardCharsets.UTF_8, -1) );
+
+            ProgressoImportacao progresso = aguardarLeituraParada(importacao, usuario.getId());
+
+            //verificacao: um chunk no gravador, dois na fila e um esperando vaga
+            assertThat(progresso.getRegistrosLidos()).isLessThanOrEqualTo(400);
+            assertThat(progresso.getEstado()).isEqualTo(ProgressoImportacao.Estado.EM_ANDAMENTO);
+
+            liberar.countDown();
+            ProgressoImportacao concluida = resultado.get(30, TimeUnit.SECONDS);
+            assertThat(concluida.getEstado()).isEqualTo(ProgressoImportacao.Estado.CONCLUIDA);
+            assertThat(concluida.getGravados()).isEqualTo(linhas);
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void deveTerminarAImportacaoQuandoOGravadorMorreComUmError() throws Exception {
+        //cenario: o gravador morre no primeiro chunk e a fila de 1 chunk enche logo
+        LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+        Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenThrow(new StackOverflowError("gravador"));
+        ImportacaoProperties properties = new ImportacaoProperties();
+        properties.setTamanhoChunk(100);
+        properties.setCapacidadeFila(1);
+        ImportacaoService importacao = new ImportacaoServiceImpl(lancamentoService, properties, new SimpleMeterRegistry());
+
+        //execucao
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProgressoImportacao> resultado = executor.submit( () -> importacao.importar(Usuario.builder().id(1l).build(),
+                    FormatoExtrato.CSV, new ExtratoGerado(100_000), StandardCharsets.UTF_8, -1) );
+
+            //verificacao
+            ProgressoImportacao progresso = resultado.get(30, TimeUnit.SECONDS);
+            assertThat(progresso.getEstado()).isEqualTo(ProgressoImportacao.Estado.FALHOU);
+            assertThat(progresso.getGravados()).isZero();
+            assertThat(progresso.getRegistrosLidos()).isLessThan(100_000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void deveRecusarImportacaoAcimaDoLimiteDeGravadores() throws Exception {
+        //cenario: um único gravador, ocupado pela primeira importação
+        CountDownLatch liberar = new CountDownLatch(1);
+        LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+        Mockito.when(lancamentoService.salvarLote(Mockito.anyList())).thenAnswer( invocacao -> {
+            liberar.await();
+            return invocacao.getArgument(0);
+        });
+        ImportacaoProperties properties = new ImportacaoProperties();
+        properties.setTamanhoChunk(100);
+        properties.setMaximoGravadores(1);
+        ImportacaoService importacao = new ImportacaoServiceImpl(lancamentoService, properties, new SimpleMeterRegistry());
+        Usuario usuario = Usuario.builder().id(1l).build();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProgressoImportacao> primeira = executor.submit( () -> importacao.importar(usuario,
+                    FormatoExtrato.CSV, new ExtratoGerado(1_000), StandardCharsets.UTF_8, -1) );
+            aguardarLeituraParada(importacao, usuario.getId());
+
+            //execucao
+            Throwable erro = catchThrowable( () -> importacao.importar(usuario, FormatoExtrato.CSV,
+                    new ExtratoGerado(10), StandardCharsets.UTF_8, -1) );
+
+            //verificacao
+            assertThat(erro).isInstanceOf(RegraNegocioException.class)
+                    .hasMessage("Limite de importações simultâneas atingido, tente novamente em instantes.");
+            liberar.countDown();
+            assertThat(primeira.get(30, TimeUnit.SECONDS).getGravados()).isEqualTo(1_000);
+            assertThat(importacao.listarPorUsuario(usuario.getId())).hasSize(1);
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private ProgressoImportacao aguardarLeituraParada(ImportacaoService importacao, Long idUsuario) throws InterruptedException {
+        long anterior = -1;
+        long prazo = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < prazo) {
+            Thread.sleep(200);
+            List<ProgressoImportacao> importacoes = importacao.listarPorUsuario(idUsuario);
+            if(!importacoes.isEmpty()) {
+                ProgressoImportacao progresso = importacoes.get(0);
+                if(progresso.getRegistrosLidos() > 0 && progresso.getRegistrosLidos() == anterior) {
+                    return progresso;
+                }
+                anterior = progresso.getRegistrosLidos();
+            }
+        }
+        throw new AssertionError("A leitura não parou");
+    }
+
+    private static InputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+     * CSV gerado à medida que é lido, sem existir inteiro em memória.
+     */
+    static class ExtratoGerado extends InputStream {
+
+        private final int linhas;
+        private int linha = -1;
+        private byte[] atual = "data,descricao,valor\n".getBytes(StandardCharsets.UTF_8);
+        private int posicao;
+
+        ExtratoGerado(int linhas) {
+            this.linhas = linhas;
+        }
+
+        @Override
+        public int read() {
+            if(posicao == atual.length) {
+                if(linha + 1 == linhas) {
+                    return -1;
+                }
+                linha++;
+                atual = ("2020-01-15,Lançamento " + linha + "," + (linha % 2 == 0 ? "" : "-") + "10.00\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                posicao = 0;
+            }
+            return atual[posicao++] & 0xff;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.exceptions.RegraNegocioException;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.impl.IndiceDescricaoMemoria;
+import com.dev.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.dev.minhasfinancas.service.impl.ResumoLancamentosBanco;
+import com.dev.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/*
+ * Sem transação no teste: o índice só é atualizado depois do commit de cada operação do serviço.
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import({SaldoUsuarioServiceImpl.class, LancamentoServiceImpl.class, IndiceDescricaoMemoria.class, ResumoLancamentosBanco.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IndiceDescricaoMemoriaTest {
+
+    @Autowired
+    LancamentoService service;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Usuario usuario;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        service.salvar(lancamento("Conta de Luz"));
+        service.salvar(lancamento("Conta de Água"));
+        service.salvar(lancamento("Supermercado"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveBuscarPorTrechoDaDescricaoIgnorandoMaiusculas() {
+        //execucao
+        List<Lancamento> resultado = service.buscarPorDescricao(usuario.getId(), "CONTA", null);
+        List<Lancamento> trechoCurto = service.buscarPorDescricao(usuario.getId(), "rm", null);
+
+        //verificacao
+        assertThat(resultado).extracting(Lancamento::getDescricao).containsExactly("Conta de Água", "Conta de Luz");
+        assertThat(trechoCurto).extracting(Lancamento::getDescricao).containsExactly("Supermercado");
+        assertThat(service.buscarPorDescricao(usuario.getId(), "aluguel", null)).isEmpty();
+    }
+
+    @Test
+    public void deveManterOIndiceAtualizadoAposAlteracoesNosLancamentos() {
+        //cenario
+        assertThat(service.buscarPorDescricao(usuario.getId(), "mercado", null)).hasSize(1);
+
+        //execucao
+        Lancamento feira = service.salvar(lancamento("Feira"));
+        feira.setDescricao("Mercado da esquina");
+        service.atualizar(feira);
+        Lancamento supermercado = service.buscarPorDescricao(usuario.getId(), "super", null).get(0);
+        service.deletar(supermercado);
+
+        //verificacao
+        assertThat(service.buscarPorDescricao(usuario.getId(), "mercado", null))
+                .extracting(Lancamento::getDescricao).containsExactly("Mercado da esquina");
+        assertThat(service.buscarPorDescricao(usuario.getId(), "feira", null)).isEmpty();
+    }
+
+    @Test
+    public void deveAutocompletarPelasDescricoesMaisFrequentes() {
+        //cenario
+        service.salvar(lancamento("Conta de Luz"));
+
+        //execucao
+        List<String> sugestoes = service.autocompletarDescricao(usuario.getId(), "co", null);
+
+        //verificacao
+        assertThat(sugestoes).containsExactly("Conta de Luz", "Conta de Água");
+        assertThat(service.autocompletarDescricao(usuario.getId(), "co", 1)).containsExactly("Conta de Luz");
+    }
+
+    @Test
+    public void deveRecusarBuscaSemTermoOuComLimiteInvalido() {
+        Throwable semTermo = catchThrowable( () -> service.buscarPorDescricao(usuario.getId(), " ", null) );
+        Throwable limiteInvalido = catchThrowable( () -> service.autocompletarDescricao(usuario.getId(), "co", 1000) );
+
+        assertThat(semTermo).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um termo para a busca.");
+        assertThat(limiteInvalido).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um limite entre 1 e 100.");
+    }
+
+    private Lancamento lancamento(String descricao) {
+        return Lancamento.builder()
+                .descricao(descricao)
+                .mes(1)
+                .ano(2020)
+                .valor(Dinheiro.de("10"))
+                .tipo(TipoLancamento.DESPESA)
+                .usuario(usuario)
+                .build();
+    }
+}
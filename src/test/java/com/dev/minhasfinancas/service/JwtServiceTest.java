@@ -0,0 +1,78 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class JwtServiceTest {
+
+    static final String CHAVE = Base64.getEncoder().encodeToString("chave-de-teste-com-tamanho-suficiente-para-hs512-0123456789abcdef".getBytes());
+
+    JwtService service = new JwtServiceImpl(30, CHAVE);
+
+    @Test
+    public void deveGerarUmTokenComOsDadosDoUsuario() {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1l).nome("usuario").email("usuario@email.com").senha("senha").build();
+
+        //execucao
+        String token = service.gerarToken(usuario);
+        Claims claims = service.obterClaims(token);
+
+        //verificacao
+        assertThat(claims.getSubject()).isEqualTo("1");
+        assertThat(claims.get(JwtServiceImpl.CLAIM_NOME)).isEqualTo("usuario");
+        assertThat(claims.get(JwtServiceImpl.CLAIM_EMAIL)).isEqualTo("usuario@email.com");
+        assertThat(claims).doesNotContainKey("senha");
+        assertThat(claims.getExpiration().getTime() - claims.getIssuedAt().getTime()).isEqualTo(Duration.ofMinutes(30).toMillis());
+    }
+
+    @Test
+    public void deveRecusarTokenAlteradoOuAssinadoComOutraChave() {
+        //cenario
+        String token = service.gerarToken(Usuario.builder().id(1l).build());
+        String outraChave = Base64.getEncoder().encodeToString("outra-chave-de-teste-com-tamanho-suficiente-para-hs512-9876543210".getBytes());
+        String tokenDeOutraChave = new JwtServiceImpl(30, outraChave).gerarToken(Usuario.builder().id(1l).build());
+
+        //verificacao
+        assertThat(service.isTokenValido(token)).isTrue();
+        assertThat(service.isTokenValido(token.substring(0, token.length() - 2))).isFalse();
+        assertThat(service.isTokenValido(tokenDeOutraChave)).isFalse();
+        assertThat(service.isTokenValido("")).isFalse();
+    }
+
+    @Test
+    public void deveRecusarTokenExpirado() {
+        //cenario
+        Clock umaHoraAtras = Clock.fixed(Instant.now().minus(Duration.ofHours(1)), ZoneOffset.UTC);
+        String token = new JwtServiceImpl(30, CHAVE, umaHoraAtras).gerarToken(Usuario.builder().id(1l).build());
+
+        //execucao
+        Throwable erro = catchThrowable( () -> service.obterClaims(token) );
+
+        //verificacao
+        assertThat(erro).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    public void naoDeveIniciarSemChaveOuComChaveCurta() {
+        String chaveCurta = Base64.getEncoder().encodeToString("chave-curta".getBytes());
+
+        assertThat(catchThrowable( () -> new JwtServiceImpl(30, "") )).isInstanceOf(IllegalStateException.class);
+        assertThat(catchThrowable( () -> new JwtServiceImpl(30, null) )).isInstanceOf(IllegalStateException.class);
+        assertThat(catchThrowable( () -> new JwtServiceImpl(30, chaveCurta) ))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.chave-assinatura");
+    }
+}
@@ -1,28 +1,35 @@
 package com.dev.minhasfinancas.service;
 
 import com.dev.minhasfinancas.exceptions.ErroAutenticacaoException;
+import com.dev.minhasfinancas.exceptions.ConflitoAtualizacaoException;
 import com.dev.minhasfinancas.exceptions.RegraNegocioException;
 import com.dev.minhasfinancas.model.entity.Lancamento;
 import com.dev.minhasfinancas.model.entity.Usuario;
 import com.dev.minhasfinancas.model.enums.StatusLancamento;
 import com.dev.minhasfinancas.model.enums.TipoLancamento;
 import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.LancamentoProjecao;
 import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
 import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.impl.IndiceDescricaoPostgres;
 import com.dev.minhasfinancas.service.impl.LancamentoServiceImpl;
 import com.dev.minhasfinancas.service.impl.UsuarioServiceImpl;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.AdditionalAnswers;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
-import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -49,10 +56,49 @@ public class LancamentoServiceTest {
     @MockBean // métodos simulados
     LancamentoRepository repository;
 
+    @MockBean
+    SaldoUsuarioService saldoUsuarioService;
+
+    @MockBean
+    IndiceDescricao indiceDescricao;
+
+    @MockBean
+    ResumoLancamentos resumoLancamentos;
+
+    @Test
+    public void deveBuscarPorDescricaoNoIndiceComOLimitePadrao(){
+        //cenario
+        Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+        when(indiceDescricao.buscar(1L, "luz", 20)).thenReturn(Arrays.asList(lancamento));
+
+        //execucao
+        List<Lancamento> resultado = service.buscarPorDescricao(1L, " luz ", null);
+
+        //verificacao
+        assertThat(resultado).containsExactly(lancamento);
+    }
+
+    @Test
+    public void deveEnviarOTermoEmMinusculasAoIndiceDoPostgres(){
+        //cenario: o índice do Postgres compara com lower(l.descricao)
+        IndiceDescricaoPostgres postgres = new IndiceDescricaoPostgres(repository);
+        Mockito.doAnswer(AdditionalAnswers.delegatesTo(postgres)).when(indiceDescricao).buscar(any(), any(), Mockito.anyInt());
+        Mockito.doAnswer(AdditionalAnswers.delegatesTo(postgres)).when(indiceDescricao).autocompletar(any(), any(), Mockito.anyInt());
+
+        //execucao
+        service.buscarPorDescricao(1L, " Mercado PIX ", null);
+        service.autocompletarDescricao(1L, "Merc", null);
+
+        //verificacao
+        verify(repository).buscarPorTrechoDaDescricaoComTrigramas(1L, "%mercado pix%", "mercado pix", 20);
+        verify(repository).buscarDescricoesPorPrefixo(1L, "merc%", 20);
+    }
+
     @Test
     public void deveSalvarUmLancamento(){
 
         Lancamento lancamentoParaSalvar = LancamentoRepositoryTest.lancamentoFactory();
+        lancamentoParaSalvar.setUsuario(Usuario.builder().id(1l).build());
         Mockito.doNothing().when(service).validar(lancamentoParaSalvar);
 
         Lancamento lancamentoSalvo = LancamentoRepositoryTest.lancamentoFactory();
@@ -66,6 +112,40 @@ public class LancamentoServiceTest {
         Assertions.assertThat(lancamentoObtido.getId()).isEqualTo(lancamentoSalvo.getId());
     }
 
+    @Test
+    public void deveSalvarUmLoteDeLancamentosComoPendentes(){
+        Lancamento primeiro = LancamentoRepositoryTest.lancamentoFactory();
+        Lancamento segundo = LancamentoRepositoryTest.lancamentoFactory();
+        segundo.setStatus(StatusLancamento.EFETIVADO);
+        Usuario usuario = Usuario.builder().id(1l).build();
+        primeiro.setUsuario(usuario);
+        segundo.setUsuario(usuario);
+        List<Lancamento> lote = Arrays.asList(primeiro, segundo);
+        doNothing().when(service).validar(any(Lancamento.class));
+        when(repository.inserirEmLote(lote)).thenReturn(lote);
+
+        List<Lancamento> salvos = service.salvarLote(lote);
+
+        assertThat(salvos).extracting(Lancamento::getStatus).containsOnly(StatusLancamento.PENDENTE);
+        verify(repository).inserirEmLote(lote);
+        verify(repository, never()).save(any(Lancamento.class));
+        verify(saldoUsuarioService, times(1)).registrarAlteracao(1l);
+    }
+
+    @Test
+    public void naoDeveSalvarNenhumLancamentoDoLoteQuandoUmForInvalido(){
+        Lancamento valido = LancamentoRepositoryTest.lancamentoFactory();
+        Lancamento invalido = LancamentoRepositoryTest.lancamentoFactory();
+        invalido.setDescricao(null);
+        doNothing().when(service).validar(valido);
+
+        Throwable erro = catchThrowable( () -> service.salvarLote(Arrays.asList(valido, invalido)) );
+
+        assertThat(erro).isInstanceOf(RegraNegocioException.class)
+                .hasMessage("Lançamento 2 do lote: Informe uma Descrição válida.");
+        verify(repository, never()).inserirEmLote(any());
+    }
+
     @Test
     public void deveFalharAoSalvarLancamento(){
         //cenário
@@ -84,6 +164,7 @@ public class LancamentoServiceTest {
         Lancamento lancamentoSalvo = LancamentoRepositoryTest.lancamentoFactory();
         lancamentoSalvo.setId(1l);
         lancamentoSalvo.setStatus(StatusLancamento.PENDENTE);
+        lancamentoSalvo.setUsuario(Usuario.builder().id(1l).build());
 
         doNothing().when(service).validar(lancamentoSalvo);
 
@@ -97,6 +178,98 @@ public class LancamentoServiceTest {
 
     }
 
+    @Test
+    public void deveAjustarOSaldoPelaDiferencaAoEfetivarUmLancamento() {
+        //cenário
+        Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+        lancamento.setId(1l);
+        lancamento.setStatus(StatusLancamento.EFETIVADO);
+        lancamento.setTipo(TipoLancamento.DESPESA);
+        lancamento.setUsuario(Usuario.builder().id(2l).build());
+
+        LancamentoRepository.ContribuicaoSaldo anterior = Mockito.mock(LancamentoRepository.ContribuicaoSaldo.class);
+        when(anterior.getIdUsuario()).thenReturn(2l);
+        when(anterior.getValor()).thenReturn(Dinheiro.ZERO);
+        when(repository.obterContribuicaoPersistidaNoSaldo(1l)).thenReturn(Optional.of(anterior));
+        doNothing().when(service).validar(lancamento);
+
+        //execucao
+        service.atualizar(lancamento);
+
+        //verificação
+        verify(saldoUsuarioService).ajustar(2l, Dinheiro.de("-10"));
+    }
+
+    @Test
+    public void deveValidarApenasOsCamposInformadosNaAlteracaoParcial() {
+        //execucao
+        Throwable erro = catchThrowable( () -> service.atualizarParcialmente(1l, 2l, Lancamento.builder().mes(13).build(), null) );
+
+        //verificação
+        assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Mês válido.");
+        verify(repository, never()).atualizarCampos(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyMap(), Mockito.any());
+    }
+
+    @Test
+    public void deveAlterarADescricaoComUmUnicoUpdateSemLerOLancamento() {
+        //cenário
+        when(repository.atualizarCampos(Mockito.eq(1l), Mockito.eq(2l), Mockito.anyMap(), Mockito.isNull())).thenReturn(1);
+
+        //execucao
+        service.atualizarParcialmente(1l, 2l, Lancamento.builder().descricao("aluguel").build(), null);
+
+        //verificação
+        verify(repository).atualizarCampos(1l, 2l, Collections.singletonMap("descricao", "aluguel"), null);
+        verify(repository, never()).obterSituacao(Mockito.anyLong());
+        verify(saldoUsuarioService).ajustarPelaContribuicao(1l, 0);
+    }
+
+    @Test
+    public void deveCancelarUmLancamentoEfetivadoRetirandoSuaContribuicaoDoSaldo() {
+        //cenário
+        when(repository.transicionarStatus(1l, 2l, StatusLancamento.PENDENTE, StatusLancamento.CANCELADO, null)).thenReturn(0);
+        when(repository.transicionarStatus(1l, 2l, StatusLancamento.EFETIVADO, StatusLancamento.CANCELADO, null)).thenReturn(1);
+
+        //execucao
+        service.transicionarStatus(1l, 2l, StatusLancamento.CANCELADO, null);
+
+        //verificação
+        verify(saldoUsuarioService).ajustarPelaContribuicao(1l, -1);
+        verify(repository, never()).findById(Mockito.anyLong());
+    }
+
+    @Test
+    public void deveLancarConflitoQuandoOStatusMudouAntesDaTransicao() {
+        //cenário
+        when(repository.existsByIdAndUsuarioId(1l, 2l)).thenReturn(true);
+
+        //execucao
+        Throwable erro = catchThrowable( () -> service.transicionarStatus(1l, 2l, StatusLancamento.EFETIVADO, 3l) );
+
+        //verificação
+        assertThat(erro).isInstanceOf(ConflitoAtualizacaoException.class);
+        verify(repository).transicionarStatus(1l, 2l, StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO, 3l);
+        verify(saldoUsuarioService, never()).ajustarPelaContribuicao(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    public void deveRetirarDoSaldoAContribuicaoDeUmLancamentoDeletado() {
+        //cenário
+        Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+        lancamento.setId(1l);
+
+        LancamentoRepository.ContribuicaoSaldo anterior = Mockito.mock(LancamentoRepository.ContribuicaoSaldo.class);
+        when(anterior.getIdUsuario()).thenReturn(2l);
+        when(anterior.getValor()).thenReturn(Dinheiro.de("10"));
+        when(repository.obterContribuicaoPersistidaNoSaldo(1l)).thenReturn(Optional.of(anterior));
+
+        //execucao
+        service.deletar(lancamento);
+
+        //verificação
+        verify(saldoUsuarioService).ajustar(2l, Dinheiro.de("-10"));
+    }
+
     @Test
     public void deveLancarErroAoTentarAtualizarUmLancamentoQueAindaNaoFoiSalvo() {
         //cenário
@@ -154,6 +327,51 @@ public class LancamentoServiceTest {
 
     }
 
+    @Test
+    public void deveBuscarPaginaDeLancamentosAposOIdInformado() {
+        //cenário
+        Lancamento filtro = new Lancamento();
+        filtro.setDescricao("Sal");
+        filtro.setUsuario(Usuario.builder().id(1l).build());
+
+        LancamentoProjecao lancamento = Mockito.mock(LancamentoProjecao.class);
+        when( repository.buscarPagina(1l, 10l, "%sal%", null, null, PageRequest.of(0, 20)) )
+                .thenReturn(new SliceImpl<>(Arrays.asList(lancamento), PageRequest.of(0, 20), false));
+
+        //execucao
+        List<LancamentoProjecao> resultado = service.buscarPagina(filtro, 10l, 20).getContent();
+
+        //verificacoes
+        assertThat(resultado).containsExactly(lancamento);
+    }
+
+    @Test
+    public void deveEscaparOsCuringasDoLikeNaDescricaoDaBusca() {
+        //cenário
+        Lancamento filtro = new Lancamento();
+        filtro.setDescricao("10%_A\\");
+        filtro.setUsuario(Usuario.builder().id(1l).build());
+
+        //execucao
+        service.buscarPagina(filtro, null, 20);
+        service.buscarProjecoes(filtro);
+
+        //verificacoes
+        verify(repository).buscarPagina(1l, 0l, "%10\\%\\_a\\\\%", null, null, PageRequest.of(0, 20));
+        verify(repository).buscarProjecoes(1l, "%10\\%\\_a\\\\%", null, null);
+    }
+
+    @Test
+    public void deveLancarErroAoBuscarPaginaComLimiteInvalido() {
+        Lancamento filtro = new Lancamento();
+        filtro.setUsuario(Usuario.builder().id(1l).build());
+
+        Throwable erro = catchThrowable( () -> service.buscarPagina(filtro, null, 0) );
+
+        assertThat(erro).isInstanceOf(RegraNegocioException.class);
+        verify(repository, never()).buscarPagina(any(), any(), any(), any(), any(), any());
+    }
+
     @Test
     public void deveAtualizarOStatusDeUmLancamento() {
         //cenário
@@ -259,12 +477,12 @@ public class LancamentoServiceTest {
         erro = catchThrowable( () -> service.validar(lancamento) );
         assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Valor válido.");
 
-        lancamento.setValor(BigDecimal.ZERO);
+        lancamento.setValor(Dinheiro.ZERO);
 
         erro = catchThrowable( () -> service.validar(lancamento) );
         assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Valor válido.");
 
-        lancamento.setValor(BigDecimal.valueOf(1));
+        lancamento.setValor(Dinheiro.de("1"));
 
         erro = catchThrowable( () -> service.validar(lancamento) );
         assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um tipo de Lançamento.");
@@ -276,19 +494,13 @@ public class LancamentoServiceTest {
         //cenario
         Long idUsuario = 1l;
 
-        when( repository
-                .obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO))
-                .thenReturn(BigDecimal.valueOf(100));
-
-        when( repository
-                .obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO))
-                .thenReturn(BigDecimal.valueOf(50));
+        when( saldoUsuarioService.obterSaldo(idUsuario) ).thenReturn(Dinheiro.de("50"));
 
         //execucao
-        BigDecimal saldo = service.obterSaldoPorUsuario(idUsuario);
+        Dinheiro saldo = service.obterSaldoPorUsuario(idUsuario);
 
         //verificacao
-        assertThat(saldo).isEqualTo(BigDecimal.valueOf(50));
+        assertThat(saldo).isEqualTo(Dinheiro.de("50"));
 
     }
 
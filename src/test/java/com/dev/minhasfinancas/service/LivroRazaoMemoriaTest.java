@@ -0,0 +1,202 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.PeriodoResumo;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository.ResumoLancamento;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.event.LancamentoAlteradoEvent;
+import com.dev.minhasfinancas.service.event.LancamentoAlteradoEvent.Operacao;
+import com.dev.minhasfinancas.service.impl.LivroRazaoMemoria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * O resumo do livro-razão precisa coincidir com o agregado no banco depois de cada tipo de alteração.
+ * Com 300 bytes cabe o livro de um único usuário (até 8 lançamentos).
+ */
+@SpringBootTest(properties = {
+        "minhasfinancas.livro-razao.habilitado=true",
+        "minhasfinancas.livro-razao.memoria-maxima=300B"
+})
+@ActiveProfiles("test")
+public class LivroRazaoMemoriaTest {
+
+    @Autowired
+    LancamentoService service;
+
+    @Autowired
+    LivroRazaoMemoria livroRazao;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Usuario usuario;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveResumirComoOBancoDepoisDeCadaAlteracao() {
+        //cenario
+        Lancamento luz = service.salvar(lancamento(usuario, 1, "10.50", TipoLancamento.DESPESA));
+        Lancamento salario = service.salvar(lancamento(usuario, 1, "1000.00", TipoLancamento.RECEITA));
+        Lancamento aluguel = service.salvar(lancamento(usuario, 2, "500.00", TipoLancamento.DESPESA));
+        Lancamento agua = service.salvar(lancamento(usuario, 3, "30.25", TipoLancamento.DESPESA));
+        service.obterResumo(usuario.getId(), PeriodoResumo.MENSAL, null);
+
+        //execucao
+        Lancamento bonus = service.salvar(lancamento(usuario, 3, "200.00", TipoLancamento.RECEITA));
+        service.transicionarStatus(salario.getId(), null, StatusLancamento.EFETIVADO, null);
+        service.atualizarStatusEmLote(usuario.getId(), Arrays.asList(luz.getId(), bonus.getId()), StatusLancamento.EFETIVADO);
+        service.atualizarParcialmente(aluguel.getId(), usuario.getId(), Lancamento.builder().valor(Dinheiro.de("550.00")).mes(4).build(), null);
+        Lancamento recarregada = repository.findById(agua.getId()).get();
+        recarregada.setAno(2021);
+        service.atualizarStatus(recarregada, StatusLancamento.CANCELADO);
+        service.deletar(repository.findById(luz.getId()).get());
+
+        //verificacao
+        assertThat(livroRazao.getQuantidadeUsuarios()).isEqualTo(1);
+        assertThat(descrever(service.obterResumo(usuario.getId(), PeriodoResumo.MENSAL, null)))
+                .isEqualTo(descrever(repository.resumirPorMes(usuario.getId(), null)))
+                .hasSize(4);
+        assertThat(descrever(service.obterResumo(usuario.getId(), PeriodoResumo.MENSAL, 2019)))
+                .isEqualTo(descrever(repository.resumirPorMes(usuario.getId(), 2019)));
+        assertThat(descrever(service.obterResumo(usuario.getId(), PeriodoResumo.ANUAL, null)))
+                .isEqualTo(descrever(repository.resumirPorAno(usuario.getId(), null)))
+                .hasSize(2);
+    }
+
+    @Test
+    public void deveDescartarOUsuarioConsultadoHaMaisTempoAcimaDaMemoriaMaxima() {
+        //cenario
+        Usuario outro = UsuarioRepositoryTest.criarUsuario();
+        outro.setEmail("outro@email.com");
+        outro = usuarioRepository.save(outro);
+        service.salvar(lancamento(usuario, 1, "10.00", TipoLancamento.RECEITA));
+        service.salvar(lancamento(outro, 1, "20.00", TipoLancamento.RECEITA));
+        service.obterResumo(usuario.getId(), PeriodoResumo.MENSAL, null);
+        service.obterResumo(outro.getId(), PeriodoResumo.MENSAL, null);
+
+        //execucao: a alteração do primeiro usuário chega quando o livro dele já foi descartado
+        service.salvar(lancamento(usuario, 1, "5.00", TipoLancamento.RECEITA));
+        List<ResumoLancamento> resumo = service.obterResumo(usuario.getId(), PeriodoResumo.MENSAL, null);
+
+        //verificacao
+        assertThat(livroRazao.getQuantidadeUsuarios()).isEqualTo(1);
+        assertThat(livroRazao.getBytesEmUso()).isLessThanOrEqualTo(300);
+        assertThat(resumo).hasSize(1);
+        assertThat(resumo.get(0).getReceitasPendentes()).isEqualTo(Dinheiro.de("15.00"));
+        assertThat(resumo.get(0).getQuantidade()).isEqualTo(2);
+    }
+
+    @Test
+    public void deveDescartarACargaSoQuandoOEventoForDoMesmoUsuario() {
+        //cenario: durante cada carga chega um evento, do próprio usuário só quando ele é o 3
+        LancamentoRepository repositorio = Mockito.mock(LancamentoRepository.class);
+        LivroRazaoMemoria livros = new LivroRazaoMemoria(repositorio, transactionManager, new SimpleMeterRegistry(), DataSize.ofMegabytes(1));
+        Mockito.when(repositorio.obterLivroRazaoDoUsuario(Mockito.anyLong())).thenAnswer( invocacao -> {
+            long idDono = invocacao.<Long>getArgument(0) == 3l ? 3l : 2l;
+            Lancamento alterado = Lancamento.builder().id(10l).status(StatusLancamento.EFETIVADO)
+                    .usuario(Usuario.builder().id(idDono).build()).build();
+            livros.aoAlterarLancamento(new LancamentoAlteradoEvent(Operacao.ALTERADO_PARCIALMENTE, alterado));
+            return Collections.emptyList();
+        });
+
+        //execucao
+        livros.resumir(1l, PeriodoResumo.MENSAL, null);
+        livros.resumir(3l, PeriodoResumo.MENSAL, null);
+
+        //verificacao: só o livro do usuário 1 foi guardado
+        assertThat(livros.getQuantidadeUsuarios()).isEqualTo(1);
+        livros.resumir(1l, PeriodoResumo.MENSAL, null);
+        Mockito.verify(repositorio, Mockito.times(1)).obterLivroRazaoDoUsuario(1l);
+    }
+
+    @Test
+    public void deveCarregarOLivroForaDaTransacaoSomenteLeituraDeQuemPedeOResumo() {
+        //cenario: com o roteamento ligado, uma transação somente leitura iria para a réplica
+        LancamentoRepository repositorio = Mockito.mock(LancamentoRepository.class);
+        LivroRazaoMemoria livros = new LivroRazaoMemoria(repositorio, transactionManager, new SimpleMeterRegistry(), DataSize.ofMegabytes(1));
+        List<Boolean> somenteLeitura = new ArrayList<>();
+        Mockito.when(repositorio.obterLivroRazaoDoUsuario(1l)).thenAnswer( invocacao -> {
+            somenteLeitura.add(TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return Collections.emptyList();
+        });
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+
+        //execucao
+        leitura.execute( status -> livros.resumir(1l, PeriodoResumo.MENSAL, null) );
+
+        //verificacao
+        assertThat(somenteLeitura).containsExactly(false);
+    }
+
+    private static Lancamento lancamento(Usuario usuario, int mes, String valor, TipoLancamento tipo) {
+        return Lancamento.builder()
+                .descricao("lançamento")
+                .ano(2019)
+                .mes(mes)
+                .valor(Dinheiro.de(valor))
+                .tipo(tipo)
+                .usuario(usuario)
+                .build();
+    }
+
+    private static List<String> descrever(List<ResumoLancamento> resumo) {
+        return resumo.stream()
+                .map( r -> r.getAno() + "/" + r.getMes()
+                        + " " + r.getReceitasEfetivadas()
+                        + " " + r.getDespesasEfetivadas()
+                        + " " + r.getReceitasPendentes()
+                        + " " + r.getDespesasPendentes()
+                        + " " + r.getReceitasCanceladas()
+                        + " " + r.getDespesasCanceladas()
+                        + " " + r.getQuantidade() )
+                .collect(Collectors.toList());
+    }
+}
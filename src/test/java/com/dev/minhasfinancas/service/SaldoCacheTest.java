@@ -0,0 +1,138 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Sem transação no teste: cada operação do serviço é confirmada antes da consulta seguinte.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SaldoCacheTest {
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    SaldoUsuarioService saldoUsuarioService;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Statistics estatisticas;
+    Usuario usuario;
+    Lancamento pendente;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        salvar(TipoLancamento.RECEITA, "100", StatusLancamento.EFETIVADO);
+        pendente = salvar(TipoLancamento.RECEITA, "30", StatusLancamento.PENDENTE);
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+        estatisticas.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        estatisticas.setStatisticsEnabled(false);
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveResponderSaldoEVersaoRepetidosSemIrAoBanco() {
+        //cenario
+        assertThat(saldoUsuarioService.obterSaldo(usuario.getId())).isEqualTo(Dinheiro.de("100"));
+        long comandos = estatisticas.getPrepareStatementCount();
+
+        //execucao
+        Dinheiro segundo = saldoUsuarioService.obterSaldo(usuario.getId());
+        long versao = saldoUsuarioService.obterVersao(usuario.getId());
+
+        //verificacao
+        assertThat(segundo).isEqualTo(Dinheiro.de("100"));
+        assertThat(versao).isPositive();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(comandos);
+        assertThat(estatisticas.getDomainDataRegionStatistics(SaldoUsuarioRepository.CACHE_SALDOS).getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void deveEnxergarCadaAlteracaoDoServicoLogoDepoisDoCommit() {
+        assertThat(saldo()).isEqualTo(Dinheiro.de("100"));
+        long versao = saldoUsuarioService.obterVersao(usuario.getId());
+
+        //inserção (update em JPQL)
+        Lancamento novo = salvar(TipoLancamento.DESPESA, "50", StatusLancamento.PENDENTE);
+        assertThat(saldoUsuarioService.obterVersao(usuario.getId())).isEqualTo(versao + 1);
+
+        //transição de status (update nativo)
+        lancamentoService.transicionarStatus(pendente.getId(), usuario.getId(), StatusLancamento.EFETIVADO, null);
+        assertThat(saldo()).isEqualTo(Dinheiro.de("130"));
+
+        //alteração parcial
+        lancamentoService.atualizarParcialmente(pendente.getId(), usuario.getId(), Lancamento.builder().valor(Dinheiro.de("40")).build(), null);
+        assertThat(saldo()).isEqualTo(Dinheiro.de("140"));
+
+        //alteração em lote
+        lancamentoService.atualizarStatusEmLote(usuario.getId(), Collections.singletonList(novo.getId()), StatusLancamento.EFETIVADO);
+        assertThat(saldo()).isEqualTo(Dinheiro.de("90"));
+
+        //correção na verificação
+        jdbcTemplate.update("update financas.saldo_usuario set saldo = 7 where id_usuario = ?", usuario.getId());
+        assertThat(saldoUsuarioService.verificarSaldos()).isEqualTo(1);
+        assertThat(saldo()).isEqualTo(Dinheiro.de("90"));
+
+        //remoção
+        lancamentoService.deletar(lancamentoRepository.findById(novo.getId()).get());
+        assertThat(saldo()).isEqualTo(Dinheiro.de("140"));
+    }
+
+    private Dinheiro saldo() {
+        return saldoUsuarioService.obterSaldo(usuario.getId());
+    }
+
+    private Lancamento salvar(TipoLancamento tipo, String valor, StatusLancamento status) {
+        Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+        lancamento.setUsuario(usuario);
+        lancamento.setTipo(tipo);
+        lancamento.setValor(Dinheiro.de(valor));
+        Lancamento salvo = lancamentoService.salvar(lancamento);
+        if(status != StatusLancamento.PENDENTE) {
+            lancamentoService.transicionarStatus(salvo.getId(), usuario.getId(), status, null);
+        }
+        return salvo;
+    }
+}
@@ -0,0 +1,258 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.exceptions.ConflitoAtualizacaoException;
+import com.dev.minhasfinancas.exceptions.RegraNegocioException;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.SaldoUsuario;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.ResultadoAtualizacaoStatus;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import com.dev.minhasfinancas.service.impl.IndiceDescricaoMemoria;
+import com.dev.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.dev.minhasfinancas.service.impl.ResumoLancamentosBanco;
+import com.dev.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.entry;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import({SaldoUsuarioServiceImpl.class, LancamentoServiceImpl.class, IndiceDescricaoMemoria.class, ResumoLancamentosBanco.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+public class SaldoUsuarioServiceTest {
+
+    @Autowired
+    SaldoUsuarioService service;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    SaldoUsuarioRepository repository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    Usuario usuario;
+
+    @BeforeEach
+    public void setUp() {
+        usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    }
+
+    @Test
+    public void deveManterOSaldoAtualizadoAoMovimentarLancamentos() {
+        Lancamento salario = lancamentoService.salvar(lancamento(TipoLancamento.RECEITA, 100));
+        Lancamento aluguel = lancamentoService.salvar(lancamento(TipoLancamento.DESPESA, 40));
+        assertThat(service.obterSaldo(usuario.getId())).isEqualTo(Dinheiro.de("0"));
+
+        lancamentoService.atualizarStatus(salario, StatusLancamento.EFETIVADO);
+        lancamentoService.atualizarStatus(aluguel, StatusLancamento.EFETIVADO);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("60"));
+
+        // com o controle de versão, cada alteração parte do lançamento relido, como faria um cliente
+        aluguel = recarregado(aluguel);
+        aluguel.setValor(Dinheiro.de("55"));
+        lancamentoService.atualizar(aluguel);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("45"));
+
+        lancamentoService.atualizarStatus(recarregado(salario), StatusLancamento.CANCELADO);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("-55"));
+
+        lancamentoService.deletar(recarregado(aluguel));
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("0"));
+    }
+
+    @Test
+    public void deveAvancarAVersaoEmQualquerAlteracaoDeLancamento() {
+        assertThat(service.obterVersao(usuario.getId())).isZero();
+
+        Lancamento salario = lancamentoService.salvar(lancamento(TipoLancamento.RECEITA, 100));
+        long versaoInicial = versaoGravada();
+        assertThat(versaoInicial).isPositive();
+
+        // descrição não mexe no saldo, mas muda o lançamento
+        salario.setDescricao("salario de janeiro");
+        lancamentoService.atualizar(salario);
+        assertThat(versaoGravada()).isEqualTo(versaoInicial + 1);
+
+        lancamentoService.salvarLote(new ArrayList<>(Arrays.asList(lancamento(TipoLancamento.DESPESA, 5), lancamento(TipoLancamento.DESPESA, 6))));
+        assertThat(versaoGravada()).isEqualTo(versaoInicial + 2);
+
+        lancamentoService.deletar(recarregado(salario));
+        assertThat(versaoGravada()).isEqualTo(versaoInicial + 3);
+    }
+
+    @Test
+    public void deveAjustarOSaldoAoAtualizarOStatusEmLote() {
+        //cenario
+        Lancamento salario = lancamentoService.salvar(lancamento(TipoLancamento.RECEITA, 100));
+        Lancamento aluguel = lancamentoService.salvar(lancamento(TipoLancamento.DESPESA, 40));
+        Lancamento conta = lancamento(TipoLancamento.DESPESA, 15);
+        conta.setStatus(StatusLancamento.EFETIVADO);
+        lancamentoService.atualizarStatus(lancamentoService.salvar(conta), StatusLancamento.EFETIVADO);
+        Lancamento deOutroUsuario = LancamentoRepositoryTest.lancamentoFactory();
+        Usuario outroUsuario = UsuarioRepositoryTest.criarUsuario();
+        outroUsuario.setEmail("outro@email.com");
+        deOutroUsuario.setUsuario(entityManager.persist(outroUsuario));
+        entityManager.persist(deOutroUsuario);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("-15"));
+
+        //execucao
+        Map<Long, ResultadoAtualizacaoStatus> resultados = lancamentoService.atualizarStatusEmLote(usuario.getId(),
+                Arrays.asList(salario.getId(), aluguel.getId(), conta.getId(), deOutroUsuario.getId(), 0l),
+                StatusLancamento.EFETIVADO);
+
+        //verificacao
+        assertThat(resultados).containsExactly(
+                entry(salario.getId(), ResultadoAtualizacaoStatus.ATUALIZADO),
+                entry(aluguel.getId(), ResultadoAtualizacaoStatus.ATUALIZADO),
+                entry(conta.getId(), ResultadoAtualizacaoStatus.INALTERADO),
+                entry(deOutroUsuario.getId(), ResultadoAtualizacaoStatus.NAO_ENCONTRADO),
+                entry(0l, ResultadoAtualizacaoStatus.NAO_ENCONTRADO));
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("45"));
+        assertThat(entityManager.find(Lancamento.class, deOutroUsuario.getId()).getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+
+        lancamentoService.atualizarStatusEmLote(usuario.getId(), Arrays.asList(salario.getId()), StatusLancamento.CANCELADO);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("-55"));
+        assertThat(service.verificarSaldos()).isZero();
+
+        // cancelado não volta a ser efetivado
+        assertThat(lancamentoService.atualizarStatusEmLote(usuario.getId(), Arrays.asList(salario.getId(), aluguel.getId()),
+                StatusLancamento.EFETIVADO)).containsExactly(
+                entry(salario.getId(), ResultadoAtualizacaoStatus.NAO_PERMITIDO),
+                entry(aluguel.getId(), ResultadoAtualizacaoStatus.INALTERADO));
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("-55"));
+    }
+
+    @Test
+    public void deveAjustarOSaldoAoAlterarParcialmenteOValor() {
+        //cenario
+        Lancamento aluguel = lancamentoService.salvar(lancamento(TipoLancamento.DESPESA, 40));
+        lancamentoService.transicionarStatus(aluguel.getId(), null, StatusLancamento.EFETIVADO, null);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("-40"));
+
+        //execucao
+        lancamentoService.atualizarParcialmente(aluguel.getId(), usuario.getId(),
+                Lancamento.builder().valor(Dinheiro.de("55")).build(), null);
+
+        //verificacao
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("-55"));
+        Lancamento gravado = recarregado(aluguel);
+        assertThat(gravado.getDescricao()).isEqualTo(aluguel.getDescricao());
+        assertThat(gravado.getVersao()).isEqualTo(2);
+
+        Throwable erro = catchThrowable( () -> lancamentoService.atualizarParcialmente(aluguel.getId(), usuario.getId(),
+                Lancamento.builder().tipo(TipoLancamento.RECEITA).build(), 1l) );
+        assertThat(erro).isInstanceOf(ConflitoAtualizacaoException.class);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("-55"));
+
+        lancamentoService.atualizarParcialmente(aluguel.getId(), usuario.getId(),
+                Lancamento.builder().tipo(TipoLancamento.RECEITA).build(), 2l);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("55"));
+        assertThat(service.verificarSaldos()).isZero();
+    }
+
+    @Test
+    public void deveCalcularOSaldoQuandoAindaNaoHouverRegistroGravado() {
+        Lancamento salario = lancamento(TipoLancamento.RECEITA, 100);
+        salario.setStatus(StatusLancamento.EFETIVADO);
+        entityManager.persistAndFlush(salario);
+
+        assertThat(service.obterSaldo(usuario.getId())).isEqualTo(Dinheiro.de("100"));
+        assertThat(repository.findById(usuario.getId())).isEmpty();
+    }
+
+    @Test
+    public void deveCorrigirSaldosDivergentesNaVerificacao() {
+        Lancamento salario = lancamento(TipoLancamento.RECEITA, 100);
+        salario.setStatus(StatusLancamento.EFETIVADO);
+        entityManager.persist(salario);
+        entityManager.persistAndFlush(new SaldoUsuario(usuario.getId(), Dinheiro.de("7")));
+
+        int divergencias = service.verificarSaldos();
+
+        assertThat(divergencias).isEqualTo(1);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("100"));
+    }
+
+    @Test
+    public void naoDeveTrocarOStatusNaAtualizacaoParaUmaTransicaoNaoPermitida() {
+        //cenario
+        Lancamento salario = lancamentoService.salvar(lancamento(TipoLancamento.RECEITA, 100));
+        lancamentoService.transicionarStatus(salario.getId(), null, StatusLancamento.CANCELADO, null);
+
+        //execucao
+        // como no PUT, o lançamento alterado não é o da sessão
+        Lancamento alterado = recarregado(salario);
+        entityManager.detach(alterado);
+        alterado.setStatus(StatusLancamento.EFETIVADO);
+        Throwable erro = catchThrowable( () -> lancamentoService.atualizar(alterado) );
+
+        //verificacao
+        assertThat(erro).isInstanceOf(RegraNegocioException.class)
+                .hasMessage("Um lançamento CANCELADO não pode passar para EFETIVADO.");
+        assertThat(recarregado(salario).getStatus()).isEqualTo(StatusLancamento.CANCELADO);
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("0"));
+    }
+
+    @Test
+    public void deveCriarNaVerificacaoOSaldoQueAindaNaoExiste() {
+        Lancamento salario = lancamento(TipoLancamento.RECEITA, 100);
+        salario.setStatus(StatusLancamento.EFETIVADO);
+        entityManager.persistAndFlush(salario);
+
+        int divergencias = service.verificarSaldos();
+
+        assertThat(divergencias).isZero();
+        assertThat(saldoGravado()).isEqualTo(Dinheiro.de("100"));
+    }
+
+    private Lancamento recarregado(Lancamento lancamento) {
+        entityManager.flush();
+        entityManager.clear();
+        return lancamentoService.obterPorId(lancamento.getId()).get();
+    }
+
+    private long versaoGravada() {
+        entityManager.flush();
+        entityManager.clear();
+        return service.obterVersao(usuario.getId());
+    }
+
+    private Dinheiro saldoGravado() {
+        entityManager.flush();
+        entityManager.clear();
+        return repository.findById(usuario.getId()).map(SaldoUsuario::getSaldo).orElse(null);
+    }
+
+    private Lancamento lancamento(TipoLancamento tipo, int valor) {
+        Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+        lancamento.setUsuario(usuario);
+        lancamento.setTipo(tipo);
+        lancamento.setValor(Dinheiro.de(BigDecimal.valueOf(valor)));
+        return lancamento;
+    }
+}
@@ -0,0 +1,178 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.exceptions.ConflitoAtualizacaoException;
+import com.dev.minhasfinancas.model.entity.Lancamento;
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.enums.StatusLancamento;
+import com.dev.minhasfinancas.model.enums.TipoLancamento;
+import com.dev.minhasfinancas.model.repository.LancamentoRepository;
+import com.dev.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.dev.minhasfinancas.model.valor.Dinheiro;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Várias threads disputam as mesmas transições de status, cada uma em sua própria transação.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class TransicaoStatusConcorrenteTest {
+
+    static final int LANCAMENTOS = 20;
+    static final int THREADS = 8;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    SaldoUsuarioService saldoUsuarioService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Usuario usuario;
+    List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        for (int i = 0; i < LANCAMENTOS; i++) {
+            Lancamento lancamento = LancamentoRepositoryTest.lancamentoFactory();
+            lancamento.setUsuario(usuario);
+            lancamento.setTipo(i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA);
+            lancamento.setValor(Dinheiro.de(BigDecimal.valueOf(i + 1)));
+            ids.add(lancamentoService.salvar(lancamento).getId());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+        jdbcTemplate.update("delete from financas.lancamento");
+        jdbcTemplate.update("delete from financas.usuario");
+    }
+
+    @Test
+    public void deveAplicarUmaUnicaTransicaoPorVersaoSobConcorrencia() throws Exception {
+        //execucao: todas as threads partem da versão 0, então só uma transição por lançamento pode valer
+        Map<Long, AtomicInteger> sucessos = disputar(0L);
+
+        //verificacao
+        assertThat(sucessos).hasSize(LANCAMENTOS);
+        assertThat(sucessos.values()).allMatch( s -> s.get() == 1 );
+        assertThat(lancamentoRepository.findAllById(ids))
+                .allMatch( l -> l.getVersao() == 1 && l.getStatus() != StatusLancamento.PENDENTE );
+        assertThat(saldoUsuarioService.verificarSaldos()).isZero();
+    }
+
+    @Test
+    public void deveManterOSaldoConsistenteComTransicoesEncadeadasSobConcorrencia() throws Exception {
+        //execucao: sem versão, um lançamento pode ser efetivado e depois cancelado, mas nunca duas vezes o mesmo passo
+        Map<Long, AtomicInteger> sucessos = disputar(null);
+
+        //verificacao
+        assertThat(sucessos.values()).allMatch( s -> s.get() >= 1 && s.get() <= 2 );
+        assertThat(lancamentoRepository.findAllById(ids))
+                .allMatch( l -> l.getVersao() == sucessos.get(l.getId()).get() );
+        assertThat(saldoUsuarioService.verificarSaldos()).isZero();
+    }
+
+    @Test
+    public void deveCriarOSaldoUmaUnicaVezNasPrimeirasMovimentacoesConcorrentes() throws Exception {
+        //cenario: o usuário ainda sem saldo gravado
+        jdbcTemplate.update("delete from financas.saldo_usuario");
+
+        //execucao
+        Map<Long, AtomicInteger> sucessos = disputar(0L);
+
+        //verificacao
+        assertThat(sucessos).hasSize(LANCAMENTOS);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from financas.saldo_usuario", Integer.class)).isEqualTo(1);
+        assertThat(saldoUsuarioService.verificarSaldos()).isZero();
+    }
+
+    @Test
+    public void naoDeveAcusarNemDesfazerAjustesConcorrentesNaVerificacao() throws Exception {
+        //cenario: a verificação roda sem parar enquanto as transições ajustam o saldo
+        AtomicBoolean disputando = new AtomicBoolean(true);
+        ExecutorService verificador = Executors.newSingleThreadExecutor();
+        Future<Integer> divergencias = verificador.submit( () -> {
+            int total = 0;
+            while (disputando.get()) {
+                total += saldoUsuarioService.verificarSaldos();
+            }
+            return total;
+        });
+
+        //execucao
+        try {
+            disputar(null);
+        } finally {
+            disputando.set(false);
+            verificador.shutdown();
+        }
+
+        //verificacao
+        assertThat(divergencias.get(30, TimeUnit.SECONDS)).isZero();
+        assertThat(saldoUsuarioService.verificarSaldos()).isZero();
+    }
+
+    private Map<Long, AtomicInteger> disputar(Long versao) throws Exception {
+        Map<Long, AtomicInteger> sucessos = new ConcurrentHashMap<>();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                StatusLancamento destino = t % 2 == 0 ? StatusLancamento.EFETIVADO : StatusLancamento.CANCELADO;
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (Long id : ids) {
+                        try {
+                            lancamentoService.transicionarStatus(id, usuario.getId(), destino, versao);
+                            sucessos.computeIfAbsent(id, chave -> new AtomicInteger()).incrementAndGet();
+                        }catch (ConflitoAtualizacaoException e) {
+                            // outra thread chegou antes
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return sucessos;
+    }
+}
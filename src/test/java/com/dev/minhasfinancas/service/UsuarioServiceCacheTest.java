@@ -0,0 +1,90 @@
+package com.dev.minhasfinancas.service;
+
+import com.dev.minhasfinancas.model.entity.Usuario;
+import com.dev.minhasfinancas.model.repository.UsuarioRepository;
+import com.dev.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UsuarioServiceCacheTest {
+
+    @Autowired
+    UsuarioService service;
+
+    @Autowired
+    UsuarioRepository repository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics estatisticas;
+    Usuario usuario;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCacheNames().forEach( nome -> cacheManager.getCache(nome).clear() );
+        usuario = service.salvarUsuario(UsuarioRepositoryTest.criarUsuario());
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+        estatisticas.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        estatisticas.setStatisticsEnabled(false);
+        repository.deleteAll();
+    }
+
+    @Test
+    public void deveBuscarOUsuarioNoBancoUmaUnicaVez() {
+        service.obterPorId(usuario.getId());
+        long comandos = estatisticas.getPrepareStatementCount();
+
+        service.obterPorId(usuario.getId());
+        service.obterPorId(usuario.getId());
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(comandos);
+        assertThat(estatisticas.getDomainDataRegionStatistics(UsuarioRepository.CACHE_USUARIOS).getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void deveReaproveitarOUsuarioDoCacheAoAutenticar() {
+        service.autenticar(usuario.getEmail(), usuario.getSenha());
+        long comandos = estatisticas.getPrepareStatementCount();
+
+        service.autenticar(usuario.getEmail(), usuario.getSenha());
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(comandos);
+        assertThat(estatisticas.getQueryRegionStatistics(UsuarioRepository.CACHE_USUARIOS_POR_EMAIL).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void deveInvalidarOCacheAoSalvarOUsuario() {
+        service.obterPorId(usuario.getId());
+        service.autenticar(usuario.getEmail(), usuario.getSenha());
+
+        usuario.setNome("Novo nome");
+        usuario.setEmail("novo@email.com");
+        service.salvarUsuario(usuario);
+
+        assertThat(service.obterPorId(usuario.getId()).get().getNome()).isEqualTo("Novo nome");
+        assertThat(repository.findByEmail("email@hotmail.com")).isEmpty();
+        assertThat(service.autenticar("novo@email.com", usuario.getSenha()).getNome()).isEqualTo("Novo nome");
+    }
+}